@@ -0,0 +1,58 @@
+#!/bin/bash
+
+# Compares POST /telemetry throughput and latency with platform threads (default)
+# and virtual threads at a high number of concurrent connections.
+# Expects PostgreSQL, Kafka and Redis from docker-compose; restarts only the app container.
+
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+# Configuration
+API_URL="${API_URL:-http://localhost:8080}"
+CONCURRENCY="${CONCURRENCY:-2000}"
+DURATION="${DURATION:-30s}"
+WARMUP="${WARMUP:-10s}"
+RESULTS_DIR="${RESULTS_DIR:-target/benchmark}"
+
+if ! command -v hey &> /dev/null; then
+    echo -e "${RED}Error: hey is required but not installed.${NC}"
+    echo "Install with: brew install hey (macOS) or go install github.com/rakyll/hey@latest"
+    exit 1
+fi
+
+mkdir -p "$RESULTS_DIR"
+PAYLOAD='{"deviceId":1, "measurement":10, "date":"2025-01-31T13:00:00Z"}'
+
+run_mode() {
+    local virtual=$1
+    local label=$2
+
+    echo -e "\n${YELLOW}🔁 Restarting app with ${label} threads...${NC}"
+    VIRTUAL_THREADS=$virtual docker-compose up -d --no-deps --force-recreate app > /dev/null
+    timeout 60 bash -c "until curl -sf ${API_URL}/actuator/health | grep -q '\"status\":\"UP\"'; do sleep 1; done" || {
+        echo -e "${RED}❌ Application failed to become healthy within 60 seconds${NC}"
+        exit 1
+    }
+
+    # JIT warm-up, results discarded
+    hey -z "$WARMUP" -c 100 -m POST -T application/json -d "$PAYLOAD" "${API_URL}/telemetry" > /dev/null
+
+    echo -e "${YELLOW}⏱  ${CONCURRENCY} connections for ${DURATION}...${NC}"
+    hey -z "$DURATION" -c "$CONCURRENCY" -m POST -T application/json -d "$PAYLOAD" \
+        "${API_URL}/telemetry" > "${RESULTS_DIR}/${label}.txt"
+
+    echo -e "${BLUE}--- ${label} threads ---${NC}"
+    grep -E 'Requests/sec|Average|Slowest|  (50|95|99)% in' "${RESULTS_DIR}/${label}.txt"
+    grep -A5 'Status code distribution' "${RESULTS_DIR}/${label}.txt"
+}
+
+run_mode false platform
+run_mode true virtual
+
+echo -e "\n${GREEN}✅ Full reports in ${RESULTS_DIR}/platform.txt and ${RESULTS_DIR}/virtual.txt${NC}"
@@ -0,0 +1,72 @@
+package com.ifco.telemetry.benchmark;
+
+import com.ifco.telemetry.config.KafkaConfig;
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.event.TelemetryRecordedEventDeserializer;
+import com.ifco.telemetry.event.TelemetryRecordedEventSerializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of a TelemetryRecordedEvent as the outbox relay writes it and the
+ * projection listener reads it, per wire format (TelemetryRecordedEventSerializer):
+ * JSON without type headers (about 80 bytes) or binary v1 (24 bytes).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventDeserializationBenchmark {
+
+    @Param({ "json", "binary" })
+    private String format;
+
+    private TelemetryRecordedEventSerializer serializer;
+    private TelemetryRecordedEventDeserializer deserializer;
+    private TelemetryRecordedEvent event;
+    private Headers headers;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = new TelemetryRecordedEventSerializer(format);
+        deserializer = new TelemetryRecordedEventDeserializer();
+        event = new TelemetryRecordedEvent(42L, 21.5, Instant.parse("2025-01-31T13:00:00.123Z"));
+        headers = new RecordHeaders();
+        payload = serializer.serialize(KafkaConfig.TELEMETRY_TOPIC, headers, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public TelemetryRecordedEvent deserialize() {
+        return deserializer.deserialize(KafkaConfig.TELEMETRY_TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        // Fresh headers, as the producer passes each record's own
+        return serializer.serialize(KafkaConfig.TELEMETRY_TOPIC, new RecordHeaders(), event);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ifco.telemetry.benchmark;
+
+import com.ifco.telemetry.config.KafkaProducerProfile;
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.event.TelemetryRecordedEventSerializer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second the telemetry producer gets acknowledged, per KafkaProducerProfile.
+ *
+ * One operation is one event; an invocation sends an outbox relay batch (1000 events
+ * over 10k devices) and waits for every acknowledgement, as OutboxRelay does. Producer
+ * properties are those of KafkaConfig: string keys, values in the given event format.
+ *
+ * Needs Docker: a single-broker Kafka container is started unless -p bootstrapServers
+ * points at a running cluster. A single broker understates the gap, since acks=all
+ * round trips to followers are what several in-flight requests hide.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaProducerBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final int DEVICES = 10_000;
+    private static final int PARTITIONS = 6;
+
+    @Param({ "ORDERED", "THROUGHPUT" })
+    private KafkaProducerProfile profile;
+
+    @Param({ "json", "binary" })
+    private String format;
+
+    // Empty = start a Kafka container
+    @Param({ "" })
+    private String bootstrapServers;
+
+    private KafkaContainer kafka;
+    private KafkaProducer<String, TelemetryRecordedEvent> producer;
+    private String topic;
+    private long sequence;
+
+    @Setup
+    public void setUp() throws Exception {
+        String servers = bootstrapServers;
+        if (servers.isEmpty()) {
+            kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+            kafka.start();
+            servers = kafka.getBootstrapServers();
+        }
+
+        topic = "telemetry.events.bench-" + UUID.randomUUID();
+        try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, servers))) {
+            admin.createTopics(List.of(new NewTopic(topic, PARTITIONS, (short) 1))).all().get();
+        }
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+        props.putAll(profile.properties());
+        producer = new KafkaProducer<>(props, new StringSerializer(), new TelemetryRecordedEventSerializer(format));
+    }
+
+    @TearDown
+    public void tearDown() {
+        producer.close();
+        if (kafka != null) {
+            kafka.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long sendBatch() throws Exception {
+        Instant now = Instant.now();
+        Future<?>[] sends = new Future<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            long deviceId = sequence++ % DEVICES;
+            sends[i] = producer.send(new ProducerRecord<>(
+                topic,
+                String.valueOf(deviceId),
+                new TelemetryRecordedEvent(deviceId, 21.5, now)
+            ));
+        }
+        producer.flush();
+        long offsets = 0;
+        for (Future<?> send : sends) {
+            offsets += ((RecordMetadata) send.get()).offset();
+        }
+        return offsets;
+    }
+}
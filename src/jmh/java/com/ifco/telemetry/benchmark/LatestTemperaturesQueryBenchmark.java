@@ -0,0 +1,53 @@
+package com.ifco.telemetry.benchmark;
+
+import com.ifco.telemetry.query.DeviceTemperatureDTO;
+import com.ifco.telemetry.query.GetLatestTemperaturesQueryHandler;
+import com.ifco.telemetry.repository.InMemoryProjectionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO list assembly of GetLatestTemperaturesQueryHandler.handle for growing fleets,
+ * reading from an in-memory ProjectionRepository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LatestTemperaturesQueryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int devices;
+
+    private GetLatestTemperaturesQueryHandler queryHandler;
+
+    @Setup
+    public void setUp() {
+        InMemoryProjectionRepository repository = new InMemoryProjectionRepository(devices);
+        Instant date = Instant.parse("2025-01-31T13:00:00Z");
+        for (long deviceId = 0; deviceId < devices; deviceId++) {
+            repository.upsertIfNewer(deviceId, 20.0 + deviceId % 10, date);
+        }
+        queryHandler = new GetLatestTemperaturesQueryHandler(repository);
+    }
+
+    @Benchmark
+    public List<DeviceTemperatureDTO> handle() {
+        return queryHandler.handle();
+    }
+}
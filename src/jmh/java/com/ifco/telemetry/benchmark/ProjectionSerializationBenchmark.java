@@ -0,0 +1,64 @@
+package com.ifco.telemetry.benchmark;
+
+import com.ifco.telemetry.config.RedisConfig;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.DeviceProjectionRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value encoding of DeviceProjection in both telemetry.projection.redis-format
+ * modes: the 29-byte binary layout and the legacy typed JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectionSerializationBenchmark {
+
+    @Param({"binary", "json"})
+    private String format;
+
+    private DeviceProjectionRedisSerializer serializer;
+    private DeviceProjection projection;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = new DeviceProjectionRedisSerializer(
+            RedisConfig.legacyJsonSerializer(),
+            format.equals("binary")
+        );
+        projection = new DeviceProjection(42L, 21.5, Instant.parse("2025-01-31T13:00:00.123Z"));
+        encoded = serializer.serialize(projection);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(projection);
+    }
+
+    @Benchmark
+    public DeviceProjection deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    @Benchmark
+    public DeviceProjection roundTrip() {
+        return serializer.deserialize(serializer.serialize(projection));
+    }
+}
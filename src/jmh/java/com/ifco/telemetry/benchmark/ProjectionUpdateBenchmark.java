@@ -0,0 +1,66 @@
+package com.ifco.telemetry.benchmark;
+
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.event.TelemetryRecordedEventHandler;
+import com.ifco.telemetry.repository.InMemoryProjectionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TelemetryRecordedEventHandler.handle against an in-memory ProjectionRepository,
+ * i.e. the cost of the newer-than decision and projection write without Redis.
+ * Every other event is older than the stored projection and gets ignored.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectionUpdateBenchmark {
+
+    private static final int EVENTS = 1 << 16;
+    private static final Instant BASE = Instant.parse("2025-01-31T13:00:00Z");
+
+    @Param({"10000"})
+    private int devices;
+
+    private TelemetryRecordedEventHandler handler;
+    private TelemetryRecordedEvent[] events;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        InMemoryProjectionRepository repository = new InMemoryProjectionRepository(devices);
+        for (long deviceId = 0; deviceId < devices; deviceId++) {
+            repository.upsertIfNewer(deviceId, 20.0, BASE);
+        }
+        handler = new TelemetryRecordedEventHandler(repository, new SimpleMeterRegistry());
+
+        events = new TelemetryRecordedEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            // Equal timestamps overwrite, so replaying the array keeps writing the even events
+            Instant date = i % 2 == 0 ? BASE.plusSeconds(i) : BASE.minusSeconds(1);
+            events[i] = new TelemetryRecordedEvent((long) (i % devices), 21.5, date);
+        }
+    }
+
+    @Benchmark
+    public void handle() {
+        handler.handle(events[next]);
+        next = (next + 1) & (EVENTS - 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ifco.telemetry.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ifco.telemetry.controller.TelemetryRequest;
+import com.ifco.telemetry.controller.TelemetryRequestDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the POST /telemetry body.
+ *
+ * bind is the previous path: databinding into TelemetryRequest with an ObjectMapper
+ * configured like the one Spring Boot gives Spring MVC (Jackson2ObjectMapperBuilder
+ * defaults), before bean validation. decode is the TelemetryRequestDecoder path used
+ * by the controller now.
+ *
+ * Allocation target for decode: at most a third of bind's gc.alloc.rate.norm, and
+ * no more than the request itself plus the parser (about 400 B/op). Check with
+ * -Djmh.args="-prof gc TelemetryRequestBinding". TelemetryRequestMessageConverterTest
+ * asserts a looser ceiling on every build (no JMH fork, so less escape analysis).
+ * decodeCoerced is the slower string-number path kept for Jackson compatibility.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TelemetryRequestBindingBenchmark {
+
+    private static final byte[] PAYLOAD = """
+        {"deviceId":42,"measurement":21.5,"date":"2025-01-31T13:00:00.123Z"}
+        """.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COERCED_PAYLOAD = """
+        {"deviceId":"42","measurement":"21.5","date":"2025-01-31T13:00:00.123Z"}
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private final TelemetryRequestDecoder decoder = new TelemetryRequestDecoder();
+
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reader = objectMapper.readerFor(TelemetryRequest.class);
+    }
+
+    @Benchmark
+    public TelemetryRequest bind() throws IOException {
+        return reader.readValue(PAYLOAD);
+    }
+
+    @Benchmark
+    public TelemetryRequest decode() throws IOException {
+        // The servlet body is an InputStream as well
+        return decoder.decode(new ByteArrayInputStream(PAYLOAD));
+    }
+
+    @Benchmark
+    public TelemetryRequest decodeCoerced() throws IOException {
+        return decoder.decode(new ByteArrayInputStream(COERCED_PAYLOAD));
+    }
+}
@@ -0,0 +1,54 @@
+package com.ifco.telemetry.loadgen;
+
+import com.ifco.telemetry.TelemetryServiceApplication;
+import com.redis.testcontainers.RedisContainer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Throwaway environment for --testcontainers runs: the same PostgreSQL, Kafka and
+ * Redis images as docker-compose, and the service started in this JVM on a random port.
+ */
+final class ContainerizedService implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine")
+        .withDatabaseName("telemetry");
+    private final KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.0"));
+    private final RedisContainer redis = new RedisContainer(DockerImageName.parse("redis:7-alpine"));
+    private ConfigurableApplicationContext context;
+
+    static ContainerizedService start() {
+        ContainerizedService service = new ContainerizedService();
+        service.postgres.start();
+        service.kafka.start();
+        service.redis.start();
+        service.context = SpringApplication.run(
+            TelemetryServiceApplication.class,
+            "--server.port=0",
+            "--spring.datasource.url=" + service.postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+            "--spring.datasource.username=" + service.postgres.getUsername(),
+            "--spring.datasource.password=" + service.postgres.getPassword(),
+            "--spring.kafka.bootstrap-servers=" + service.kafka.getBootstrapServers(),
+            "--spring.data.redis.host=" + service.redis.getHost(),
+            "--spring.data.redis.port=" + service.redis.getMappedPort(6379)
+        );
+        return service;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+        redis.stop();
+        kafka.stop();
+        postgres.stop();
+    }
+}
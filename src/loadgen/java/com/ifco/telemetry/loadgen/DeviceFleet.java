@@ -0,0 +1,68 @@
+package com.ifco.telemetry.loadgen;
+
+import java.time.Instant;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulated fleet: produces the next reading of a random device.
+ *
+ * Fresh readings are dated now and always newer than the device's previous one.
+ * Out-of-order readings are dated up to a minute before the device's latest reading
+ * (the projection must ignore them); duplicates resend the device's previous body.
+ * Not thread-safe, driven by the single pacing thread.
+ */
+final class DeviceFleet {
+
+    enum Kind { FRESH, OUT_OF_ORDER, DUPLICATE }
+
+    record Reading(long deviceId, Instant date, String body, Kind kind) {}
+
+    private static final long MAX_OUT_OF_ORDER_MS = 60_000;
+
+    private final double outOfOrder;
+    private final double duplicates;
+    private final RandomGenerator random;
+    private final Instant[] latestDates;
+    private final String[] lastBodies;
+
+    DeviceFleet(int devices, double outOfOrder, double duplicates, RandomGenerator random) {
+        this.outOfOrder = outOfOrder;
+        this.duplicates = duplicates;
+        this.random = random;
+        this.latestDates = new Instant[devices];
+        this.lastBodies = new String[devices];
+    }
+
+    Reading next() {
+        int index = random.nextInt(latestDates.length);
+        long deviceId = index + 1L;
+        Instant latest = latestDates[index];
+        double roll = random.nextDouble();
+
+        if (latest != null && roll < duplicates) {
+            return new Reading(deviceId, null, lastBodies[index], Kind.DUPLICATE);
+        }
+        if (latest != null && roll < duplicates + outOfOrder) {
+            Instant date = latest.minusMillis(1 + random.nextLong(MAX_OUT_OF_ORDER_MS));
+            return remember(index, new Reading(deviceId, date, body(deviceId, date), Kind.OUT_OF_ORDER));
+        }
+
+        Instant now = Instant.now();
+        // Strictly newer than the previous reading even within the same millisecond
+        Instant date = latest != null && !now.isAfter(latest) ? latest.plusMillis(1) : now;
+        latestDates[index] = date;
+        return remember(index, new Reading(deviceId, date, body(deviceId, date), Kind.FRESH));
+    }
+
+    private Reading remember(int index, Reading reading) {
+        lastBodies[index] = reading.body();
+        return reading;
+    }
+
+    private String body(long deviceId, Instant date) {
+        double measurement = Math.round((15 + random.nextDouble() * 15) * 10) / 10.0;
+        return "{\"deviceId\":" + deviceId
+            + ",\"measurement\":" + measurement
+            + ",\"date\":\"" + date + "\"}";
+    }
+}
@@ -0,0 +1,320 @@
+package com.ifco.telemetry.loadgen;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ifco.telemetry.query.DeviceTemperatureDTO;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+
+/**
+ * Fleet load generator: ./mvnw -Ploadgen -DskipTests verify -Dloadgen.args="--devices=10000 --rate=5000"
+ *
+ * Posts readings of a simulated fleet (see DeviceFleet) to POST /telemetry at a fixed
+ * rate while a reader polls GET /devices/temperatures, and reports:
+ * - write latency: from the scheduled send time to the response, so a stalled service
+ *   is not hidden by the generator slowing down (no coordinated omission)
+ * - read latency: one full NDJSON read of the fleet
+ * - visibility: from sending a fresh reading to the first poll that returns it, i.e.
+ *   ingest-to-projection lag, with a resolution of the read interval plus read time
+ *
+ * Latencies are recorded in HdrHistograms (microseconds, 3 significant digits); the
+ * full percentile distributions are written as .hgrm files to --report-dir.
+ * Options are listed in LoadOptions.
+ */
+public final class FleetLoadGenerator {
+
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final LoadOptions options;
+    private final URI telemetryUri;
+    private final URI temperaturesUri;
+    private final HttpClient client;
+    private final ObjectReader deviceReader;
+
+    private final Recorder writeRecorder = new Recorder(3);
+    private final Recorder readRecorder = new Recorder(3);
+    private final Recorder visibilityRecorder = new Recorder(3);
+    private final Histogram writeLatency = new Histogram(3);
+    private final Histogram readLatency = new Histogram(3);
+    private final Histogram visibility = new Histogram(3);
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder readFailures = new LongAdder();
+    // Latest fresh reading per device not yet seen by the reader: date and scheduled send time
+    private final Map<Long, PendingReading> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean measuring;
+    private volatile boolean reading = true;
+
+    private FleetLoadGenerator(LoadOptions options, String baseUrl) {
+        this.options = options;
+        this.telemetryUri = URI.create(baseUrl + "/telemetry");
+        this.temperaturesUri = URI.create(baseUrl + "/devices/temperatures");
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.deviceReader = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(DeviceTemperatureDTO.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        if (options.testcontainers()) {
+            try (ContainerizedService service = ContainerizedService.start()) {
+                new FleetLoadGenerator(options, service.baseUrl()).run();
+            }
+        } else {
+            new FleetLoadGenerator(options, options.url()).run();
+        }
+        // The service's non-daemon threads would otherwise keep a --testcontainers run alive
+        System.exit(0);
+    }
+
+    private void run() throws InterruptedException, IOException {
+        System.out.printf(
+            "Fleet of %d devices posting %d req/s to %s for %ds (+%ds warm-up), "
+                + "out-of-order %.0f%%, duplicates %.0f%%%n",
+            options.devices(), options.rate(), telemetryUri, options.duration().toSeconds(),
+            options.warmup().toSeconds(), options.outOfOrder() * 100, options.duplicates() * 100
+        );
+
+        Thread reader = Thread.ofVirtual().name("loadgen-reader").start(this::pollProjections);
+        Thread reporter = Thread.ofVirtual().name("loadgen-reporter").start(this::reportIntervals);
+
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        DeviceFleet fleet = new DeviceFleet(
+            options.devices(), options.outOfOrder(), options.duplicates(), RandomGenerator.getDefault()
+        );
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            if (!measuring && scheduled >= measureFrom) {
+                resetRecorders();
+                measuring = true;
+            }
+            inFlight.acquire();
+            send(fleet.next(), scheduled, inFlight);
+        }
+
+        // Let outstanding writes finish and the reader catch up with the last readings
+        inFlight.tryAcquire(options.maxInFlight(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (!pending.isEmpty() && System.nanoTime() < drainDeadline) {
+            Thread.sleep(options.readInterval().toMillis());
+        }
+        reading = false;
+        reporter.interrupt();
+        reader.join();
+        reporter.join();
+
+        collectIntervals();
+        printSummary(options.duration().toNanos());
+        writeDistributions();
+    }
+
+    private void send(DeviceFleet.Reading reading, long scheduled, Semaphore inFlight) {
+        HttpRequest request = HttpRequest.newBuilder(telemetryUri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(reading.body()))
+            .build();
+        if (reading.kind() == DeviceFleet.Kind.FRESH) {
+            pending.put(reading.deviceId(), new PendingReading(reading.date(), scheduled));
+        }
+
+        boolean measured = measuring;
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.release();
+            if (!measured) {
+                return;
+            }
+            writeRecorder.recordValue(micros(System.nanoTime() - scheduled));
+            if (error != null) {
+                failed.increment();
+            } else if (response.statusCode() == 202) {
+                accepted.increment();
+            } else if (response.statusCode() == 503) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+        });
+    }
+
+    private void pollProjections() {
+        HttpRequest request = HttpRequest.newBuilder(temperaturesUri).header("Accept", NDJSON).GET().build();
+        while (reading) {
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+                try (Stream<String> lines = response.body()) {
+                    lines.filter(line -> !line.isBlank()).forEach(this::observe);
+                }
+                if (measuring) {
+                    readRecorder.recordValue(micros(System.nanoTime() - started));
+                }
+            } catch (IOException | UncheckedIOException e) {
+                readFailures.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                Thread.sleep(options.readInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void observe(String line) {
+        DeviceTemperatureDTO device;
+        try {
+            device = deviceReader.readValue(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PendingReading sent = pending.get(device.deviceId());
+        if (sent != null && !device.date().isBefore(sent.date()) && pending.remove(device.deviceId(), sent)) {
+            if (measuring) {
+                visibilityRecorder.recordValue(micros(System.nanoTime() - sent.scheduledNanos()));
+            }
+        }
+    }
+
+    private void reportIntervals() {
+        while (true) {
+            try {
+                Thread.sleep(REPORT_INTERVAL.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!measuring) {
+                System.out.println("warming up...");
+                continue;
+            }
+            Histogram writes = writeRecorder.getIntervalHistogram();
+            Histogram visible = visibilityRecorder.getIntervalHistogram();
+            synchronized (this) {
+                writeLatency.add(writes);
+                visibility.add(visible);
+                readLatency.add(readRecorder.getIntervalHistogram());
+            }
+            System.out.printf(
+                "%8.0f writes/s  write p99 %8.2f ms  visible p99 %8.2f ms  pending %d%n",
+                writes.getTotalCount() / (double) REPORT_INTERVAL.toSeconds(),
+                millis(writes.getValueAtPercentile(99)),
+                millis(visible.getValueAtPercentile(99)),
+                pending.size()
+            );
+        }
+    }
+
+    private synchronized void resetRecorders() {
+        writeRecorder.reset();
+        readRecorder.reset();
+        visibilityRecorder.reset();
+    }
+
+    private synchronized void collectIntervals() {
+        writeLatency.add(writeRecorder.getIntervalHistogram());
+        readLatency.add(readRecorder.getIntervalHistogram());
+        visibility.add(visibilityRecorder.getIntervalHistogram());
+    }
+
+    private void printSummary(long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        long writes = accepted.sum() + rejected.sum() + failed.sum();
+        System.out.println();
+        System.out.printf(
+            "Writes: %d in %.1fs (%.0f/s), 202 %d, 503 %d, failed %d%n",
+            writes, seconds, writes / seconds, accepted.sum(), rejected.sum(), failed.sum()
+        );
+        System.out.printf("Reads: %d, failed %d%n", readLatency.getTotalCount(), readFailures.sum());
+        System.out.printf("Fresh readings never seen by the reader: %d%n", pending.size());
+        System.out.println();
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s%n",
+            "latency ms", "count", "p50", "p90", "p99", "p99.9", "max");
+        printRow("write", writeLatency);
+        printRow("read", readLatency);
+        printRow("visibility", visibility);
+    }
+
+    private static void printRow(String name, Histogram histogram) {
+        System.out.printf("%-12s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+            name,
+            histogram.getTotalCount(),
+            millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(90)),
+            millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue()));
+    }
+
+    private void writeDistributions() throws IOException {
+        Path directory = Files.createDirectories(Path.of(options.reportDirectory()));
+        String stamp = Instant.now().toString().replace(':', '-');
+        for (Map.Entry<String, Histogram> entry : Map.of(
+            "write", writeLatency, "read", readLatency, "visibility", visibility
+        ).entrySet()) {
+            Path file = directory.resolve(entry.getKey() + "-" + stamp + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                // Recorded in microseconds, written in milliseconds
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("\nPercentile distributions written to " + directory.toAbsolutePath());
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private record PendingReading(Instant date, long scheduledNanos) {}
+}
@@ -0,0 +1,88 @@
+package com.ifco.telemetry.loadgen;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the fleet load generator, given as --name=value.
+ *
+ * @param url             base URL of the service (ignored with --testcontainers)
+ * @param testcontainers  start PostgreSQL, Kafka, Redis and the service in-process
+ * @param devices         simulated fleet size
+ * @param rate            POST /telemetry requests per second across the fleet
+ * @param duration        measured run time
+ * @param warmup          run time before measuring starts
+ * @param outOfOrder      share of readings dated before the device's latest reading
+ * @param duplicates      share of readings that resend the device's previous reading
+ * @param readInterval    pause between two GET /devices/temperatures polls
+ * @param maxInFlight     requests outstanding at once; the pacer waits beyond that
+ * @param reportDirectory where the .hgrm percentile distributions are written
+ */
+record LoadOptions(
+    String url,
+    boolean testcontainers,
+    int devices,
+    int rate,
+    Duration duration,
+    Duration warmup,
+    double outOfOrder,
+    double duplicates,
+    Duration readInterval,
+    int maxInFlight,
+    String reportDirectory
+) {
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, was: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        LoadOptions options = new LoadOptions(
+            values.getOrDefault("url", "http://localhost:8080"),
+            Boolean.parseBoolean(values.getOrDefault("testcontainers", "false")),
+            Integer.parseInt(values.getOrDefault("devices", "1000")),
+            Integer.parseInt(values.getOrDefault("rate", "1000")),
+            parseDuration(values.getOrDefault("duration", "60s")),
+            parseDuration(values.getOrDefault("warmup", "10s")),
+            Double.parseDouble(values.getOrDefault("out-of-order", "0.05")),
+            Double.parseDouble(values.getOrDefault("duplicates", "0.02")),
+            parseDuration(values.getOrDefault("read-interval", "1s")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "512")),
+            values.getOrDefault("report-dir", "target/loadgen")
+        );
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        if (devices <= 0 || rate <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("devices, rate and max-in-flight must be positive");
+        }
+        if (outOfOrder < 0 || duplicates < 0 || outOfOrder + duplicates > 1) {
+            throw new IllegalArgumentException("out-of-order and duplicates must be ratios summing to at most 1");
+        }
+    }
+
+    // Accepts 500ms, 30s, 5m
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Duration must end in ms, s or m: " + value);
+        };
+    }
+}
@@ -0,0 +1,305 @@
+package com.ifco.telemetry.command;
+
+import com.ifco.telemetry.config.KafkaConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous ingest with group commit (telemetry.ingest.async.enabled).
+ *
+ * Single readings are validated and queued in a bounded in-memory queue; one writer
+ * thread drains it and stores each group through RecordTelemetryBatchCommandHandler,
+ * i.e. one transaction, one JDBC batch and one outbox batch per group. A group closes
+ * when it reaches max-batch-size readings or max-wait-ms after its first reading.
+ *
+ * Each submitted reading gets a future completed once its group has committed, so
+ * callers choose between acknowledging on enqueue (fast, readings still in memory are
+ * lost on crash) and acknowledging on commit (durable-ack, waits at most one group).
+ * A full queue rejects readings immediately (IngestRejectedException) instead of
+ * letting latency grow without bound.
+ *
+ * A failed group commit is not the end of its readings, which may already have been
+ * acknowledged. Infrastructure failures (database unreachable, timeouts, lock
+ * conflicts) are retried for the whole group up to commit-retries times, backing off
+ * from retry-backoff-ms and doubling; the writer waits meanwhile, so the queue fills
+ * and new readings get 503 instead of piling up. Any other failure (one reading breaks
+ * the batch) is followed by committing the readings one at a time, so only the
+ * readings that fail on their own are lost. Lost readings are logged and counted.
+ *
+ * Metrics: telemetry.ingest.queue.size (gauge), telemetry.ingest.rejected (full queue),
+ * telemetry.ingest.failed (readings dropped after a failed commit) and
+ * telemetry.ingest.group.commit (time per group commit).
+ *
+ * The writer runs on a virtual thread when spring.threads.virtual.enabled is set.
+ *
+ * On shutdown the queue stops accepting readings and the writer commits what is left.
+ * The running check and the enqueue happen under a shared lock that stop() takes
+ * exclusively, so no reading can be queued after the writer's final drain; should the
+ * writer still exit early (interrupted), the readings it left behind are failed rather
+ * than left with futures that never complete.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@ConditionalOnProperty(name = "telemetry.ingest.async.enabled", havingValue = "true")
+@Slf4j
+public class GroupCommitTelemetryIngestor implements SmartLifecycle {
+
+    // Stop after the web server has stopped accepting requests (it stops in a higher phase)
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long IDLE_POLL_MS = 100;
+
+    private final RecordTelemetryBatchCommandHandler batchCommandHandler;
+    private final BlockingQueue<PendingReading> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final boolean durableAck;
+    private final long durableAckTimeoutMs;
+    private final int commitRetries;
+    private final long retryBackoffMs;
+    private final boolean virtualThreads;
+    private final Counter rejectedReadings;
+    private final Counter failedReadings;
+    private final Timer groupCommitTimer;
+    // Read: submit's running check + enqueue; write: stop() flipping running
+    private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitTelemetryIngestor(
+        RecordTelemetryBatchCommandHandler batchCommandHandler,
+        @Value("${telemetry.ingest.async.queue-capacity:10000}") int queueCapacity,
+        @Value("${telemetry.ingest.async.max-batch-size:500}") int maxBatchSize,
+        @Value("${telemetry.ingest.async.max-wait-ms:10}") long maxWaitMs,
+        @Value("${telemetry.ingest.async.durable-ack:false}") boolean durableAck,
+        @Value("${telemetry.ingest.async.durable-ack-timeout-ms:5000}") long durableAckTimeoutMs,
+        @Value("${telemetry.ingest.async.commit-retries:3}") int commitRetries,
+        @Value("${telemetry.ingest.async.retry-backoff-ms:100}") long retryBackoffMs,
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+        MeterRegistry meterRegistry
+    ) {
+        this.batchCommandHandler = batchCommandHandler;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.durableAck = durableAck;
+        this.durableAckTimeoutMs = durableAckTimeoutMs;
+        this.commitRetries = commitRetries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.virtualThreads = virtualThreads;
+        Gauge.builder("telemetry.ingest.queue.size", queue, BlockingQueue::size)
+            .description("Readings waiting for a group commit")
+            .register(meterRegistry);
+        this.rejectedReadings = Counter.builder("telemetry.ingest.rejected")
+            .description("Readings rejected because the ingest queue was full")
+            .register(meterRegistry);
+        this.failedReadings = Counter.builder("telemetry.ingest.failed")
+            .description("Queued readings dropped because their commit failed")
+            .register(meterRegistry);
+        this.groupCommitTimer = Timer.builder("telemetry.ingest.group.commit")
+            .description("Time to store one group of queued readings")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Validates and enqueues a reading.
+     *
+     * @return future completed when the reading's group has been committed
+     * @throws IllegalArgumentException if the reading is invalid
+     * @throws IngestRejectedException if the queue is full or the pipeline is stopped
+     */
+    public CompletableFuture<Void> submit(RecordTelemetryCommand command) {
+        command.validate();
+        PendingReading pending = new PendingReading(command, new CompletableFuture<>());
+        lifecycleLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IngestRejectedException("ingest pipeline is not running");
+            }
+            if (!queue.offer(pending)) {
+                rejectedReadings.increment();
+                throw new IngestRejectedException("ingest queue is full");
+            }
+        } finally {
+            lifecycleLock.readLock().unlock();
+        }
+        return pending.committed();
+    }
+
+    /**
+     * Whether callers should acknowledge only after the group commit.
+     */
+    public boolean isDurableAck() {
+        return durableAck;
+    }
+
+    /**
+     * How long durable-ack callers wait for the commit before giving up.
+     */
+    public long durableAckTimeoutMs() {
+        return durableAckTimeoutMs;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        writer = builder.name("telemetry-ingest-writer").start(this::runWriter);
+    }
+
+    @Override
+    public void stop() {
+        lifecycleLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failLeftovers();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void runWriter() {
+        List<PendingReading> group = new ArrayList<>(maxBatchSize);
+        // Keep draining after stop() until every accepted reading is committed
+        while (running || !queue.isEmpty()) {
+            try {
+                collectGroup(group);
+            } catch (InterruptedException e) {
+                log.warn("Ingest writer interrupted with {} readings queued", queue.size());
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!group.isEmpty()) {
+                commit(group);
+                group.clear();
+            }
+        }
+    }
+
+    private void collectGroup(List<PendingReading> group) throws InterruptedException {
+        PendingReading first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (group.size() < maxBatchSize) {
+            queue.drainTo(group, maxBatchSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingReading next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<PendingReading> group) {
+        RuntimeException failure = commitWithRetries(group);
+        if (failure == null) {
+            log.debug("Group committed {} readings", group.size());
+            return;
+        }
+        if (group.size() == 1 || KafkaConfig.isInfrastructureFailure(failure)) {
+            drop(group, failure);
+            return;
+        }
+
+        log.warn("Group commit of {} readings failed, committing them one at a time", group.size(), failure);
+        for (PendingReading pending : group) {
+            RuntimeException readingFailure = commitWithRetries(List.of(pending));
+            if (readingFailure != null) {
+                drop(List.of(pending), readingFailure);
+            }
+        }
+    }
+
+    /**
+     * Commits the readings, retrying infrastructure failures with backoff.
+     *
+     * @return null once committed, otherwise the last failure
+     */
+    private RuntimeException commitWithRetries(List<PendingReading> readings) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                groupCommitTimer.record(() -> batchCommandHandler.handle(new RecordTelemetryBatchCommand(
+                    readings.stream().map(PendingReading::command).toList()
+                )));
+                readings.forEach(pending -> pending.committed().complete(null));
+                return null;
+            } catch (RuntimeException e) {
+                if (attempt >= commitRetries || !KafkaConfig.isInfrastructureFailure(e)) {
+                    return e;
+                }
+                log.warn("Commit of {} readings failed, retrying in {} ms", readings.size(), backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    private void drop(List<PendingReading> readings, RuntimeException failure) {
+        log.error("Dropped {} readings after their commit failed", readings.size(), failure);
+        failedReadings.increment(readings.size());
+        readings.forEach(pending -> pending.committed().completeExceptionally(failure));
+    }
+
+    /**
+     * Fails readings the writer did not commit (it was interrupted, or stop() was
+     * interrupted while waiting for it), so no caller waits forever.
+     */
+    private void failLeftovers() {
+        List<PendingReading> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        if (leftovers.isEmpty()) {
+            return;
+        }
+        log.warn("Ingest pipeline stopped with {} readings not committed", leftovers.size());
+        IngestRejectedException rejected = new IngestRejectedException("ingest pipeline stopped before commit");
+        leftovers.forEach(pending -> pending.committed().completeExceptionally(rejected));
+    }
+
+    private record PendingReading(RecordTelemetryCommand command, CompletableFuture<Void> committed) {}
+}
@@ -0,0 +1,13 @@
+package com.ifco.telemetry.command;
+
+/**
+ * Thrown when the asynchronous ingest pipeline cannot take a reading right now
+ * (queue full or shutting down), or with durable-ack cannot confirm its commit in time.
+ * Callers should retry later.
+ */
+public class IngestRejectedException extends RuntimeException {
+
+    public IngestRejectedException(String message) {
+        super(message);
+    }
+}
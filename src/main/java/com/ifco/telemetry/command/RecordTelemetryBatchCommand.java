@@ -0,0 +1,11 @@
+package com.ifco.telemetry.command;
+
+import java.util.List;
+
+/**
+ * Records many telemetry readings in a single transaction.
+ * Items keep their position so rejections can be reported per index.
+ */
+public record RecordTelemetryBatchCommand(
+        List<RecordTelemetryCommand> commands
+) {}
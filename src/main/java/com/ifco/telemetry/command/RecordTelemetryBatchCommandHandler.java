@@ -0,0 +1,87 @@
+package com.ifco.telemetry.command;
+
+import com.ifco.telemetry.domain.Telemetry;
+import com.ifco.telemetry.event.EventPublisher;
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Handles recording a batch of telemetry measurements.
+ *
+ * Invalid readings are rejected individually (reported by index) while the valid
+ * ones are stored in one transaction. Inserts are grouped into JDBC batches by
+ * Hibernate (see hibernate.jdbc.batch_size) and events are handed to the publisher
+ * together so the producer can send them in as few requests as possible.
+ * The inserts are timed as telemetry.write.save (mode=batch).
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@Slf4j
+public class RecordTelemetryBatchCommandHandler {
+
+    private final TelemetryRepository telemetryRepository;
+    private final EventPublisher eventPublisher;
+    private final Timer saveTimer;
+
+    public RecordTelemetryBatchCommandHandler(
+        TelemetryRepository telemetryRepository,
+        EventPublisher eventPublisher,
+        MeterRegistry meterRegistry
+    ) {
+        this.telemetryRepository = telemetryRepository;
+        this.eventPublisher = eventPublisher;
+        this.saveTimer = RecordTelemetryCommandHandler.saveTimer(meterRegistry, "batch");
+    }
+
+    @Transactional
+    public RecordTelemetryBatchResult handle(RecordTelemetryBatchCommand batch) {
+        if (batch.commands() == null || batch.commands().isEmpty()) {
+            throw new IllegalArgumentException("batch cannot be empty");
+        }
+
+        List<Telemetry> telemetries = new ArrayList<>(batch.commands().size());
+        List<TelemetryRecordedEvent> events = new ArrayList<>(batch.commands().size());
+        List<RecordTelemetryBatchResult.RejectedItem> rejected = new ArrayList<>();
+
+        for (int index = 0; index < batch.commands().size(); index++) {
+            RecordTelemetryCommand command = batch.commands().get(index);
+            if (command == null) {
+                rejected.add(new RecordTelemetryBatchResult.RejectedItem(index, "reading cannot be null"));
+                continue;
+            }
+            try {
+                command.validate();
+            } catch (IllegalArgumentException e) {
+                rejected.add(new RecordTelemetryBatchResult.RejectedItem(index, e.getMessage()));
+                continue;
+            }
+
+            telemetries.add(new Telemetry(command.deviceId(), command.temperature(), command.date()));
+            events.add(new TelemetryRecordedEvent(command.deviceId(), command.temperature(), command.date()));
+        }
+
+        if (!telemetries.isEmpty()) {
+            // Save to write model (append-only), flushed as JDBC batches inside the timer
+            saveTimer.record(() -> telemetryRepository.saveAllAndFlush(telemetries));
+
+            // Publish events (handler will update projections)
+            eventPublisher.publishAll(events);
+        }
+
+        log.debug(
+            "Saved telemetry batch: accepted={}, rejected={}",
+            telemetries.size(),
+            rejected.size()
+        );
+
+        return new RecordTelemetryBatchResult(telemetries.size(), rejected);
+    }
+}
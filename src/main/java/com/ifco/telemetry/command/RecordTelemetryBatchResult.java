@@ -0,0 +1,20 @@
+package com.ifco.telemetry.command;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch command: how many readings were stored and which were rejected.
+ */
+public record RecordTelemetryBatchResult(
+        int accepted,
+        List<RejectedItem> rejected
+) {
+
+    /**
+     * A reading that failed validation, identified by its position in the batch.
+     */
+    public record RejectedItem(
+            int index,
+            String reason
+    ) {}
+}
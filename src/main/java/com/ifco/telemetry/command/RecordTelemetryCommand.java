@@ -6,4 +6,21 @@ public record RecordTelemetryCommand(
         Long deviceId,
         Double temperature,
         Instant date
-) {}
+) {
+
+    /**
+     * Fails fast with a clear error message when a required field is missing.
+     * Shared by the single and batch command handlers so both reject the same inputs.
+     */
+    public void validate() {
+        if (deviceId == null) {
+            throw new IllegalArgumentException("deviceId cannot be null");
+        }
+        if (temperature == null) {
+            throw new IllegalArgumentException("temperature cannot be null");
+        }
+        if (date == null) {
+            throw new IllegalArgumentException("date cannot be null");
+        }
+    }
+}
@@ -4,7 +4,8 @@ import com.ifco.telemetry.domain.Telemetry;
 import com.ifco.telemetry.event.EventPublisher;
 import com.ifco.telemetry.event.TelemetryRecordedEvent;
 import com.ifco.telemetry.repository.TelemetryRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,30 +13,42 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Handles recording telemetry measurements.
  * Saves to write model and publishes event for projection updates.
+ * The insert is timed as telemetry.write.save (mode=single).
  *
- * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
  * @Slf4j - Provides 'log' field for logging
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class RecordTelemetryCommandHandler {
 
     private final TelemetryRepository telemetryRepository;
     private final EventPublisher eventPublisher;
+    private final Timer saveTimer;
+
+    public RecordTelemetryCommandHandler(
+        TelemetryRepository telemetryRepository,
+        EventPublisher eventPublisher,
+        MeterRegistry meterRegistry
+    ) {
+        this.telemetryRepository = telemetryRepository;
+        this.eventPublisher = eventPublisher;
+        this.saveTimer = saveTimer(meterRegistry, "single");
+    }
+
+    /**
+     * Timer for write-model inserts, shared with the batch handler.
+     */
+    static Timer saveTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("telemetry.write.save")
+            .description("Time to insert telemetry rows into the write model")
+            .tag("mode", mode)
+            .register(meterRegistry);
+    }
 
     @Transactional
     public void handle(RecordTelemetryCommand command) {
         // Validate inputs - fail fast with clear error messages
-        if (command.deviceId() == null) {
-            throw new IllegalArgumentException("deviceId cannot be null");
-        }
-        if (command.temperature() == null) {
-            throw new IllegalArgumentException("temperature cannot be null");
-        }
-        if (command.date() == null) {
-            throw new IllegalArgumentException("date cannot be null");
-        }
+        command.validate();
 
         // Save to write model (append-only)
         Telemetry telemetry = new Telemetry(
@@ -44,7 +57,8 @@ public class RecordTelemetryCommandHandler {
             command.date()
         );
 
-        Telemetry saved = telemetryRepository.save(telemetry);
+        // Flushed inside the timer: with sequence ids the INSERT would otherwise run at commit
+        Telemetry saved = saveTimer.record(() -> telemetryRepository.saveAndFlush(telemetry));
         log.debug(
             "Saved telemetry id={} for device={}",
             saved.getId(),
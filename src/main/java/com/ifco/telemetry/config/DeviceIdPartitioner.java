@@ -0,0 +1,43 @@
+package com.ifco.telemetry.config;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Kafka partitioner that maps a numeric device id key straight to a partition.
+ *
+ * Sequentially allocated device ids then spread evenly across partitions
+ * (device N goes to partition N mod partitions), whereas the default murmur2
+ * hash can leave hot spots for small fleets. A device always maps to the same
+ * partition, so per-device ordering is preserved.
+ *
+ * Keys that are not numeric fall back to murmur2, like the default partitioner.
+ * Enable with telemetry.kafka.partitioner-class.
+ */
+public class DeviceIdPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitions = cluster.partitionCountForTopic(topic);
+        if (key == null) {
+            throw new IllegalArgumentException("Telemetry events must be keyed by deviceId");
+        }
+        try {
+            long deviceId = Long.parseLong(key.toString());
+            return (int) Math.floorMod(deviceId, (long) partitions);
+        } catch (NumberFormatException e) {
+            return Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.ifco.telemetry.config;
+
+import com.ifco.telemetry.projection.ProjectionRebuilder;
+import com.ifco.telemetry.repository.InMemoryProjectionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Keeps device projections in process instead of Redis
+ * (telemetry.projection.store=memory), for single-node edge sites.
+ *
+ * Configures:
+ * - InMemoryProjectionRepository as the primary ProjectionRepository, presized for
+ *   telemetry.projection.memory.expected-devices
+ * - A projection rebuild from the telemetry table at startup, since the projections
+ *   are lost on restart and the consumer group resumes after the last committed offset
+ *
+ * RedisProjectionRepository, ProjectionFormatMigrator, the near-cache and sharding
+ * back off in this mode. The Redis connection factory is still auto-configured but
+ * nothing uses it, so it never connects; set management.health.redis.enabled=false
+ * where no Redis runs. Startup fails if the near-cache or sharding is configured too,
+ * since both wrap Redis.
+ */
+@Configuration
+@ConditionalOnProperty(name = "telemetry.projection.store", havingValue = "memory")
+public class InMemoryProjectionConfig {
+
+    @Bean
+    @Primary
+    public InMemoryProjectionRepository inMemoryProjectionRepository(
+        @Value("${telemetry.projection.memory.expected-devices:100000}") int expectedDevices,
+        @Value("${telemetry.projection.near-cache.enabled:false}") boolean nearCache,
+        @Value("${telemetry.projection.sharding.nodes:}") String shardingNodes
+    ) {
+        if (nearCache) {
+            throw new IllegalStateException(
+                "telemetry.projection.near-cache.enabled cannot be combined with telemetry.projection.store=memory"
+            );
+        }
+        if (!shardingNodes.isBlank()) {
+            throw new IllegalStateException(
+                "telemetry.projection.sharding.nodes cannot be combined with telemetry.projection.store=memory"
+            );
+        }
+        return new InMemoryProjectionRepository(expectedDevices);
+    }
+
+    @Bean
+    public ApplicationRunner inMemoryProjectionLoader(ProjectionRebuilder projectionRebuilder) {
+        return args -> projectionRebuilder.start();
+    }
+}
@@ -1,55 +1,203 @@
 package com.ifco.telemetry.config;
 
 import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.event.TelemetryRecordedEventDeserializer;
+import com.ifco.telemetry.event.TelemetryRecordedEventSerializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.converter.ConversionException;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.DeserializationException;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
-import org.springframework.util.backoff.FixedBackOff;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.backoff.ExponentialBackOff;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Kafka configuration for event publishing and consumption.
  *
  * Configures:
- * - Producer with JSON serialization for events
- * - Consumer with JSON deserialization and error handling
- * - Dead Letter Topic (DLT) for failed messages after retries
- * - Retry strategy with fixed backoff
+ * - Topics with a configurable partition count
+ * - Producer writing events in the format of telemetry.kafka.event-format (24-byte binary,
+ *   or JSON during a rolling upgrade; see TelemetryRecordedEventSerializer), keyed by
+ *   deviceId (optional custom partitioner), with the delivery and batching settings of
+ *   telemetry.kafka.producer.profile
+ * - Consumer reading both event formats (TelemetryRecordedEventDeserializer) and error handling
+ * - Non-blocking retries for the projection listeners: a record that fails for a reason
+ *   of its own (for batch listeners, one pinpointed by a BatchListenerFailedException)
+ *   is not retried in place but forwarded to the retry topics telemetry.events.retry-1s,
+ *   -10s and -1m in turn, and to the Dead Letter Topic (DLT) after the last one. Each
+ *   stage is consumed by TelemetryRetryEventHandler once its delay has passed, so one
+ *   failing record never holds up the partition it came from. Undeserializable records
+ *   go straight to the DLT. Forwarded records keep their key, headers and (for
+ *   undeserializable records) original bytes, plus the kafka_dlt-exception-* and
+ *   kafka_dlt-original-* headers of DeadLetterPublishingRecoverer.
+ * - Blocking retries for infrastructure failures (isInfrastructureFailure: Redis or
+ *   PostgreSQL unreachable, timeouts, lock conflicts), on every container: the records
+ *   are redelivered in place with exponential backoff (1s doubling up to 1 min, no
+ *   limit) until the store is back, instead of draining a whole poll through the retry
+ *   topics into the DLT while the store is down.
+ * - The rollup listener (own consumer group) retries infrastructure failures the same
+ *   way and dead-letters batches that fail for any other reason
+ * - Kafka client metrics (incl. consumer lag, records-lag-max) in Micrometer,
+ *   telemetry.events.retried (tag topic) and telemetry.events.dead-lettered counters
+ * - Listener threads on virtual threads when spring.threads.virtual.enabled is set
+ *   (Boot only does this for the container factory it creates itself)
+ *
+ * Scaling model: events are keyed by deviceId, so a device's readings always
+ * share one partition and each partition is owned by exactly one listener thread.
+ * Listener threads therefore never contend on the same device projection, and
+ * throughput scales by raising telemetry.kafka.partitions together with
+ * telemetry.kafka.consumer-concurrency (threads beyond the partition count stay idle).
+ * Raising the partition count of an existing topic remaps keys, so per-device
+ * ordering is only guaranteed for events produced after the change.
  */
 @Configuration
 public class KafkaConfig {
 
+    public static final String TELEMETRY_TOPIC = "telemetry.events";
+    public static final String TELEMETRY_DLT = "telemetry.events.dlt";
+    public static final String TELEMETRY_RETRY_1S = "telemetry.events.retry-1s";
+    public static final String TELEMETRY_RETRY_10S = "telemetry.events.retry-10s";
+    public static final String TELEMETRY_RETRY_1M = "telemetry.events.retry-1m";
+    /** Epoch millis before which a retry topic record must not be processed */
+    public static final String RETRY_NOT_BEFORE_HEADER = "telemetry-retry-not-before";
+
+    // Where a record that failed on a topic goes next, and how long it waits there
+    private static final Map<String, String> NEXT_TOPIC = Map.of(
+            TELEMETRY_TOPIC, TELEMETRY_RETRY_1S,
+            TELEMETRY_RETRY_1S, TELEMETRY_RETRY_10S,
+            TELEMETRY_RETRY_10S, TELEMETRY_RETRY_1M,
+            TELEMETRY_RETRY_1M, TELEMETRY_DLT
+    );
+    private static final Map<String, Duration> RETRY_DELAY = Map.of(
+            TELEMETRY_RETRY_1S, Duration.ofSeconds(1),
+            TELEMETRY_RETRY_10S, Duration.ofSeconds(10),
+            TELEMETRY_RETRY_1M, Duration.ofMinutes(1)
+    );
+
+    // Failures of the stores rather than of a record: retrying later succeeds
+    private static final List<Class<? extends Exception>> INFRASTRUCTURE_FAILURES = List.of(
+            TransientDataAccessException.class,
+            RecoverableDataAccessException.class,
+            DataAccessResourceFailureException.class,
+            CannotCreateTransactionException.class
+    );
+
+    private final MeterRegistry meterRegistry;
+    private final Counter deadLettered;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${telemetry.kafka.partitions:6}")
+    private int partitions;
+
+    @Value("${telemetry.kafka.replication-factor:1}")
+    private short replicationFactor;
+
+    @Value("${telemetry.kafka.consumer-concurrency:3}")
+    private int consumerConcurrency;
+
+    @Value("${telemetry.kafka.partitioner-class:}")
+    private String partitionerClass;
+
+    @Value("${telemetry.kafka.producer.profile:throughput}")
+    private String producerProfile;
+
+    @Value("${telemetry.kafka.event-format:binary}")
+    private String eventFormat;
+
+    @Value("${telemetry.kafka.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    public KafkaConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.deadLettered = Counter.builder("telemetry.events.dead-lettered")
+                .description("Telemetry events sent to the dead letter topic after the last retry topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Telemetry event topic. Created (or grown to the configured partition count) on startup.
+     */
+    @Bean
+    public NewTopic telemetryTopic() {
+        return TopicBuilder.name(TELEMETRY_TOPIC)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+
+    @Bean
+    public NewTopic telemetryDeadLetterTopic() {
+        return TopicBuilder.name(TELEMETRY_DLT)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics telemetryRetryTopics() {
+        return new KafkaAdmin.NewTopics(RETRY_DELAY.keySet().stream()
+                .map(topic -> TopicBuilder.name(topic).partitions(partitions).replicas(replicationFactor).build())
+                .toArray(NewTopic[]::new));
+    }
+
     /**
      * Producer configuration for publishing events.
-     * Uses JSON serialization and ensures message ordering with max-in-flight=1.
+     * Events are written in the configured event format; acks, idempotence, in-flight
+     * requests, batching and compression come from the configured KafkaProducerProfile.
+     * Records are keyed by deviceId; telemetry.kafka.partitioner-class plugs in a
+     * custom Partitioner (e.g. DeviceIdPartitioner), otherwise Kafka hashes the key.
      */
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        props.put(ProducerConfig.ACKS_CONFIG, "all");
-        props.put(ProducerConfig.RETRIES_CONFIG, 3);
-        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(props);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, TelemetryRecordedEventSerializer.class);
+        props.put(TelemetryRecordedEventSerializer.FORMAT_CONFIG, eventFormat);
+        props.putAll(KafkaProducerProfile.of(producerProfile).properties());
+        if (!partitionerClass.isBlank()) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        }
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -57,9 +205,30 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * Template for forwarding failed records to the retry topics and the DLT. Values are
+     * events (in the configured event format, as in producerFactory) or, for
+     * undeserializable records, the original bytes, which must be written unchanged.
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> retryKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.putAll(KafkaProducerProfile.of(producerProfile).properties());
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(TelemetryRecordedEvent.class, new TelemetryRecordedEventSerializer(eventFormat));
+        DefaultKafkaProducerFactory<Object, Object> factory = new DefaultKafkaProducerFactory<>(
+                props, null, new DelegatingByTypeSerializer(valueSerializers, true));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return new KafkaTemplate<>(factory);
+    }
+
     /**
      * Consumer configuration for consuming events.
-     * Uses JSON deserialization with trusted packages for security.
+     * Values are always read as TelemetryRecordedEvent, in either wire format; type
+     * information in the record is never trusted.
      */
     @Bean
     public ConsumerFactory<String, TelemetryRecordedEvent> consumerFactory() {
@@ -68,36 +237,190 @@ public class KafkaConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "telemetry-consumer-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, TelemetryRecordedEventDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TelemetryRecordedEvent.class.getName());
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        DefaultKafkaConsumerFactory<String, TelemetryRecordedEvent> factory = new DefaultKafkaConsumerFactory<>(props);
+        // Exposes the client's fetch metrics, including per-partition consumer lag
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     /**
      * Kafka listener container factory with error handling and retry logic.
-     * Failed messages after retries are sent to Dead Letter Topic (DLT).
+     * Failed records are forwarded to the first retry topic (see class comment).
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> kafkaListenerContainerFactory(
-            KafkaTemplate<String, Object> kafkaTemplate) {
+            KafkaTemplate<Object, Object> retryKafkaTemplate) {
         ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
-        factory.setConcurrency(3);
+        factory.setConcurrency(consumerConcurrency);
+        factory.setCommonErrorHandler(forwardingErrorHandler(retryKafkaTemplate));
+        configureListenerThreads(factory);
+
+        return factory;
+    }
+
+    /**
+     * Batch listener container factory: the listener receives a whole poll
+     * (up to telemetry.kafka.max-poll-records) and offsets are committed once per batch.
+     * Same retry topics and DLT as the record factory; a BatchListenerFailedException
+     * pinpoints the failing record so the ones before it are committed and only it is
+     * forwarded. Infrastructure failures redeliver the whole batch in place.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> batchKafkaListenerContainerFactory(
+            KafkaTemplate<Object, Object> retryKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setConcurrency(consumerConcurrency);
+        factory.setCommonErrorHandler(forwardingErrorHandler(retryKafkaTemplate));
+        configureListenerThreads(factory);
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+        return factory;
+    }
+
+    /**
+     * Record listener container factory for the retry topics. Manual acks, so a listener
+     * can nack a record that is not due yet and have it redelivered after its delay.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> retryKafkaListenerContainerFactory(
+            KafkaTemplate<Object, Object> retryKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setConcurrency(consumerConcurrency);
+        factory.setCommonErrorHandler(forwardingErrorHandler(retryKafkaTemplate));
+        configureListenerThreads(factory);
+
+        return factory;
+    }
+
+    /**
+     * Batch listener container factory for the rollup consumer group. Infrastructure
+     * failures are retried in place without limit: rollups must not skip events, and the
+     * group lags without delaying projections. A batch failing for any other reason
+     * cannot succeed on retry; its records go to the DLT (and are counted as
+     * dead-lettered) instead of stalling the group forever.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> rollupKafkaListenerContainerFactory(
+            KafkaTemplate<Object, Object> retryKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setConcurrency(consumerConcurrency);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+                retryKafkaTemplate,
                 (record, exception) -> {
-                    kafkaTemplate.send("telemetry.events.dlt", record.value());
-                },
-                new FixedBackOff(1000L, 3)
-        );
-        factory.setCommonErrorHandler(errorHandler);
+                    deadLettered.increment();
+                    return new TopicPartition(TELEMETRY_DLT, -1);
+                });
+        factory.setCommonErrorHandler(blockingOnInfrastructureFailures(recoverer));
+        configureListenerThreads(factory);
 
         return factory;
     }
+
+    /**
+     * Whether a listener failed because a store is unavailable rather than because of the
+     * record; such failures are retried in place, never forwarded.
+     */
+    public static boolean isInfrastructureFailure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Exception> failure : INFRASTRUCTURE_FAILURES) {
+                if (failure.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void configureListenerThreads(
+            ConcurrentKafkaListenerContainerFactory<String, TelemetryRecordedEvent> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+
+    /**
+     * Forwards a failed record to the next retry topic, or the DLT, without retrying it
+     * in place, unless it failed on infrastructure. The recoverer waits for the broker
+     * acknowledgement; if forwarding fails, the error handler does not commit the record
+     * and it is redelivered.
+     */
+    private DefaultErrorHandler forwardingErrorHandler(KafkaTemplate<Object, Object> retryKafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+                retryKafkaTemplate,
+                (record, exception) -> {
+                    String next = nextTopic(record, exception);
+                    if (TELEMETRY_DLT.equals(next)) {
+                        deadLettered.increment();
+                    } else {
+                        meterRegistry.counter("telemetry.events.retried", "topic", next).increment();
+                    }
+                    // Negative partition: partitioned by the original key
+                    return new TopicPartition(next, -1);
+                });
+        recoverer.setHeadersFunction((record, exception) -> {
+            RecordHeaders headers = new RecordHeaders();
+            Duration delay = RETRY_DELAY.get(nextTopic(record, exception));
+            if (delay != null) {
+                long notBefore = System.currentTimeMillis() + delay.toMillis();
+                headers.add(RETRY_NOT_BEFORE_HEADER, Long.toString(notBefore).getBytes(StandardCharsets.UTF_8));
+            }
+            return headers;
+        });
+        return blockingOnInfrastructureFailures(recoverer);
+    }
+
+    /**
+     * Error handler that retries infrastructure failures in place with exponential backoff
+     * (1s doubling up to 1 min, no limit) and hands every other failure to the recoverer
+     * at once. The classification also applies to whole batches that fail without a
+     * BatchListenerFailedException.
+     */
+    private static DefaultErrorHandler blockingOnInfrastructureFailures(DeadLetterPublishingRecoverer recoverer) {
+        ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+        backOff.setMaxInterval(60_000L);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        Map<Class<? extends Throwable>, Boolean> retryable = new HashMap<>();
+        INFRASTRUCTURE_FAILURES.forEach(failure -> retryable.put(failure, true));
+        // Causes are traversed, so wrapped failures (BatchListenerFailedException) classify too
+        errorHandler.setClassifications(retryable, false);
+        return errorHandler;
+    }
+
+    private static String nextTopic(ConsumerRecord<?, ?> record, Exception exception) {
+        // A null value means the ErrorHandlingDeserializer failed; retrying cannot help
+        if (record.value() == null || isUndeserializable(exception)) {
+            return TELEMETRY_DLT;
+        }
+        return NEXT_TOPIC.getOrDefault(record.topic(), TELEMETRY_DLT);
+    }
+
+    private static boolean isUndeserializable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException
+                    || cause instanceof MessageConversionException
+                    || cause instanceof ConversionException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
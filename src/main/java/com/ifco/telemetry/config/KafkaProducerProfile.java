@@ -0,0 +1,68 @@
+package com.ifco.telemetry.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Map;
+
+/**
+ * Delivery and batching settings of the telemetry producer (telemetry.kafka.producer.profile).
+ *
+ * ORDERED is the original configuration: one request in flight per broker connection,
+ * so a retried batch can never overtake the next one, and every record goes out as soon
+ * as the sender thread is free. Safe, but throughput is bounded by one round trip per
+ * batch per broker.
+ *
+ * THROUGHPUT enables the idempotent producer, which keeps per-partition order with up to
+ * five requests in flight (the broker rejects out-of-sequence batches and the producer
+ * resends them in order) and never writes a retried batch twice. The producer waits up to
+ * linger.ms to fill batches and compresses them with lz4, which costs a few milliseconds
+ * of latency per record but sends far fewer and smaller requests. Retries are bounded by
+ * delivery.timeout.ms instead of a retry count.
+ *
+ * Both profiles use acks=all.
+ */
+public enum KafkaProducerProfile {
+
+    ORDERED(Map.of(
+        ProducerConfig.ACKS_CONFIG, "all",
+        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false,
+        ProducerConfig.RETRIES_CONFIG, 3,
+        ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1
+    )),
+
+    THROUGHPUT(Map.of(
+        ProducerConfig.ACKS_CONFIG, "all",
+        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+        ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE,
+        ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5,
+        ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120_000,
+        ProducerConfig.LINGER_MS_CONFIG, 10,
+        // A few thousand JSON events per partition batch, before compression
+        ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024,
+        ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"
+    ));
+
+    private final Map<String, Object> properties;
+
+    KafkaProducerProfile(Map<String, Object> properties) {
+        this.properties = properties;
+    }
+
+    public Map<String, Object> properties() {
+        return properties;
+    }
+
+    /**
+     * @param name profile name as configured, case-insensitive ("ordered", "throughput")
+     */
+    public static KafkaProducerProfile of(String name) {
+        for (KafkaProducerProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException(
+            "telemetry.kafka.producer.profile must be 'ordered' or 'throughput', was: " + name
+        );
+    }
+}
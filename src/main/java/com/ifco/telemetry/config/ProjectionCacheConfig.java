@@ -0,0 +1,71 @@
+package com.ifco.telemetry.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.CachingProjectionRepository;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Optional in-process near-cache for device projections
+ * (telemetry.projection.near-cache.enabled).
+ *
+ * Configures:
+ * - CachingProjectionRepository as the primary ProjectionRepository, wrapping Redis
+ * - Caffeine cache bounded by maximum-size (W-TinyLFU eviction) and expire-after-write,
+ *   which is the upper bound on how stale a cached projection can get
+ * - Subscription to the Redis invalidation channel, so writes from other pods evict
+ *   the affected devices locally
+ *
+ * Backs off when projections are kept in memory (telemetry.projection.store=memory),
+ * which rejects the near-cache setting at startup.
+ */
+@Configuration
+@ConditionalOnExpression(
+        "${telemetry.projection.near-cache.enabled:false} and '${telemetry.projection.store:redis}' == 'redis'")
+public class ProjectionCacheConfig {
+
+    @Value("${telemetry.projection.near-cache.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${telemetry.projection.near-cache.expire-after-write:30s}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    @Primary
+    public CachingProjectionRepository cachingProjectionRepository(RedisProjectionRepository redisProjectionRepository) {
+        return new CachingProjectionRepository(
+                redisProjectionRepository,
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(expireAfterWrite)
+                        .<Long, DeviceProjection>build(),
+                redisProjectionRepository.instanceId()
+        );
+    }
+
+    @Bean
+    public RedisMessageListenerContainer projectionInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            CachingProjectionRepository cachingProjectionRepository
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cachingProjectionRepository.onInvalidation(
+                        new String(message.getBody(), StandardCharsets.US_ASCII)),
+                new ChannelTopic(RedisProjectionRepository.INVALIDATION_CHANNEL)
+        );
+        return container;
+    }
+}
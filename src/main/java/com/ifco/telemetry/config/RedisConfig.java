@@ -3,6 +3,9 @@ package com.ifco.telemetry.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ifco.telemetry.repository.DeviceProjectionRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -13,22 +16,59 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 /**
  * Redis configuration for projection storage.
  *
- * Configures RedisTemplate with JSON serialization:
+ * Configures RedisTemplate with:
  * - String keys (device:projection:{deviceId})
- * - JSON values (DeviceProjection with Instant support)
- * - Jackson ObjectMapper with JavaTimeModule for Instant serialization
- * - Type information embedded in JSON for proper deserialization
+ * - Compact binary values (DeviceProjectionRedisSerializer, 29 bytes per device)
+ * - Legacy JSON support: Jackson ObjectMapper with JavaTimeModule and embedded type
+ *   information, used to read projections written before the binary format and to
+ *   keep writing JSON during a rolling upgrade (telemetry.projection.redis-format=json)
+ *
+ * The template backs off when projections are kept in memory (telemetry.projection.store=memory).
  */
 @Configuration
 public class RedisConfig {
 
     @Bean
+    @ConditionalOnProperty(name = "telemetry.projection.store", havingValue = "redis", matchIfMissing = true)
     public RedisTemplate<String, Object> redisTemplate(
-        RedisConnectionFactory connectionFactory
+        RedisConnectionFactory connectionFactory,
+        @Value("${telemetry.projection.redis-format:binary}") String redisFormat
+    ) {
+        return projectionRedisTemplate(connectionFactory, redisFormat);
+    }
+
+    /**
+     * Projection template for the given connection (also used per node when sharding).
+     */
+    public static RedisTemplate<String, Object> projectionRedisTemplate(
+        RedisConnectionFactory connectionFactory,
+        String redisFormat
     ) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
+        GenericJackson2JsonRedisSerializer jsonSerializer = legacyJsonSerializer();
+
+        // Use String serializer for keys
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+
+        // Projections are stored in the compact binary format, or as JSON while
+        // pods that predate it are still running
+        template.setValueSerializer(new DeviceProjectionRedisSerializer(
+            jsonSerializer,
+            isBinaryFormat(redisFormat)
+        ));
+        template.setHashValueSerializer(jsonSerializer);
+
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * JSON serializer of the legacy projection format (also used by the benchmarks).
+     */
+    public static GenericJackson2JsonRedisSerializer legacyJsonSerializer() {
         // Configure ObjectMapper with Java 8 Time support and type information
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -42,18 +82,16 @@ public class RedisConfig {
             ObjectMapper.DefaultTyping.NON_FINAL
         );
 
-        GenericJackson2JsonRedisSerializer jsonSerializer =
-            new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        // Use String serializer for keys
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setHashKeySerializer(new StringRedisSerializer());
-
-        // Use JSON serializer for values (handles DeviceProjection with Instant fields)
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
 
-        template.afterPropertiesSet();
-        return template;
+    private static boolean isBinaryFormat(String redisFormat) {
+        return switch (redisFormat) {
+            case "binary" -> true;
+            case "json" -> false;
+            default -> throw new IllegalArgumentException(
+                "telemetry.projection.redis-format must be 'binary' or 'json', was: " + redisFormat
+            );
+        };
     }
 }
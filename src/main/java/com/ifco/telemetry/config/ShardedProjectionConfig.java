@@ -0,0 +1,157 @@
+package com.ifco.telemetry.config;
+
+import com.ifco.telemetry.repository.ProjectionFormatMigrator;
+import com.ifco.telemetry.repository.ProjectionShardRebalanceEndpoint;
+import com.ifco.telemetry.repository.ProjectionShardRebalancer;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import com.ifco.telemetry.repository.ShardedProjectionRepository;
+import io.lettuce.core.RedisURI;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional sharding of device projections over several Redis nodes
+ * (telemetry.projection.sharding.nodes).
+ *
+ * Configures:
+ * - One Lettuce connection and RedisProjectionRepository per node, with the same
+ *   value format as the default Redis template
+ * - ShardedProjectionRepository as the primary ProjectionRepository
+ * - A ProjectionFormatMigrator per node, run at startup like the default one, so every
+ *   shard's index is backfilled (and its values migrated with migrate-on-startup)
+ * - ProjectionShardRebalancer and its actuator endpoint (projectionrebalance)
+ *
+ * Nodes are given as comma-separated name=redis-uri pairs. Devices are placed by node
+ * name, so a node can move to another address without moving any device. To add or
+ * remove nodes, deploy the new list with previous-nodes set to the old one, run the
+ * rebalance, then deploy again without previous-nodes.
+ *
+ * The near-cache publishes invalidations through the default Redis connection only,
+ * so it cannot be combined with sharding. Backs off when projections are kept in
+ * memory (telemetry.projection.store=memory), which rejects the nodes setting at startup.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Configuration
+@Slf4j
+@ConditionalOnExpression(
+    "!'${telemetry.projection.sharding.nodes:}'.isBlank() and '${telemetry.projection.store:redis}' == 'redis'"
+)
+public class ShardedProjectionConfig {
+
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final Map<String, ProjectionFormatMigrator> shardMigrators = new LinkedHashMap<>();
+
+    @Bean
+    @Primary
+    public ShardedProjectionRepository shardedProjectionRepository(
+        @Value("${telemetry.projection.sharding.nodes}") String nodes,
+        @Value("${telemetry.projection.sharding.previous-nodes:}") String previousNodes,
+        @Value("${telemetry.projection.redis-format:binary}") String redisFormat,
+        @Value("${telemetry.projection.near-cache.enabled:false}") boolean nearCache,
+        @Value("${telemetry.projection.migrate-on-startup:false}") boolean migrateOnStartup,
+        @Value("${telemetry.projection.index-backfill-on-startup:true}") boolean indexBackfillOnStartup
+    ) {
+        if (nearCache) {
+            throw new IllegalStateException(
+                "telemetry.projection.near-cache.enabled cannot be combined with telemetry.projection.sharding.nodes"
+            );
+        }
+        Map<String, String> current = parseNodes(nodes);
+        Map<String, String> previous = parseNodes(previousNodes);
+
+        Map<String, String> all = new LinkedHashMap<>(current);
+        previous.forEach((name, uri) -> {
+            String existing = all.putIfAbsent(name, uri);
+            if (existing != null && !existing.equals(uri)) {
+                throw new IllegalArgumentException(
+                    "Projection shard " + name + " has different addresses in nodes and previous-nodes"
+                );
+            }
+        });
+
+        Map<String, RedisProjectionRepository> shards = new LinkedHashMap<>();
+        all.forEach((name, uri) -> {
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(standaloneConfiguration(uri));
+            connectionFactory.afterPropertiesSet();
+            connectionFactories.add(connectionFactory);
+            RedisTemplate<String, Object> template = RedisConfig.projectionRedisTemplate(connectionFactory, redisFormat);
+            shards.put(name, new RedisProjectionRepository(template, false));
+            shardMigrators.put(name, new ProjectionFormatMigrator(template, migrateOnStartup, indexBackfillOnStartup));
+        });
+        return new ShardedProjectionRepository(shards, current.keySet(), previous.keySet());
+    }
+
+    @Bean
+    public ApplicationRunner projectionShardMigration(ShardedProjectionRepository shardedProjectionRepository) {
+        return args -> shardMigrators.forEach((name, migrator) -> {
+            log.info("Migrating projection shard {}", name);
+            migrator.run(args);
+        });
+    }
+
+    @Bean
+    public ProjectionShardRebalancer projectionShardRebalancer(ShardedProjectionRepository shardedProjectionRepository) {
+        return new ProjectionShardRebalancer(shardedProjectionRepository);
+    }
+
+    @Bean
+    public ProjectionShardRebalanceEndpoint projectionShardRebalanceEndpoint(ProjectionShardRebalancer rebalancer) {
+        return new ProjectionShardRebalanceEndpoint(rebalancer);
+    }
+
+    @PreDestroy
+    public void closeConnections() {
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    /**
+     * Parses "a=redis://host1:6379,b=redis://host2:6379" into name -> URI, in order.
+     */
+    static Map<String, String> parseNodes(String nodes) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String node : nodes.split(",")) {
+            if (node.isBlank()) {
+                continue;
+            }
+            int separator = node.indexOf('=');
+            if (separator <= 0 || separator == node.length() - 1) {
+                throw new IllegalArgumentException("Projection shard must be name=redis-uri, was: " + node.strip());
+            }
+            String name = node.substring(0, separator).strip();
+            if (parsed.put(name, node.substring(separator + 1).strip()) != null) {
+                throw new IllegalArgumentException("Projection shard " + name + " is listed twice");
+            }
+        }
+        return parsed;
+    }
+
+    private static RedisStandaloneConfiguration standaloneConfiguration(String uri) {
+        RedisURI redisUri = RedisURI.create(uri);
+        RedisStandaloneConfiguration configuration =
+            new RedisStandaloneConfiguration(redisUri.getHost(), redisUri.getPort());
+        configuration.setDatabase(redisUri.getDatabase());
+        if (redisUri.getUsername() != null) {
+            configuration.setUsername(redisUri.getUsername());
+        }
+        if (redisUri.getPassword() != null) {
+            configuration.setPassword(RedisPassword.of(redisUri.getPassword()));
+        }
+        return configuration;
+    }
+}
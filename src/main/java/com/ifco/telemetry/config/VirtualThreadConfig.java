@@ -0,0 +1,70 @@
+package com.ifco.telemetry.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.util.Collections;
+
+/**
+ * Virtual-thread execution mode (spring.threads.virtual.enabled).
+ *
+ * Spring Boot switches Tomcat request handling and the @Scheduled outbox relay to
+ * virtual threads; KafkaConfig does the same for the listener containers and
+ * GroupCommitTelemetryIngestor for its writer. Blocking on JDBC, Redis or Kafka then
+ * parks a cheap virtual thread instead of holding one of Tomcat's 200 platform threads.
+ *
+ * On Java 21-23 a virtual thread that blocks inside a synchronized block pins its
+ * carrier thread, and enough pinned carriers stall every virtual thread. This class
+ * checks at startup for the known offender in this stack (PostgreSQL drivers before
+ * 42.6 synchronize around socket I/O). Run with -Djdk.tracePinnedThreads=short to log
+ * any remaining pinning.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    private static final String POSTGRES_DRIVER = "org.postgresql.Driver";
+    // First PostgreSQL driver that guards its connection with ReentrantLock
+    private static final int POSTGRES_MIN_MAJOR = 42;
+    private static final int POSTGRES_MIN_MINOR = 6;
+    // JEP 491: synchronized no longer pins from Java 24 on
+    private static final int JAVA_WITHOUT_MONITOR_PINNING = 24;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPinningRisks() {
+        for (Driver driver : Collections.list(DriverManager.getDrivers())) {
+            if (driver.getClass().getName().equals(POSTGRES_DRIVER) && !pinningSafe(driver)) {
+                log.warn(
+                    "PostgreSQL driver {}.{} synchronizes on socket I/O and pins virtual threads; "
+                        + "upgrade to {}.{}+ or disable spring.threads.virtual.enabled",
+                    driver.getMajorVersion(),
+                    driver.getMinorVersion(),
+                    POSTGRES_MIN_MAJOR,
+                    POSTGRES_MIN_MINOR
+                );
+            }
+        }
+
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < JAVA_WITHOUT_MONITOR_PINNING && System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info(
+                "Virtual threads enabled on Java {}; synchronized blocks still pin carriers, "
+                    + "start with -Djdk.tracePinnedThreads=short to report them",
+                javaVersion
+            );
+        }
+    }
+
+    private static boolean pinningSafe(Driver driver) {
+        return driver.getMajorVersion() > POSTGRES_MIN_MAJOR
+            || (driver.getMajorVersion() == POSTGRES_MIN_MAJOR && driver.getMinorVersion() >= POSTGRES_MIN_MINOR);
+    }
+}
@@ -1,24 +1,73 @@
 package com.ifco.telemetry.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifco.telemetry.query.BadQueryException;
+import com.ifco.telemetry.query.DeviceAggregatesDTO;
 import com.ifco.telemetry.query.DeviceTemperatureDTO;
+import com.ifco.telemetry.query.GetDeviceTemperaturesQueryHandler;
 import com.ifco.telemetry.query.GetLatestTemperaturesQueryHandler;
+import com.ifco.telemetry.query.GetTelemetryAggregatesQuery;
+import com.ifco.telemetry.query.GetTelemetryAggregatesQueryHandler;
+import com.ifco.telemetry.query.GetTelemetryHistoryQuery;
+import com.ifco.telemetry.query.GetTelemetryHistoryQueryHandler;
+import com.ifco.telemetry.query.TelemetryHistoryCursor;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * REST controller for device query operations.
  * Entry point for query side of CQRS pattern.
+ *
+ * GET /devices/temperatures has three representations:
+ * - application/json (default): buffered JSON array
+ * - application/x-ndjson (Accept header): one device per line, streamed
+ * - application/json with ?stream=true: JSON array, streamed (chunked)
+ *
+ * Streaming variants write each device as it is read from the repository,
+ * so memory stays constant and the first bytes leave before the fleet is read.
+ *
+ * Clients that follow specific devices use GET /devices/{deviceId}/temperature or
+ * POST /devices/temperatures:lookup instead, which read only those devices.
+ *
+ * GET /devices/{deviceId}/telemetry pages through a device's stored readings
+ * (oldest first) and is always streamed the same way.
+ *
+ * GET /devices/{deviceId}/aggregates returns min/max/avg per time bucket from the
+ * rollup tables; the bucket count is capped, so it is buffered.
  */
 @RestController
 @RequestMapping("/devices")
 @RequiredArgsConstructor
 public class DeviceController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final GetLatestTemperaturesQueryHandler queryHandler;
+    private final GetDeviceTemperaturesQueryHandler deviceTemperaturesQueryHandler;
+    private final GetTelemetryHistoryQueryHandler historyQueryHandler;
+    private final GetTelemetryAggregatesQueryHandler aggregatesQueryHandler;
+    private final ObjectMapper objectMapper;
 
     /**
      * Retrieves the latest temperature for all devices.
@@ -26,8 +75,151 @@ public class DeviceController {
      *
      * @return list of device temperatures (empty list if no devices)
      */
-    @GetMapping("/temperatures")
+    @GetMapping(value = "/temperatures", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<DeviceTemperatureDTO> getLatestTemperatures() {
         return queryHandler.handle();
     }
+
+    /**
+     * Streams the latest temperature for all devices as newline-delimited JSON.
+     */
+    @GetMapping(value = "/temperatures", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLatestTemperaturesNdjson() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+            .body(out -> writeDevices(out, false));
+    }
+
+    /**
+     * Streams the latest temperature for all devices as a chunked JSON array.
+     * Same body as {@link #getLatestTemperatures()}, without buffering it first.
+     */
+    @GetMapping(value = "/temperatures", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLatestTemperaturesJson() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> writeDevices(out, true));
+    }
+
+    /**
+     * Retrieves the latest temperature of one device.
+     *
+     * @return the device temperature, or 404 Not Found if the device has none yet
+     */
+    @GetMapping(value = "/{deviceId}/temperature", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DeviceTemperatureDTO> getLatestTemperature(@PathVariable Long deviceId) {
+        return ResponseEntity.of(deviceTemperaturesQueryHandler.handle(deviceId));
+    }
+
+    /**
+     * Retrieves the latest temperature of up to {@value DeviceLookupRequest#MAX_DEVICE_IDS}
+     * devices in one request.
+     *
+     * @return temperatures of the devices that have one, in request order
+     */
+    @PostMapping(value = "/temperatures:lookup", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<DeviceTemperatureDTO> lookupLatestTemperatures(@RequestBody @Valid DeviceLookupRequest request) {
+        return deviceTemperaturesQueryHandler.handle(request.deviceIds());
+    }
+
+    /**
+     * Returns one page of a device's readings with from <= date < to, oldest first.
+     * nextCursor is null on the last page; otherwise pass it as cursor, with the same
+     * from and to, to get the next one.
+     *
+     * @return {"deviceId": ..., "readings": [{"measurement": ..., "date": ...}], "nextCursor": ...},
+     *         400 Bad Request for an invalid limit, range or cursor
+     */
+    @GetMapping(value = "/{deviceId}/telemetry", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTelemetryHistory(
+        @PathVariable Long deviceId,
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(defaultValue = "" + GetTelemetryHistoryQuery.DEFAULT_LIMIT) int limit,
+        @RequestParam(required = false) String cursor
+    ) {
+        // Built before streaming starts, so invalid parameters still get a 400
+        GetTelemetryHistoryQuery query = new GetTelemetryHistoryQuery(
+            deviceId,
+            from,
+            to,
+            limit,
+            cursor != null ? TelemetryHistoryCursor.decode(cursor) : null
+        );
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> writeHistory(out, query));
+    }
+
+    /**
+     * Returns a device's min/max/avg temperature per bucket of {@code resolution}
+     * (e.g. 15m, 1h, 1d), for the buckets starting in [from, to). Buckets without
+     * readings are omitted.
+     *
+     * @return the buckets oldest first, 400 Bad Request for an invalid resolution or
+     *         range, or more than {@value GetTelemetryAggregatesQuery#MAX_BUCKETS} buckets
+     */
+    @GetMapping(value = "/{deviceId}/aggregates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeviceAggregatesDTO getTelemetryAggregates(
+        @PathVariable Long deviceId,
+        @RequestParam(defaultValue = "1h") String resolution,
+        @RequestParam Instant from,
+        @RequestParam Instant to
+    ) {
+        return aggregatesQueryHandler.handle(new GetTelemetryAggregatesQuery(deviceId, resolution, from, to));
+    }
+
+    @ExceptionHandler(BadQueryException.class)
+    public ProblemDetail handleInvalidQuery(BadQueryException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    private void writeHistory(OutputStream out, GetTelemetryHistoryQuery query) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory()
+                 .createGenerator(out)
+                 .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeNumberField("deviceId", query.deviceId());
+            generator.writeArrayFieldStart("readings");
+            TelemetryHistoryCursor next;
+            try {
+                next = historyQueryHandler.handle(query, reading -> {
+                    try {
+                        generator.writeObject(reading);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", next != null ? next.encode() : null);
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeDevices(OutputStream out, boolean asArray) throws IOException {
+        // The servlet container owns the response stream; the generator must not close it
+        try (Stream<DeviceTemperatureDTO> devices = queryHandler.stream();
+             JsonGenerator generator = objectMapper.getFactory()
+                 .createGenerator(out)
+                 .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            if (asArray) {
+                generator.writeStartArray();
+            } else {
+                // Jackson separates root-level values with a space by default
+                generator.setRootValueSeparator(null);
+            }
+            for (DeviceTemperatureDTO device : (Iterable<DeviceTemperatureDTO>) devices::iterator) {
+                generator.writeObject(device);
+                if (!asArray) {
+                    generator.writeRaw('\n');
+                }
+            }
+            if (asArray) {
+                generator.writeEndArray();
+            }
+        }
+    }
 }
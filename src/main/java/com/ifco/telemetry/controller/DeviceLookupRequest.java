@@ -0,0 +1,19 @@
+package com.ifco.telemetry.controller;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * HTTP request DTO for looking up the latest temperature of specific devices.
+ */
+public record DeviceLookupRequest(
+    @NotEmpty(message = "Device IDs are required")
+    @Size(max = DeviceLookupRequest.MAX_DEVICE_IDS, message = "At most " + DeviceLookupRequest.MAX_DEVICE_IDS + " device IDs per lookup")
+    List<@NotNull(message = "Device IDs cannot be null") Long> deviceIds
+) {
+
+    public static final int MAX_DEVICE_IDS = 1000;
+}
@@ -0,0 +1,21 @@
+package com.ifco.telemetry.controller;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * HTTP request DTO for recording many telemetry readings at once.
+ *
+ * Readings are intentionally not cascaded with @Valid: an invalid reading must not
+ * reject the whole batch, it is reported by index in the response instead.
+ */
+public record TelemetryBatchRequest(
+    @NotEmpty(message = "Readings are required")
+    @Size(max = TelemetryBatchRequest.MAX_READINGS, message = "At most " + TelemetryBatchRequest.MAX_READINGS + " readings per batch")
+    List<TelemetryRequest> readings
+) {
+
+    public static final int MAX_READINGS = 1000;
+}
@@ -1,15 +1,30 @@
 package com.ifco.telemetry.controller;
 
+import com.ifco.telemetry.command.GroupCommitTelemetryIngestor;
+import com.ifco.telemetry.command.IngestRejectedException;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommand;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommandHandler;
+import com.ifco.telemetry.command.RecordTelemetryBatchResult;
 import com.ifco.telemetry.command.RecordTelemetryCommand;
 import com.ifco.telemetry.command.RecordTelemetryCommandHandler;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * REST controller for telemetry recording operations.
  * Entry point for command side of CQRS pattern.
@@ -20,22 +35,81 @@ import org.springframework.web.bind.annotation.RestController;
 public class TelemetryController {
 
     private final RecordTelemetryCommandHandler commandHandler;
+    private final RecordTelemetryBatchCommandHandler batchCommandHandler;
+    // Present when telemetry.ingest.async.enabled is set
+    private final Optional<GroupCommitTelemetryIngestor> ingestor;
 
     /**
      * Records telemetry data from a device.
-     * Transforms HTTP request to command and delegates to handler.
+     * The body is decoded by TelemetryRequestMessageConverter (400 if a field is
+     * missing), mapped to the command and handed to the handler, or to the group-commit ingestor when asynchronous ingest is enabled. In
+     * async mode the reading is acknowledged once queued, or once committed with durable-ack.
      *
      * @param request the telemetry data to record
-     * @return 202 Accepted if command was successfully processed
+     * @return 202 Accepted if command was successfully processed (or queued),
+     *         503 Service Unavailable if the ingest queue is full, or with durable-ack
+     *         if the commit did not finish within durable-ack-timeout-ms
      */
     @PostMapping
-    public ResponseEntity<Void> recordTelemetry(@RequestBody @Valid TelemetryRequest request) {
-        RecordTelemetryCommand command = new RecordTelemetryCommand(
-            request.deviceId(),
-            request.measurement(),
-            request.date()
-        );
-        commandHandler.handle(command);
+    public ResponseEntity<Void> recordTelemetry(@RequestBody TelemetryRequest request) {
+        RecordTelemetryCommand command = request.toCommand();
+        if (ingestor.isPresent()) {
+            CompletableFuture<Void> committed = ingestor.get().submit(command);
+            if (ingestor.get().isDurableAck()) {
+                awaitCommit(committed, ingestor.get().durableAckTimeoutMs());
+            }
+        } else {
+            commandHandler.handle(command);
+        }
         return ResponseEntity.accepted().build();
     }
+
+    /**
+     * Records a batch of telemetry readings in a single transaction.
+     * Invalid readings are skipped and reported by index; valid ones are stored.
+     *
+     * @param request the readings to record (1 to {@value TelemetryBatchRequest#MAX_READINGS})
+     * @return 202 Accepted with the number of stored readings and the rejected ones
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<RecordTelemetryBatchResult> recordTelemetryBatch(
+        @RequestBody @Valid TelemetryBatchRequest request
+    ) {
+        List<RecordTelemetryCommand> commands = request
+            .readings()
+            .stream()
+            .map(reading -> reading == null ? null : reading.toCommand())
+            .toList();
+        RecordTelemetryBatchResult result = batchCommandHandler.handle(
+            new RecordTelemetryBatchCommand(commands)
+        );
+        return ResponseEntity.accepted().body(result);
+    }
+
+    private static void awaitCommit(CompletableFuture<Void> committed, long timeoutMs) {
+        try {
+            committed.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still queued or committing; the device retries and the reading may be stored twice
+            throw new IngestRejectedException("reading not committed within " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestRejectedException("interrupted while waiting for the commit");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Backpressure from the async ingest queue: ask the device to retry shortly.
+     */
+    @ExceptionHandler(IngestRejectedException.class)
+    public ResponseEntity<Void> handleIngestRejected(IngestRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .build();
+    }
 }
@@ -1,5 +1,6 @@
 package com.ifco.telemetry.controller;
 
+import com.ifco.telemetry.command.RecordTelemetryCommand;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.Instant;
@@ -7,6 +8,9 @@ import java.time.Instant;
 /**
  * HTTP request DTO for recording telemetry data.
  * Immutable record that maps to RecordTelemetryCommand.
+ * Readings of a batch are bound by Jackson and checked by bean validation; single
+ * readings (POST /telemetry) are decoded by TelemetryRequestDecoder, which enforces
+ * the same required fields itself.
  */
 public record TelemetryRequest(
     @NotNull(message = "Device ID is required")
@@ -17,4 +21,9 @@ public record TelemetryRequest(
 
     @NotNull(message = "Date is required")
     Instant date
-) {}
+) {
+
+    public RecordTelemetryCommand toCommand() {
+        return new RecordTelemetryCommand(deviceId, measurement, date);
+    }
+}
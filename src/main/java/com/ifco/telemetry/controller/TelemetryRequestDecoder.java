@@ -0,0 +1,231 @@
+package com.ifco.telemetry.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Decodes a POST /telemetry body into a TelemetryRequest.
+ *
+ * Reads {"deviceId", "measurement", "date"} with a streaming parser instead of
+ * databinding and running bean validation: field names are canonicalized by the
+ * parser, and the usual yyyy-MM-ddTHH:mm:ss[.fraction]Z date is parsed from the
+ * parser's char buffer without building a String. Other ISO-8601 instants and epoch
+ * seconds fall back to java.time.
+ *
+ * Field rules, in place of TelemetryRequest's @NotNull constraints: all three fields
+ * are required and must not be null; unknown fields are ignored. Like Spring Boot's
+ * ObjectMapper, deviceId and measurement may also be given as strings
+ * ("deviceId": "1"), an empty string counts as null, and a fractional deviceId is
+ * truncated. These shapes take a slower path that builds a String.
+ *
+ * Thread-safe; the JsonFactory recycles parser buffers per thread.
+ */
+public final class TelemetryRequestDecoder {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    // Days from 0000-01-01 to 1970-01-01, as in LocalDate.toEpochDay
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final int[] NANO_SCALE = {
+        100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * @throws IllegalArgumentException if a field is missing, null or of the wrong type
+     * @throws IOException if the body is not well-formed JSON
+     */
+    public TelemetryRequest decode(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+
+            Long deviceId = null;
+            Double measurement = null;
+            Instant date = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "deviceId" -> deviceId = readDeviceId(parser, value);
+                    case "measurement" -> measurement = readMeasurement(parser, value);
+                    case "date" -> date = readDate(parser, value);
+                    // Unknown properties are ignored, as with Spring Boot's ObjectMapper
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (deviceId == null) {
+                throw new IllegalArgumentException("Device ID is required");
+            }
+            if (measurement == null) {
+                throw new IllegalArgumentException("Measurement is required");
+            }
+            if (date == null) {
+                throw new IllegalArgumentException("Date is required");
+            }
+            return new TelemetryRequest(deviceId, measurement, date);
+        }
+    }
+
+    private static Long readDeviceId(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            // Jackson's ACCEPT_FLOAT_AS_INT, on by default
+            case VALUE_NUMBER_FLOAT -> (long) parser.getDoubleValue();
+            case VALUE_STRING -> {
+                String text = parser.getText().strip();
+                try {
+                    yield text.isEmpty() ? null : Long.valueOf(text);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("deviceId must be an integer, was: " + text, e);
+                }
+            }
+            default -> throw new IllegalArgumentException("deviceId must be an integer");
+        };
+    }
+
+    private static Double readMeasurement(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            case VALUE_STRING -> {
+                String text = parser.getText().strip();
+                try {
+                    yield text.isEmpty() ? null : Double.valueOf(text);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("measurement must be a number, was: " + text, e);
+                }
+            }
+            default -> throw new IllegalArgumentException("measurement must be a number");
+        };
+    }
+
+    private static Instant readDate(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> parseInstant(
+                parser.getTextCharacters(),
+                parser.getTextOffset(),
+                parser.getTextLength()
+            );
+            // Epoch seconds, optionally with a fraction, as Jackson's InstantDeserializer reads them
+            case VALUE_NUMBER_INT -> Instant.ofEpochSecond(parser.getLongValue());
+            case VALUE_NUMBER_FLOAT -> {
+                BigDecimal seconds = parser.getDecimalValue();
+                long whole = seconds.longValue();
+                int nanos = seconds.subtract(BigDecimal.valueOf(whole)).movePointRight(9).intValue();
+                yield Instant.ofEpochSecond(whole, nanos);
+            }
+            default -> throw new IllegalArgumentException("date must be an ISO-8601 instant");
+        };
+    }
+
+    /**
+     * Parses an ISO-8601 instant, taking the allocation-free path for UTC instants.
+     */
+    static Instant parseInstant(char[] text, int offset, int length) {
+        Instant instant = parseUtcInstant(text, offset, length);
+        if (instant != null) {
+            return instant;
+        }
+        String value = new String(text, offset, length);
+        try {
+            return DateTimeFormatter.ISO_INSTANT.parse(value, Instant::from);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("date must be an ISO-8601 instant, was: " + value, e);
+        }
+    }
+
+    /**
+     * Parses yyyy-MM-ddTHH:mm:ss[.f{1,9}]Z.
+     *
+     * @return null if the text has any other shape (offsets, leap seconds, ...) or an
+     *         out-of-range field, so the caller falls back to the full parser
+     */
+    private static Instant parseUtcInstant(char[] t, int o, int length) {
+        if (length < 20 || length > 30 || length == 21 || t[o + length - 1] != 'Z'
+            || t[o + 4] != '-' || t[o + 7] != '-' || t[o + 10] != 'T'
+            || t[o + 13] != ':' || t[o + 16] != ':') {
+            return null;
+        }
+        int year = digits(t, o, 4);
+        int month = digits(t, o + 5, 2);
+        int day = digits(t, o + 8, 2);
+        int hour = digits(t, o + 11, 2);
+        int minute = digits(t, o + 14, 2);
+        int second = digits(t, o + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+            || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int nanos = 0;
+        if (length > 20) {
+            int fractionDigits = length - 21;
+            if (t[o + 19] != '.') {
+                return null;
+            }
+            int fraction = digits(t, o + 20, fractionDigits);
+            if (fraction < 0) {
+                return null;
+            }
+            nanos = fraction * NANO_SCALE[fractionDigits - 1];
+        }
+
+        long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY
+            + hour * 3600L + minute * 60L + second;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /**
+     * @return the decimal value of {@code count} ASCII digits, or -1 if any is not a digit
+     */
+    private static int digits(char[] t, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = t[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, for non-negative years
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
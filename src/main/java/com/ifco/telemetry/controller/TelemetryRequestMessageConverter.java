@@ -0,0 +1,57 @@
+package com.ifco.telemetry.controller;
+
+import com.fasterxml.jackson.core.JacksonException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON @RequestBody TelemetryRequest with TelemetryRequestDecoder.
+ *
+ * Registered as a bean, so Spring Boot puts it ahead of the Jackson converter. Decoding
+ * errors (malformed JSON, missing or null fields) become HttpMessageNotReadableException,
+ * which Spring MVC answers with 400 Bad Request.
+ *
+ * Read-only: no endpoint returns a TelemetryRequest, so writing is left to Jackson.
+ */
+@Component
+public class TelemetryRequestMessageConverter extends AbstractHttpMessageConverter<TelemetryRequest> {
+
+    private final TelemetryRequestDecoder decoder = new TelemetryRequestDecoder();
+
+    public TelemetryRequestMessageConverter() {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TelemetryRequest.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TelemetryRequest readInternal(
+        Class<? extends TelemetryRequest> clazz,
+        HttpInputMessage inputMessage
+    ) throws IOException {
+        try {
+            return decoder.decode(inputMessage.getBody());
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new HttpMessageNotReadableException("Invalid telemetry reading: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(TelemetryRequest request, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("TelemetryRequestMessageConverter is read-only");
+    }
+}
@@ -0,0 +1,45 @@
+package com.ifco.telemetry.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Pending TelemetryRecordedEvent in the transactional outbox (telemetry_outbox).
+ * Written in the same transaction as the telemetry row, deleted once relayed to Kafka.
+ */
+@Entity
+@Table(name = "telemetry_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    // Same pooled sequence setup as Telemetry.id so outbox inserts batch too (see V3 migration)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "telemetry_outbox_id_seq")
+    @SequenceGenerator(name = "telemetry_outbox_id_seq", sequenceName = "telemetry_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "device_id", nullable = false)
+    private Long deviceId;
+
+    @Column(nullable = false)
+    private Double temperature;
+
+    @Column(nullable = false)
+    private Instant timestamp;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public OutboxEvent(Long deviceId, Double temperature, Instant timestamp, Instant createdAt) {
+        this.deviceId = deviceId;
+        this.temperature = temperature;
+        this.timestamp = timestamp;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ifco.telemetry.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bucket sizes of the telemetry rollup tables (see V6 migration), finest first.
+ */
+public enum RollupResolution {
+
+    ONE_MINUTE("1m", "telemetry_rollup_1m", Duration.ofMinutes(1)),
+    ONE_HOUR("1h", "telemetry_rollup_1h", Duration.ofHours(1)),
+    ONE_DAY("1d", "telemetry_rollup_1d", Duration.ofDays(1));
+
+    private final String label;
+    private final String table;
+    private final Duration size;
+
+    RollupResolution(String label, String table, Duration size) {
+        this.label = label;
+        this.table = table;
+        this.size = size;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public Duration size() {
+        return size;
+    }
+
+    /**
+     * Start of the bucket containing {@code instant}, in UTC.
+     */
+    public Instant bucketStart(Instant instant) {
+        long seconds = size.toSeconds();
+        return Instant.ofEpochSecond(Math.floorDiv(instant.getEpochSecond(), seconds) * seconds);
+    }
+
+    public boolean isAligned(Instant instant) {
+        return bucketStart(instant).equals(instant);
+    }
+}
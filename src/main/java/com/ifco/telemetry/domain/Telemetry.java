@@ -14,8 +14,11 @@ import java.time.Instant;
 @AllArgsConstructor
 public class Telemetry {
 
+    // Sequence (not IDENTITY) so Hibernate can pre-allocate ids and batch inserts.
+    // allocationSize must match the sequence INCREMENT BY (see V2 migration).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "telemetry_id_seq")
+    @SequenceGenerator(name = "telemetry_id_seq", sequenceName = "telemetry_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "device_id", nullable = false)
@@ -0,0 +1,14 @@
+package com.ifco.telemetry.domain;
+
+import java.time.Instant;
+
+/**
+ * Read-only row of the telemetry table, as selected by history queries.
+ * Not an entity: rows are not tracked by the persistence context, so streaming
+ * many of them keeps memory flat.
+ */
+public record TelemetryReading(
+    Long id,
+    Instant timestamp,
+    Double temperature
+) {}
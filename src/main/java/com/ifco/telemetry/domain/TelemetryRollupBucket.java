@@ -0,0 +1,35 @@
+package com.ifco.telemetry.domain;
+
+import java.time.Instant;
+
+/**
+ * Aggregate of a device's readings in one rollup bucket, or a delta to add to one.
+ */
+public record TelemetryRollupBucket(
+    Long deviceId,
+    Instant start,
+    long count,
+    double sum,
+    double min,
+    double max
+) {
+
+    public static TelemetryRollupBucket of(Long deviceId, Instant start, double temperature) {
+        return new TelemetryRollupBucket(deviceId, start, 1, temperature, temperature, temperature);
+    }
+
+    public TelemetryRollupBucket plus(TelemetryRollupBucket other) {
+        return new TelemetryRollupBucket(
+            deviceId,
+            start,
+            count + other.count,
+            sum + other.sum,
+            Math.min(min, other.min),
+            Math.max(max, other.max)
+        );
+    }
+
+    public double average() {
+        return sum / count;
+    }
+}
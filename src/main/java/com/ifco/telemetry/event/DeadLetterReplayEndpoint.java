@@ -0,0 +1,35 @@
+package com.ifco.telemetry.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for DeadLetterReplayer.
+ *
+ * GET /actuator/deadletterreplay reports progress of the running (or last) replay,
+ * POST /actuator/deadletterreplay starts one; the optional JSON body fields rate
+ * (records per second) and maxRecords override the defaults.
+ *
+ * @RequiredArgsConstructor - Generates constructor for final fields (dependency injection)
+ */
+@Component
+@Endpoint(id = "deadletterreplay")
+@RequiredArgsConstructor
+public class DeadLetterReplayEndpoint {
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @ReadOperation
+    public DeadLetterReplayer.Progress progress() {
+        return deadLetterReplayer.progress();
+    }
+
+    @WriteOperation
+    public DeadLetterReplayer.Progress start(@Nullable Integer rate, @Nullable Long maxRecords) {
+        return deadLetterReplayer.start(rate, maxRecords);
+    }
+}
@@ -0,0 +1,271 @@
+package com.ifco.telemetry.event;
+
+import com.ifco.telemetry.config.KafkaConfig;
+import com.ifco.telemetry.config.KafkaProducerProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Re-injects records from the dead letter topic, at a bounded rate.
+ *
+ * A replay reads telemetry.events.dlt from where the previous replay stopped (consumer
+ * group telemetry-dlt-replay) up to the end offsets at its start, and sends each record
+ * to the first retry topic with its original key, value bytes and headers (minus the
+ * retry delay, so it is applied right away). The retry topic is consumed only by the
+ * projection retry listener, so replayed events neither compete with live events on
+ * telemetry.events nor get counted a second time by the rollup consumer group.
+ * A record that fails again makes its way back to the DLT through the retry stages.
+ *
+ * Sends are paced to telemetry.kafka.dlt-replay.rate records per second (or the rate
+ * given to start); offsets are committed after every acknowledged poll, so a failed or
+ * restarted replay continues where it stopped. One replay at a time per instance.
+ *
+ * Metrics: telemetry.events.dlt.replayed counts replayed records.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@Slf4j
+public class DeadLetterReplayer {
+
+    private static final String GROUP_ID = "telemetry-dlt-replay";
+
+    private final String bootstrapServers;
+    private final String producerProfile;
+    private final int defaultRate;
+    private final Counter replayedRecords;
+
+    private final AtomicReference<Progress> lastRun = new AtomicReference<>(Progress.idle());
+    private final AtomicLong replayed = new AtomicLong();
+
+    public DeadLetterReplayer(
+        MeterRegistry meterRegistry,
+        @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+        @Value("${telemetry.kafka.producer.profile:throughput}") String producerProfile,
+        @Value("${telemetry.kafka.dlt-replay.rate:200}") int defaultRate
+    ) {
+        this.bootstrapServers = bootstrapServers;
+        this.producerProfile = producerProfile;
+        this.defaultRate = defaultRate;
+        this.replayedRecords = Counter.builder("telemetry.events.dlt.replayed")
+            .description("Dead-lettered events sent back to the retry topics")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts a replay in the background unless one is already running.
+     *
+     * @param ratePerSecond records per second, or null for telemetry.kafka.dlt-replay.rate
+     * @param maxRecords upper bound of records to replay, or null for all
+     * @return progress of the started, or already running, replay
+     */
+    public Progress start(Integer ratePerSecond, Long maxRecords) {
+        int rate = ratePerSecond != null ? ratePerSecond : defaultRate;
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive, was: " + rate);
+        }
+        long limit = maxRecords != null ? maxRecords : Long.MAX_VALUE;
+
+        Progress current = lastRun.get();
+        if (current.state() == State.RUNNING) {
+            return progress();
+        }
+        Progress started = new Progress(State.RUNNING, rate, 0, 0, Instant.now(), null, null);
+        if (!lastRun.compareAndSet(current, started)) {
+            return progress();
+        }
+
+        replayed.set(0);
+        Thread.ofPlatform().name("dlt-replay").start(() -> run(rate, limit));
+        return progress();
+    }
+
+    public Progress progress() {
+        Progress run = lastRun.get();
+        if (run.state() != State.RUNNING) {
+            return run;
+        }
+        return new Progress(State.RUNNING, run.rate(), run.pending(), replayed.get(), run.startedAt(), null, null);
+    }
+
+    private void run(int rate, long limit) {
+        log.info("Dead letter replay started: rate={}/s", rate);
+        try (KafkaConsumer<byte[], byte[]> consumer = createConsumer();
+             KafkaProducer<byte[], byte[]> producer = createProducer()) {
+            replay(consumer, producer, rate, limit);
+            finish(State.COMPLETED, null);
+            log.info("Dead letter replay finished: replayed={}", replayed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(State.FAILED, "interrupted");
+        } catch (ExecutionException e) {
+            finish(State.FAILED, e.getCause().toString());
+            log.error("Dead letter replay failed", e.getCause());
+        } catch (RuntimeException e) {
+            finish(State.FAILED, e.toString());
+            log.error("Dead letter replay failed", e);
+        }
+    }
+
+    private void replay(
+        KafkaConsumer<byte[], byte[]> consumer,
+        KafkaProducer<byte[], byte[]> producer,
+        int rate,
+        long limit
+    ) throws InterruptedException, ExecutionException {
+        List<TopicPartition> partitions = consumer.partitionsFor(KafkaConfig.TELEMETRY_DLT).stream()
+            .map(info -> new TopicPartition(info.topic(), info.partition()))
+            .toList();
+        consumer.assign(partitions);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            if (offset == null) {
+                consumer.seekToBeginning(List.of(partition));
+            } else {
+                consumer.seek(partition, offset.offset());
+            }
+        }
+
+        // Records dead-lettered after the start are left for the next replay
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        long pending = 0;
+        for (TopicPartition partition : partitions) {
+            pending += endOffsets.get(partition) - consumer.position(partition);
+        }
+        Progress started = lastRun.get();
+        lastRun.set(new Progress(State.RUNNING, rate, pending, 0, started.startedAt(), null, null));
+
+        long startNanos = System.nanoTime();
+        long sent = 0;
+        while (sent < limit && !caughtUp(consumer, partitions, endOffsets)) {
+            List<Future<RecordMetadata>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofSeconds(1))) {
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                if (sent >= limit || record.offset() >= endOffsets.get(partition)) {
+                    // Not committed, so the next replay starts from here
+                    continue;
+                }
+                pace(startNanos, sent++, rate);
+                sends.add(producer.send(toRetryRecord(record)));
+                offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            }
+            producer.flush();
+            for (Future<RecordMetadata> send : sends) {
+                send.get();
+            }
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+            replayed.addAndGet(sends.size());
+            replayedRecords.increment(sends.size());
+        }
+    }
+
+    private static boolean caughtUp(
+        KafkaConsumer<byte[], byte[]> consumer,
+        List<TopicPartition> partitions,
+        Map<TopicPartition, Long> endOffsets
+    ) {
+        for (TopicPartition partition : partitions) {
+            if (consumer.position(partition) < endOffsets.get(partition)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sleeps until the given record is due at the given rate, counted from the start.
+     */
+    private static void pace(long startNanos, long index, int rate) throws InterruptedException {
+        long waitNanos = startNanos + index * 1_000_000_000L / rate - System.nanoTime();
+        if (waitNanos > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private static ProducerRecord<byte[], byte[]> toRetryRecord(ConsumerRecord<byte[], byte[]> record) {
+        ProducerRecord<byte[], byte[]> retry = new ProducerRecord<>(
+            KafkaConfig.TELEMETRY_RETRY_1S,
+            null,
+            record.key(),
+            record.value()
+        );
+        for (Header header : record.headers()) {
+            if (!KafkaConfig.RETRY_NOT_BEFORE_HEADER.equals(header.key())) {
+                retry.headers().add(header);
+            }
+        }
+        return retry;
+    }
+
+    private KafkaConsumer<byte[], byte[]> createConsumer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private KafkaProducer<byte[], byte[]> createProducer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.putAll(KafkaProducerProfile.of(producerProfile).properties());
+        return new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    private void finish(State state, String error) {
+        Progress run = lastRun.get();
+        lastRun.set(new Progress(state, run.rate(), run.pending(), replayed.get(), run.startedAt(), Instant.now(), error));
+    }
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * @param pending records in the DLT when the replay started, from the previous replay's position
+     * @param replayed records sent to the retry topic so far
+     */
+    public record Progress(
+        State state,
+        int rate,
+        long pending,
+        long replayed,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+    ) {
+
+        static Progress idle() {
+            return new Progress(State.IDLE, 0, 0, 0, null, null, null);
+        }
+    }
+}
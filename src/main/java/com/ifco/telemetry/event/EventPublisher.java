@@ -1,34 +1,85 @@
 package com.ifco.telemetry.event;
 
-import lombok.RequiredArgsConstructor;
+import com.ifco.telemetry.domain.OutboxEvent;
+import com.ifco.telemetry.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.List;
 
 /**
- * Publishes domain events to Kafka.
- * Events are sent to the "telemetry.events" topic for async processing.
+ * Publishes domain events through the transactional outbox.
+ * Events are written to telemetry_outbox in the caller's transaction, so they are
+ * committed together with the telemetry rows or not at all. OutboxRelay forwards
+ * them to the "telemetry.events" topic asynchronously; callers never wait on Kafka.
+ * Callers must already be in a transaction (the command handlers are @Transactional).
+ *
+ * Publishing is timed as telemetry.outbox.publish; the Kafka acknowledgement latency
+ * is measured where the send happens, in OutboxRelay.
  *
- * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
  * @Slf4j - Provides 'log' field for logging
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class EventPublisher {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxRepository outboxRepository;
+    private final Timer publishTimer;
+    private final Timer publishAllTimer;
 
-    private static final String TOPIC = "telemetry.events";
+    public EventPublisher(OutboxRepository outboxRepository, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.publishTimer = publishTimer(meterRegistry, "single");
+        this.publishAllTimer = publishTimer(meterRegistry, "batch");
+    }
 
     public void publish(TelemetryRecordedEvent event) {
+        requireTransaction();
         log.debug(
-            "Publishing event to Kafka: deviceId={}, temperature={}, date={}",
+            "Publishing event to outbox: deviceId={}, temperature={}, date={}",
             event.deviceId(),
             event.temperature(),
             event.date()
         );
 
-        kafkaTemplate.send(TOPIC, event);
+        publishTimer.record(() -> outboxRepository.save(toOutboxEvent(event, Instant.now())));
+    }
+
+    /**
+     * Publishes several events in one go.
+     * Outbox rows are inserted with the same JDBC batching as the telemetry rows.
+     */
+    public void publishAll(List<TelemetryRecordedEvent> events) {
+        requireTransaction();
+        log.debug("Publishing {} events to outbox", events.size());
+
+        Instant now = Instant.now();
+        publishAllTimer.record(() -> outboxRepository.saveAll(
+            events.stream().map(event -> toOutboxEvent(event, now)).toList()
+        ));
+    }
+
+    private static Timer publishTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("telemetry.outbox.publish")
+            .description("Time to hand events to the outbox")
+            .tag("mode", mode)
+            .register(meterRegistry);
+    }
+
+    private static void requireTransaction() {
+        // Without the caller's transaction the event could commit without its telemetry row
+        Assert.state(
+            TransactionSynchronizationManager.isActualTransactionActive(),
+            "Events must be published inside the transaction that records the telemetry"
+        );
+    }
+
+    private static OutboxEvent toOutboxEvent(TelemetryRecordedEvent event, Instant createdAt) {
+        return new OutboxEvent(event.deviceId(), event.temperature(), event.date(), createdAt);
     }
 }
@@ -0,0 +1,241 @@
+package com.ifco.telemetry.event;
+
+import com.ifco.telemetry.config.KafkaConfig;
+import com.ifco.telemetry.domain.OutboxEvent;
+import com.ifco.telemetry.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the transactional outbox to the "telemetry.events" topic.
+ *
+ * Each poll relays batches of up to batch-size events until the outbox is empty:
+ * claim the oldest rows with a lease (one short UPDATE ... FOR UPDATE SKIP LOCKED
+ * statement), sort them by id, send them all without blocking, wait until every send has completed (or
+ * send-timeout-ms passed), delete the rows the broker acknowledged and release the
+ * ones it rejected. No transaction, row lock or pooled connection is held while Kafka
+ * is being waited for, so a stalled broker cannot starve the Hikari pool. Rows whose
+ * send timed out keep their lease until lease-ms, then any relay retries them; so do
+ * the rows of a relay that died mid-batch. Acknowledged rows are never resent because
+ * of a failed neighbour. Delivery is at-least-once (a send that times out here may
+ * still land); the projection's newer-than check makes redelivery harmless, and the
+ * rollups skip event ids (EVENT_ID_HEADER, the outbox row id) they have already applied.
+ *
+ * The producer retries transient broker errors itself (see KafkaProducerProfile), so a
+ * failed send here means the record exhausted delivery.timeout.ms or was rejected.
+ *
+ * Several pods relay disjoint batches in parallel. Within a batch, events are sent in
+ * outbox order (UPDATE ... RETURNING does not keep it, hence the sort); across concurrent relays a device's events may interleave, which is fine
+ * because projections are ordered by reading timestamp, not by arrival.
+ *
+ * Records carry the outbox row's creation time as Kafka timestamp (end-to-end lag).
+ *
+ * Metrics: telemetry.outbox.relay.ack times each batch from first send to the last
+ * completed send; telemetry.outbox.relayed counts acknowledged events,
+ * telemetry.outbox.relay.send.failures failed or timed-out sends (tagged with the
+ * exception class) and telemetry.outbox.relay.failures batches that failed as a whole
+ * (database errors).
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@ConditionalOnProperty(name = "telemetry.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    /**
+     * Header carrying the outbox row id (8 bytes, big-endian): the event's identity,
+     * the same on every send of the row.
+     */
+    public static final String EVENT_ID_HEADER = "telemetry-event-id";
+
+    private static final String TOPIC = KafkaConfig.TELEMETRY_TOPIC;
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long leaseMs;
+    private final Timer ackTimer;
+    private final Counter relayedEvents;
+    private final Counter failedBatches;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxRelay(
+        OutboxRepository outboxRepository,
+        KafkaTemplate<String, Object> kafkaTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${telemetry.outbox.relay.batch-size:1000}") int batchSize,
+        @Value("${telemetry.outbox.relay.send-timeout-ms:30000}") long sendTimeoutMs,
+        @Value("${telemetry.outbox.relay.lease-ms:60000}") long leaseMs
+    ) {
+        if (leaseMs <= sendTimeoutMs) {
+            throw new IllegalArgumentException(
+                "telemetry.outbox.relay.lease-ms (" + leaseMs + ") must exceed send-timeout-ms (" + sendTimeoutMs + ")"
+            );
+        }
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.leaseMs = leaseMs;
+        this.ackTimer = Timer.builder("telemetry.outbox.relay.ack")
+            .description("Time from sending an outbox batch to Kafka until every record is acknowledged")
+            .register(meterRegistry);
+        this.relayedEvents = Counter.builder("telemetry.outbox.relayed")
+            .description("Outbox events relayed to Kafka")
+            .register(meterRegistry);
+        this.failedBatches = Counter.builder("telemetry.outbox.relay.failures")
+            .description("Outbox batches that failed and stay in the outbox")
+            .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${telemetry.outbox.relay.poll-interval-ms:100}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.warn("Outbox relay failed, batch stays in outbox for the next poll", e);
+        }
+    }
+
+    /**
+     * @return events taken from the outbox; less than batch-size ends the poll, so
+     *         failed sends wait for the next poll instead of being retried in a loop
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = new ArrayList<>(outboxRepository.claimNextBatch(batchSize, leaseMs));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batch.sort(Comparator.comparing(OutboxEvent::getId));
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        Timer.Sample ack = Timer.start();
+        for (OutboxEvent outboxEvent : batch) {
+            sends.add(kafkaTemplate.send(toRecord(outboxEvent)));
+        }
+        kafkaTemplate.flush();
+        awaitCompletion(sends);
+        ack.stop(ackTimer);
+
+        List<Long> acknowledged = new ArrayList<>(batch.size());
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<SendResult<String, Object>> send = sends.get(i);
+            if (!send.isDone()) {
+                // May still land; the lease keeps other relays away until it expires
+                recordSendFailure(send);
+            } else if (send.isCompletedExceptionally()) {
+                rejected.add(batch.get(i).getId());
+                recordSendFailure(send);
+            } else {
+                acknowledged.add(batch.get(i).getId());
+            }
+        }
+
+        outboxRepository.deleteAllByIdInBatch(acknowledged);
+        if (!rejected.isEmpty()) {
+            outboxRepository.releaseClaims(rejected);
+        }
+        relayedEvents.increment(acknowledged.size());
+        int failed = batch.size() - acknowledged.size();
+        if (failed > 0) {
+            log.warn("{} of {} outbox events were not acknowledged by Kafka, retrying on the next poll",
+                failed, batch.size());
+            return 0;
+        }
+        log.debug("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Waits until every send has completed, successfully or not, or the send timeout passed.
+     */
+    private void awaitCompletion(List<CompletableFuture<SendResult<String, Object>>> sends) {
+        try {
+            CompletableFuture
+                .allOf(sends.stream().map(send -> send.exceptionally(e -> null)).toArray(CompletableFuture[]::new))
+                .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Kafka did not complete every send of the outbox batch within {} ms", sendTimeoutMs);
+        } catch (ExecutionException e) {
+            // Unreachable: failures were mapped to null above
+            throw new IllegalStateException("Kafka send failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox batch", e);
+        }
+    }
+
+    private void recordSendFailure(CompletableFuture<SendResult<String, Object>> send) {
+        String exception = "TimeoutException";
+        if (send.isDone()) {
+            Throwable cause = send.exceptionNow();
+            // KafkaTemplate wraps the producer's exception in a KafkaProducerException
+            if (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            exception = cause.getClass().getSimpleName();
+            log.debug("Outbox event send failed", cause);
+        }
+        Counter.builder("telemetry.outbox.relay.send.failures")
+            .description("Outbox events Kafka did not acknowledge; they stay in the outbox")
+            .tag("exception", exception)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static ProducerRecord<String, Object> toRecord(OutboxEvent outboxEvent) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(
+            TOPIC,
+            null,
+            outboxEvent.getCreatedAt().toEpochMilli(),
+            String.valueOf(outboxEvent.getDeviceId()),
+            new TelemetryRecordedEvent(
+                outboxEvent.getDeviceId(),
+                outboxEvent.getTemperature(),
+                outboxEvent.getTimestamp()
+            )
+        );
+        record.headers().add(EVENT_ID_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(outboxEvent.getId()).array());
+        return record;
+    }
+
+    /**
+     * @return the outbox row id of a relayed event, or null for records sent without
+     *         one (before the header existed)
+     */
+    public static Long eventId(Headers headers) {
+        Header header = headers.lastHeader(EVENT_ID_HEADER);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return null;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+}
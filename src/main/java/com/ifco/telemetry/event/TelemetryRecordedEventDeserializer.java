@@ -0,0 +1,68 @@
+package com.ifco.telemetry.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Kafka value deserializer for TelemetryRecordedEvent, reading both wire formats of
+ * TelemetryRecordedEventSerializer.
+ *
+ * The telemetry-schema-version header selects the format: binary v1 when present,
+ * JSON (always deserialized as TelemetryRecordedEvent, type headers ignored) when
+ * absent. Consumers therefore accept a topic holding both formats, whatever the
+ * producers are configured to write. Unknown versions fail with SerializationException,
+ * which the ErrorHandlingDeserializer turns into a dead-lettered record.
+ */
+public class TelemetryRecordedEventDeserializer implements Deserializer<TelemetryRecordedEvent> {
+
+    private final JsonDeserializer<TelemetryRecordedEvent> jsonDeserializer =
+        new JsonDeserializer<>(TelemetryRecordedEvent.class, false);
+
+    @Override
+    public TelemetryRecordedEvent deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public TelemetryRecordedEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header version = headers.lastHeader(TelemetryRecordedEventSerializer.SCHEMA_VERSION_HEADER);
+        if (version == null) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        byte[] value = version.value();
+        if (value.length != 1
+                || value[0] != TelemetryRecordedEventSerializer.VERSION_1
+                || data.length != TelemetryRecordedEventSerializer.VERSION_1_LENGTH) {
+            throw new SerializationException(
+                "Unsupported telemetry event format: version=" + (value.length == 1 ? value[0] : "?")
+                    + ", length=" + data.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long deviceId = buffer.getLong();
+        double temperature = buffer.getDouble();
+        long epochMicros = buffer.getLong();
+        return new TelemetryRecordedEvent(
+            deviceId,
+            temperature,
+            Instant.ofEpochSecond(
+                Math.floorDiv(epochMicros, 1_000_000L),
+                Math.floorMod(epochMicros, 1_000_000L) * 1_000L
+            )
+        );
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
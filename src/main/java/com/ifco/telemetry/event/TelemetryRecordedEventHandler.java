@@ -1,52 +1,230 @@
 package com.ifco.telemetry.event;
 
+import com.ifco.telemetry.config.KafkaConfig;
 import com.ifco.telemetry.projection.DeviceProjection;
 import com.ifco.telemetry.repository.ProjectionRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
 /**
  * Handles TelemetryRecordedEvent to update read projections.
  * Consumes events from Kafka topic "telemetry.events".
+ * Events are keyed by deviceId, so one listener thread owns all events of a device.
+ *
+ * Two listener modes, selected by telemetry.projection.batch-listener.enabled:
+ * - Batch (default): receives a whole poll, keeps only the newest event per device
+ *   and applies the survivors in one Redis call; offsets are committed once per batch.
+ *   During backfills most events of a device are superseded within the same poll.
+ * - Record: one Redis call and one offset commit per event.
+ *
+ * Metrics:
+ * - telemetry.projection.handle: time to apply one event or one batch (tag mode)
+ * - telemetry.projection.events: events by outcome (updated, ignored as older,
+ *   collapsed into a newer event of the same batch)
+ * - telemetry.projection.lag: ingest-to-projection lag, from the Kafka record timestamp
+ *   (outbox creation time) to the projection write. Reading dates are device clocks
+ *   and backfills are old by design, so lag is measured from ingest instead.
+ *   telemetry.projection.lag.latest is the lag of the last applied event.
  *
- * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
  * @Slf4j - Provides 'log' field for logging
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class TelemetryRecordedEventHandler {
 
     private final ProjectionRepository projectionRepository;
+    private final Timer recordTimer;
+    private final Timer batchTimer;
+    private final Counter updatedEvents;
+    private final Counter ignoredEvents;
+    private final Counter collapsedEvents;
+    private final Timer lag;
+    private final AtomicLong latestLagMillis = new AtomicLong();
+
+    public TelemetryRecordedEventHandler(ProjectionRepository projectionRepository, MeterRegistry meterRegistry) {
+        this.projectionRepository = projectionRepository;
+        this.recordTimer = handleTimer(meterRegistry, "record");
+        this.batchTimer = handleTimer(meterRegistry, "batch");
+        this.updatedEvents = eventCounter(meterRegistry, "updated");
+        this.ignoredEvents = eventCounter(meterRegistry, "ignored");
+        this.collapsedEvents = eventCounter(meterRegistry, "collapsed");
+        this.lag = Timer.builder("telemetry.projection.lag")
+            .description("Time from ingest (outbox write) to projection write")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("telemetry.projection.lag.latest", latestLagMillis, millis -> millis.get() / 1000.0)
+            .description("Ingest-to-projection lag of the last applied event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
 
     @KafkaListener(
-        topics = "telemetry.events",
-        groupId = "telemetry-consumer-group"
+        id = "projection-record-listener",
+        topics = KafkaConfig.TELEMETRY_TOPIC,
+        groupId = "telemetry-consumer-group",
+        autoStartup = "#{!${telemetry.projection.batch-listener.enabled:true}}"
     )
+    public void onRecord(ConsumerRecord<String, TelemetryRecordedEvent> record) {
+        handle(record.value());
+        recordLag(record.timestamp());
+    }
+
     public void handle(TelemetryRecordedEvent event) {
-        var projection = projectionRepository
-            .findById(event.deviceId())
-            .orElse(new DeviceProjection(event.deviceId(), null, null));
-
-        // Update if this is the latest or first measurement
-        if (
-            projection.getLastUpdated() == null ||
-            event.date().isAfter(projection.getLastUpdated()) ||
-            event.date().equals(projection.getLastUpdated())
-        ) {
-            projection.setLastMeasurement(event.temperature());
-            projection.setLastUpdated(event.date());
-            projectionRepository.save(projection);
+        recordTimer.record(() -> apply(event));
+    }
+
+    private void apply(TelemetryRecordedEvent event) {
+        // Newer-than check and write happen atomically in the repository
+        boolean updated = projectionRepository.upsertIfNewer(
+            event.deviceId(),
+            event.temperature(),
+            event.date()
+        );
+
+        if (updated) {
+            updatedEvents.increment();
             log.debug("Updated projection for device={}", event.deviceId());
         } else {
+            ignoredEvents.increment();
             log.debug(
-                "Ignored older event for device={}: event time {} < projection time {}",
+                "Ignored older event for device={}: event time {}",
                 event.deviceId(),
-                event.date(),
-                projection.getLastUpdated()
+                event.date()
+            );
+        }
+    }
+
+    @KafkaListener(
+        id = "projection-batch-listener",
+        topics = KafkaConfig.TELEMETRY_TOPIC,
+        groupId = "telemetry-consumer-group",
+        containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "${telemetry.projection.batch-listener.enabled:true}"
+    )
+    public void onBatch(List<ConsumerRecord<String, TelemetryRecordedEvent>> records) {
+        List<TelemetryRecordedEvent> events = new ArrayList<>(records.size());
+        for (int index = 0; index < records.size(); index++) {
+            TelemetryRecordedEvent event = records.get(index).value();
+            if (event == null) {
+                // Deserialization failed: apply what precedes it, then let the
+                // error handler commit up to here and dead-letter this record
+                applyBatch(records, events);
+                throw new BatchListenerFailedException(
+                    "Undeserializable telemetry event",
+                    index
+                );
+            }
+            events.add(event);
+        }
+        applyBatch(records, events);
+        records.forEach(record -> recordLag(record.timestamp()));
+    }
+
+    /**
+     * Applies the leading events of the batch in one call. If that fails for a reason
+     * other than infrastructure, they are applied one by one to find the event at fault,
+     * so the error handler forwards only that record to the retry topics; infrastructure
+     * failures propagate and the whole batch is redelivered in place (see KafkaConfig).
+     */
+    private void applyBatch(
+        List<ConsumerRecord<String, TelemetryRecordedEvent>> records,
+        List<TelemetryRecordedEvent> events
+    ) {
+        try {
+            handleAll(events);
+        } catch (RuntimeException e) {
+            if (KafkaConfig.isInfrastructureFailure(e)) {
+                throw e;
+            }
+            for (int index = 0; index < events.size(); index++) {
+                try {
+                    // Newer-than writes, so repeating the events applied before is harmless
+                    handle(events.get(index));
+                } catch (RuntimeException eventFailure) {
+                    throw new BatchListenerFailedException(
+                        "Telemetry event failed in its batch",
+                        eventFailure,
+                        records.get(index)
+                    );
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies a batch of events, keeping only the newest event per device.
+     * Equal timestamps resolve to the later event in the batch (last processed wins).
+     */
+    public void handleAll(List<TelemetryRecordedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        batchTimer.record(() -> applyAll(events));
+    }
+
+    private void applyAll(List<TelemetryRecordedEvent> events) {
+        Map<Long, TelemetryRecordedEvent> newestByDevice = new LinkedHashMap<>();
+        for (TelemetryRecordedEvent event : events) {
+            newestByDevice.merge(event.deviceId(), event, (current, candidate) ->
+                candidate.date().isBefore(current.date()) ? current : candidate
             );
         }
+
+        List<DeviceProjection> projections = newestByDevice
+            .values()
+            .stream()
+            .map(event ->
+                new DeviceProjection(
+                    event.deviceId(),
+                    event.temperature(),
+                    event.date()
+                )
+            )
+            .toList();
+        int updated = projectionRepository.upsertAllIfNewer(projections);
+        updatedEvents.increment(updated);
+        ignoredEvents.increment(projections.size() - updated);
+        collapsedEvents.increment(events.size() - projections.size());
+
+        log.debug(
+            "Applied event batch: events={}, devices={}, updated={}",
+            events.size(),
+            projections.size(),
+            updated
+        );
+    }
+
+    private void recordLag(long ingestedAtMillis) {
+        long lagMillis = Math.max(0, System.currentTimeMillis() - ingestedAtMillis);
+        lag.record(Duration.ofMillis(lagMillis));
+        latestLagMillis.set(lagMillis);
+    }
+
+    private static Timer handleTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("telemetry.projection.handle")
+            .description("Time to apply events to the projection store")
+            .tag("mode", mode)
+            .register(meterRegistry);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("telemetry.projection.events")
+            .description("Telemetry events applied to projections, by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
     }
 }
@@ -0,0 +1,103 @@
+package com.ifco.telemetry.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Kafka value serializer for TelemetryRecordedEvent: compact binary, or JSON during a
+ * rolling upgrade.
+ *
+ * Format v1 (24 bytes, big-endian), marked by a telemetry-schema-version header of 0x01:
+ * <pre>
+ * offset  size  field
+ *      0     8  deviceId (long)
+ *      8     8  temperature (IEEE 754 double)
+ *     16     8  date, microseconds since the epoch (long)
+ * </pre>
+ * Dates are truncated to microseconds, the precision the telemetry table stores.
+ * JSON values (about 80 bytes) carry no header, like those written before the binary
+ * format; TelemetryRecordedEventDeserializer reads both, dispatching on the header.
+ * The header is replaced on every write, so a record forwarded to a retry topic in
+ * another format stays consistent.
+ *
+ * The format comes from the constructor or, when Kafka instantiates the class from
+ * producer properties, from the telemetry.event.format property ("binary" or "json").
+ */
+public class TelemetryRecordedEventSerializer implements Serializer<TelemetryRecordedEvent> {
+
+    public static final String FORMAT_CONFIG = "telemetry.event.format";
+    public static final String SCHEMA_VERSION_HEADER = "telemetry-schema-version";
+    public static final byte VERSION_1 = 0x01;
+    public static final int VERSION_1_LENGTH = 24;
+
+    private final JsonSerializer<TelemetryRecordedEvent> jsonSerializer =
+        new JsonSerializer<TelemetryRecordedEvent>().noTypeInfo();
+    private boolean writeBinary;
+
+    public TelemetryRecordedEventSerializer() {
+        this("binary");
+    }
+
+    public TelemetryRecordedEventSerializer(String format) {
+        this.writeBinary = isBinaryFormat(format);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null) {
+            writeBinary = isBinaryFormat(format.toString());
+        }
+    }
+
+    /**
+     * Without headers the binary format cannot be marked, so this variant always writes JSON.
+     */
+    @Override
+    public byte[] serialize(String topic, TelemetryRecordedEvent event) {
+        return jsonSerializer.serialize(topic, event);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TelemetryRecordedEvent event) {
+        headers.remove(SCHEMA_VERSION_HEADER);
+        if (event == null || !writeBinary) {
+            return jsonSerializer.serialize(topic, event);
+        }
+        if (event.deviceId() == null || event.temperature() == null || event.date() == null) {
+            throw new SerializationException("Cannot encode incomplete event: " + event);
+        }
+
+        headers.add(SCHEMA_VERSION_HEADER, new byte[] { VERSION_1 });
+        return ByteBuffer.allocate(VERSION_1_LENGTH)
+            .putLong(event.deviceId())
+            .putDouble(event.temperature())
+            .putLong(epochMicros(event.date()))
+            .array();
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    static long epochMicros(Instant date) {
+        return Math.addExact(Math.multiplyExact(date.getEpochSecond(), 1_000_000L), date.getNano() / 1_000);
+    }
+
+    private static boolean isBinaryFormat(String format) {
+        return switch (format) {
+            case "binary" -> true;
+            case "json" -> false;
+            default -> throw new IllegalArgumentException(
+                "telemetry.kafka.event-format must be 'binary' or 'json', was: " + format
+            );
+        };
+    }
+}
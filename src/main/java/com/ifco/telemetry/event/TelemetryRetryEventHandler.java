@@ -0,0 +1,91 @@
+package com.ifco.telemetry.event;
+
+import com.ifco.telemetry.config.KafkaConfig;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies events forwarded to the retry topics after a projection listener failed on them.
+ *
+ * Each retry topic has its own listener container, so a record waiting out a one-minute
+ * delay never holds up one due after a second. A record is applied once its
+ * telemetry-retry-not-before header has passed; until then it is nacked for the
+ * remaining time and redelivered. Records of a stage share one delay and are appended in
+ * failure order, so the head of a partition is always due first.
+ *
+ * Applying a retried event uses the newer-than rule like any other: if newer readings of
+ * the device arrived in the meantime, the retried event is ignored. When it fails again,
+ * the container's error handler forwards it to the next stage, then to the DLT
+ * (see KafkaConfig). A failure of the projection store itself (Redis unreachable or
+ * timing out) is not the record's fault: the record is retried in place until the store
+ * is back, so an outage cannot push the retry topics into the DLT within a minute.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ * @RequiredArgsConstructor - Generates constructor for final fields (dependency injection)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TelemetryRetryEventHandler {
+
+    private final TelemetryRecordedEventHandler eventHandler;
+
+    @KafkaListener(
+        id = "projection-retry-1s",
+        topics = KafkaConfig.TELEMETRY_RETRY_1S,
+        groupId = "telemetry-retry-group",
+        containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void onRetry1s(ConsumerRecord<String, TelemetryRecordedEvent> record, Acknowledgment acknowledgment) {
+        retry(record, acknowledgment);
+    }
+
+    @KafkaListener(
+        id = "projection-retry-10s",
+        topics = KafkaConfig.TELEMETRY_RETRY_10S,
+        groupId = "telemetry-retry-group",
+        containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void onRetry10s(ConsumerRecord<String, TelemetryRecordedEvent> record, Acknowledgment acknowledgment) {
+        retry(record, acknowledgment);
+    }
+
+    @KafkaListener(
+        id = "projection-retry-1m",
+        topics = KafkaConfig.TELEMETRY_RETRY_1M,
+        groupId = "telemetry-retry-group",
+        containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void onRetry1m(ConsumerRecord<String, TelemetryRecordedEvent> record, Acknowledgment acknowledgment) {
+        retry(record, acknowledgment);
+    }
+
+    private void retry(ConsumerRecord<String, TelemetryRecordedEvent> record, Acknowledgment acknowledgment) {
+        long waitMillis = notBefore(record) - System.currentTimeMillis();
+        if (waitMillis > 0) {
+            // Pauses this container and redelivers the record (and the rest of the poll) later
+            acknowledgment.nack(Duration.ofMillis(waitMillis));
+            return;
+        }
+
+        log.debug("Retrying event from {}: deviceId={}", record.topic(), record.value().deviceId());
+        eventHandler.handle(record.value());
+        acknowledgment.acknowledge();
+    }
+
+    private static long notBefore(ConsumerRecord<?, ?> record) {
+        // Forwarding adds a header per stage; the last one is current
+        Header header = record.headers().lastHeader(KafkaConfig.RETRY_NOT_BEFORE_HEADER);
+        if (header == null) {
+            return 0L;
+        }
+        return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,199 @@
+package com.ifco.telemetry.event;
+
+import com.ifco.telemetry.config.KafkaConfig;
+import com.ifco.telemetry.domain.RollupResolution;
+import com.ifco.telemetry.domain.TelemetryRollupBucket;
+import com.ifco.telemetry.repository.TelemetryRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the 1m/1h/1d rollup tables from "telemetry.events".
+ *
+ * Runs in its own consumer group, so it sees every event regardless of the projection
+ * listeners. Each poll is folded in memory into one delta per device and bucket, then
+ * added to the rollup tables in one transaction, as JDBC batches of upserts. Late
+ * readings update the bucket they belong to, however old.
+ *
+ * The transaction also stores the next offset of each partition. Records below it were
+ * already counted and are skipped, so a batch redelivered after a crash or rebalance
+ * is not counted twice. A second send of the same event by the outbox relay (a send
+ * that landed although it timed out) gets a new offset, so the transaction also records
+ * each event's id (the outbox row id, see OutboxRelay.EVENT_ID_HEADER) and skips ids it
+ * has applied before. Ids are kept for telemetry.rollup.applied-events.retention-hours;
+ * records without an id (sent before the header existed) rely on the offsets alone.
+ *
+ * Failures are retried in place with exponential backoff (rollupKafkaListenerContainerFactory)
+ * rather than sent to the retry topics: skipping a batch would lose its counts, and this
+ * consumer group does not hold up the projections. Undeserializable records are skipped;
+ * the projection consumer group dead-letters them.
+ *
+ * Metrics: telemetry.rollup.handle times each batch; telemetry.rollup.redelivered
+ * counts records skipped by offset, telemetry.rollup.duplicates those skipped by event id.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@Slf4j
+public class TelemetryRollupEventHandler {
+
+    private final TelemetryRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer handleTimer;
+    private final Counter redeliveredRecords;
+    private final Counter duplicateEvents;
+    private final Duration appliedEventsRetention;
+
+    public TelemetryRollupEventHandler(
+        TelemetryRollupRepository rollupRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${telemetry.rollup.applied-events.retention-hours:168}") long appliedEventsRetentionHours
+    ) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.appliedEventsRetention = Duration.ofHours(appliedEventsRetentionHours);
+        this.handleTimer = Timer.builder("telemetry.rollup.handle")
+            .description("Time to add a batch of events to the rollup tables")
+            .register(meterRegistry);
+        this.redeliveredRecords = Counter.builder("telemetry.rollup.redelivered")
+            .description("Events skipped because their offset was already applied to the rollups")
+            .register(meterRegistry);
+        this.duplicateEvents = Counter.builder("telemetry.rollup.duplicates")
+            .description("Events skipped because their event id was already applied to the rollups")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(
+        id = "rollup-batch-listener",
+        topics = KafkaConfig.TELEMETRY_TOPIC,
+        groupId = "telemetry-rollup-group",
+        containerFactory = "rollupKafkaListenerContainerFactory",
+        autoStartup = "${telemetry.rollup.enabled:true}"
+    )
+    public void onBatch(List<ConsumerRecord<String, TelemetryRecordedEvent>> records) {
+        handleAll(records);
+    }
+
+    /**
+     * Adds the events to the rollups, exactly once per topic partition and offset, and
+     * once per event id.
+     */
+    public void handleAll(List<ConsumerRecord<String, TelemetryRecordedEvent>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        handleTimer.record(() -> transactionTemplate.executeWithoutResult(status -> apply(records)));
+    }
+
+    @Scheduled(cron = "${telemetry.rollup.applied-events.prune-cron:0 15 * * * *}")
+    public void pruneAppliedEvents() {
+        int pruned = rollupRepository.deleteAppliedEventsOlderThan(appliedEventsRetention);
+        log.debug("Pruned {} applied event ids from the rollups", pruned);
+    }
+
+    private void apply(List<ConsumerRecord<String, TelemetryRecordedEvent>> records) {
+        String topic = records.get(0).topic();
+        TreeSet<Integer> partitions = new TreeSet<>();
+        records.forEach(record -> partitions.add(record.partition()));
+        // Locked in partition order, so concurrent batches cannot deadlock
+        Map<Integer, Long> applied = rollupRepository.lockOffsets(topic, partitions);
+
+        List<ConsumerRecord<String, TelemetryRecordedEvent>> unapplied = new ArrayList<>(records.size());
+        List<Long> eventIds = new ArrayList<>(records.size());
+        int skipped = 0;
+        for (ConsumerRecord<String, TelemetryRecordedEvent> record : records) {
+            if (record.offset() < applied.getOrDefault(record.partition(), 0L)) {
+                skipped++;
+                continue;
+            }
+            unapplied.add(record);
+            Long eventId = OutboxRelay.eventId(record.headers());
+            if (eventId != null) {
+                eventIds.add(eventId);
+            }
+        }
+        // Ids another batch is applying right now block here until it commits
+        Set<Long> freshIds = rollupRepository.markApplied(eventIds);
+
+        Map<RollupResolution, Map<BucketKey, TelemetryRollupBucket>> deltas = new HashMap<>();
+        Map<Integer, Long> nextOffsets = new HashMap<>();
+        int duplicates = 0;
+        int undeserializable = 0;
+        for (ConsumerRecord<String, TelemetryRecordedEvent> record : unapplied) {
+            nextOffsets.merge(record.partition(), record.offset() + 1, Math::max);
+
+            Long eventId = OutboxRelay.eventId(record.headers());
+            // remove() also catches an event sent twice within this batch
+            if (eventId != null && !freshIds.remove(eventId)) {
+                duplicates++;
+                continue;
+            }
+            TelemetryRecordedEvent event = record.value();
+            if (event == null) {
+                // Undeserializable; the projection consumer group dead-letters it
+                undeserializable++;
+                continue;
+            }
+            for (RollupResolution resolution : RollupResolution.values()) {
+                Instant start = resolution.bucketStart(event.date());
+                deltas
+                    .computeIfAbsent(resolution, r -> new TreeMap<>())
+                    .merge(
+                        new BucketKey(event.deviceId(), start),
+                        TelemetryRollupBucket.of(event.deviceId(), start, event.temperature()),
+                        TelemetryRollupBucket::plus
+                    );
+            }
+        }
+
+        // Sorted by device and bucket, so concurrent upserts lock rows in the same order
+        deltas.forEach((resolution, buckets) -> rollupRepository.addAll(resolution, new ArrayList<>(buckets.values())));
+        if (!nextOffsets.isEmpty()) {
+            rollupRepository.saveOffsets(topic, nextOffsets);
+        }
+        redeliveredRecords.increment(skipped);
+        duplicateEvents.increment(duplicates);
+        if (undeserializable > 0) {
+            log.warn("Skipped {} undeserializable events in the rollups", undeserializable);
+        }
+
+        log.debug(
+            "Applied events to rollups: events={}, skipped={}, duplicates={}, minuteBuckets={}",
+            records.size(),
+            skipped,
+            duplicates,
+            deltas.getOrDefault(RollupResolution.ONE_MINUTE, Map.of()).size()
+        );
+    }
+
+    private record BucketKey(Long deviceId, Instant start) implements Comparable<BucketKey> {
+
+        private static final Comparator<BucketKey> ORDER = Comparator
+            .comparing(BucketKey::deviceId)
+            .thenComparing(BucketKey::start);
+
+        @Override
+        public int compareTo(BucketKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ifco.telemetry.projection;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for ProjectionRebuilder.
+ *
+ * GET /actuator/projectionrebuild reports progress of the running (or last) rebuild,
+ * POST /actuator/projectionrebuild starts one.
+ *
+ * @RequiredArgsConstructor - Generates constructor for final fields (dependency injection)
+ */
+@Component
+@Endpoint(id = "projectionrebuild")
+@RequiredArgsConstructor
+public class ProjectionRebuildEndpoint {
+
+    private final ProjectionRebuilder projectionRebuilder;
+
+    @ReadOperation
+    public ProjectionRebuilder.Progress progress() {
+        return projectionRebuilder.progress();
+    }
+
+    @WriteOperation
+    public ProjectionRebuilder.Progress start() {
+        return projectionRebuilder.start();
+    }
+}
@@ -0,0 +1,268 @@
+package com.ifco.telemetry.projection;
+
+import com.ifco.telemetry.repository.ProjectionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds every device projection from the write model (the telemetry table).
+ *
+ * The device id range is cut into telemetry.projection.rebuild.slices equal slices,
+ * processed by telemetry.projection.rebuild.parallelism threads (one database
+ * connection each). A slice selects the latest reading per device with DISTINCT ON,
+ * which reads idx_telemetry_device_history in order, and streams the result from a
+ * server-side cursor. Projections are written in chunks with
+ * ProjectionRepository.upsertAllIfNewer, so live events keep applying during a
+ * rebuild and neither side can overwrite a newer projection.
+ *
+ * Runs in the background; one rebuild at a time per instance. Progress is available
+ * from {@link #progress()} (actuator endpoint projectionrebuild) and as the gauges
+ * telemetry.projection.rebuild.devices and telemetry.projection.rebuild.slices.remaining.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@Slf4j
+public class ProjectionRebuilder {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ProjectionRepository projectionRepository;
+    private final int parallelism;
+    private final int slices;
+    private final int chunkSize;
+
+    private final AtomicReference<Progress> lastRun = new AtomicReference<>(Progress.idle());
+    private final AtomicInteger slicesRemaining = new AtomicInteger();
+    private final AtomicLong devices = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    public ProjectionRebuilder(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ProjectionRepository projectionRepository,
+        MeterRegistry meterRegistry,
+        @Value("${telemetry.projection.rebuild.parallelism:4}") int parallelism,
+        @Value("${telemetry.projection.rebuild.slices:64}") int slices,
+        @Value("${telemetry.projection.rebuild.chunk-size:1000}") int chunkSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.projectionRepository = projectionRepository;
+        this.parallelism = parallelism;
+        this.slices = slices;
+        this.chunkSize = chunkSize;
+        Gauge.builder("telemetry.projection.rebuild.devices", devices, AtomicLong::get)
+            .description("Devices read by the running (or last) projection rebuild")
+            .register(meterRegistry);
+        Gauge.builder("telemetry.projection.rebuild.slices.remaining", slicesRemaining, AtomicInteger::get)
+            .description("Device id slices the running projection rebuild has yet to finish")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts a rebuild in the background unless one is already running.
+     *
+     * @return progress of the started, or already running, rebuild
+     */
+    public Progress start() {
+        Progress current = lastRun.get();
+        if (current.state() == State.RUNNING) {
+            return progress();
+        }
+        Progress started = new Progress(State.RUNNING, 0, 0, 0, 0, Instant.now(), null, null);
+        if (!lastRun.compareAndSet(current, started)) {
+            return progress();
+        }
+
+        devices.set(0);
+        written.set(0);
+        slicesRemaining.set(0);
+        Thread.ofPlatform().name("projection-rebuild").start(this::run);
+        return progress();
+    }
+
+    public Progress progress() {
+        Progress run = lastRun.get();
+        if (run.state() != State.RUNNING) {
+            return run;
+        }
+        return new Progress(
+            State.RUNNING,
+            run.slices(),
+            run.slices() - slicesRemaining.get(),
+            devices.get(),
+            written.get(),
+            run.startedAt(),
+            null,
+            null
+        );
+    }
+
+    private void run() {
+        Progress started = lastRun.get();
+        log.info("Projection rebuild started: parallelism={}, slices={}", parallelism, slices);
+        try {
+            List<long[]> ranges = deviceIdRanges();
+            slicesRemaining.set(ranges.size());
+            lastRun.set(new Progress(State.RUNNING, ranges.size(), 0, 0, 0, started.startedAt(), null, null));
+
+            ExecutorService executor = Executors.newFixedThreadPool(
+                parallelism,
+                Thread.ofPlatform().name("projection-rebuild-", 0).factory()
+            );
+            try {
+                List<Future<?>> futures = new ArrayList<>(ranges.size());
+                for (long[] range : ranges) {
+                    futures.add(executor.submit(() -> {
+                        rebuildSlice(range[0], range[1]);
+                        slicesRemaining.decrementAndGet();
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            finish(State.COMPLETED, ranges.size(), null);
+            log.info("Projection rebuild finished: devices={}, written={}", devices.get(), written.get());
+        } catch (ExecutionException e) {
+            finish(State.FAILED, lastRun.get().slices(), e.getCause().toString());
+            log.error("Projection rebuild failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(State.FAILED, lastRun.get().slices(), "interrupted");
+        } catch (RuntimeException e) {
+            finish(State.FAILED, lastRun.get().slices(), e.toString());
+            log.error("Projection rebuild failed", e);
+        }
+    }
+
+    private void finish(State state, int totalSlices, String error) {
+        Progress run = lastRun.get();
+        lastRun.set(new Progress(
+            state,
+            totalSlices,
+            totalSlices - slicesRemaining.get(),
+            devices.get(),
+            written.get(),
+            run.startedAt(),
+            Instant.now(),
+            error
+        ));
+    }
+
+    /**
+     * Splits [min(device_id), max(device_id)] into up to {@code slices} inclusive ranges.
+     */
+    private List<long[]> deviceIdRanges() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+            "SELECT min(device_id) AS min_id, max(device_id) AS max_id FROM telemetry"
+        );
+        if (bounds.get("min_id") == null) {
+            return List.of();
+        }
+        long min = ((Number) bounds.get("min_id")).longValue();
+        long max = ((Number) bounds.get("max_id")).longValue();
+        long width = (max - min) / slices + 1;
+        List<long[]> ranges = new ArrayList<>(slices);
+        for (long from = min; ; from += width) {
+            long to = max - from < width ? max : from + width - 1;
+            ranges.add(new long[] { from, to });
+            if (to == max) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Loads the latest reading of every device with an id in [fromId, toId].
+     */
+    private void rebuildSlice(long fromId, long toId) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            List<DeviceProjection> chunk = new ArrayList<>(chunkSize);
+            jdbcTemplate.query(
+                connection -> {
+                    // Fully descending, so the index is scanned backwards without a sort
+                    PreparedStatement statement = connection.prepareStatement(
+                        "SELECT DISTINCT ON (device_id) device_id, temperature, timestamp FROM telemetry"
+                            + " WHERE device_id BETWEEN ? AND ?"
+                            + " ORDER BY device_id DESC, timestamp DESC, id DESC"
+                    );
+                    statement.setLong(1, fromId);
+                    statement.setLong(2, toId);
+                    // With autocommit off, the driver reads the result through a cursor
+                    statement.setFetchSize(FETCH_SIZE);
+                    return statement;
+                },
+                rs -> {
+                    chunk.add(new DeviceProjection(
+                        rs.getLong("device_id"),
+                        rs.getDouble("temperature"),
+                        rs.getTimestamp("timestamp").toInstant()
+                    ));
+                    if (chunk.size() == chunkSize) {
+                        write(chunk);
+                    }
+                }
+            );
+            write(chunk);
+        });
+    }
+
+    private void write(List<DeviceProjection> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        written.addAndGet(projectionRepository.upsertAllIfNewer(chunk));
+        devices.addAndGet(chunk.size());
+        chunk.clear();
+    }
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * @param devices devices read from the write model so far
+     * @param written projections written; lower than devices when live events were newer
+     */
+    public record Progress(
+        State state,
+        int slices,
+        int slicesCompleted,
+        long devices,
+        long written,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+    ) {
+
+        static Progress idle() {
+            return new Progress(State.IDLE, 0, 0, 0, 0, null, null, null);
+        }
+    }
+}
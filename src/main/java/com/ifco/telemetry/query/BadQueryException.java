@@ -0,0 +1,17 @@
+package com.ifco.telemetry.query;
+
+/**
+ * Thrown when a query's parameters are invalid (range, limit, resolution, cursor).
+ * The controller answers it with 400 Bad Request; any other IllegalArgumentException
+ * is a bug and stays a 500.
+ */
+public class BadQueryException extends IllegalArgumentException {
+
+    public BadQueryException(String message) {
+        super(message);
+    }
+
+    public BadQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ifco.telemetry.query;
+
+import java.util.List;
+
+/**
+ * @param source rollup the buckets were computed from (1m, 1h or 1d)
+ */
+public record DeviceAggregatesDTO(
+    Long deviceId,
+    String resolution,
+    String source,
+    List<TelemetryAggregateDTO> buckets
+) {}
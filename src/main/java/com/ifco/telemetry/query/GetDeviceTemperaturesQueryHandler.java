@@ -0,0 +1,44 @@
+package com.ifco.telemetry.query;
+
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.ProjectionRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Returns the latest temperature of specific devices: one GET for a single device,
+ * one pipelined round trip of MGETs for many.
+ *
+ * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
+ */
+@Component
+@RequiredArgsConstructor
+public class GetDeviceTemperaturesQueryHandler {
+
+    private final ProjectionRepository projectionRepository;
+
+    public Optional<DeviceTemperatureDTO> handle(Long deviceId) {
+        return projectionRepository.findById(deviceId).map(GetDeviceTemperaturesQueryHandler::toDto);
+    }
+
+    /**
+     * @return devices with a projection, in request order; unknown devices are left out
+     */
+    public List<DeviceTemperatureDTO> handle(Collection<Long> deviceIds) {
+        return projectionRepository.findAllById(deviceIds)
+            .stream()
+            .map(GetDeviceTemperaturesQueryHandler::toDto)
+            .toList();
+    }
+
+    private static DeviceTemperatureDTO toDto(DeviceProjection projection) {
+        return new DeviceTemperatureDTO(
+            projection.getDeviceId(),
+            projection.getLastMeasurement(),
+            projection.getLastUpdated()
+        );
+    }
+}
@@ -1,8 +1,9 @@
 package com.ifco.telemetry.query;
 
+import com.ifco.telemetry.projection.DeviceProjection;
 import com.ifco.telemetry.repository.ProjectionRepository;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -18,20 +19,23 @@ public class GetLatestTemperaturesQueryHandler {
     private final ProjectionRepository projectionRepository;
 
     public List<DeviceTemperatureDTO> handle() {
-        List<DeviceTemperatureDTO> results = new ArrayList<>();
+        return stream().toList();
+    }
 
-        projectionRepository
-            .findAll()
-            .forEach(projection ->
-                results.add(
-                    new DeviceTemperatureDTO(
-                        projection.getDeviceId(),
-                        projection.getLastMeasurement(),
-                        projection.getLastUpdated()
-                    )
-                )
-            );
+    /**
+     * Lazy variant of {@link #handle()}: projections are read from the repository
+     * page by page as the stream is consumed, so callers can write devices out
+     * without holding the whole fleet in memory.
+     */
+    public Stream<DeviceTemperatureDTO> stream() {
+        return projectionRepository.streamAll().map(GetLatestTemperaturesQueryHandler::toDto);
+    }
 
-        return results;
+    private static DeviceTemperatureDTO toDto(DeviceProjection projection) {
+        return new DeviceTemperatureDTO(
+            projection.getDeviceId(),
+            projection.getLastMeasurement(),
+            projection.getLastUpdated()
+        );
     }
 }
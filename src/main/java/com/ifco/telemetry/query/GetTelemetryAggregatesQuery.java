@@ -0,0 +1,61 @@
+package com.ifco.telemetry.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Temperature aggregates of a device in buckets of {@code resolution}, for the
+ * buckets starting in [from, to). Buckets are aligned to {@code from}.
+ *
+ * @param resolution bucket size: a whole number of minutes, hours or days ("15m", "1h", "7d")
+ */
+public record GetTelemetryAggregatesQuery(
+    Long deviceId,
+    String resolution,
+    Instant from,
+    Instant to
+) {
+
+    public static final int MAX_BUCKETS = 10_000;
+
+    private static final Pattern RESOLUTION = Pattern.compile("([1-9][0-9]{0,5})([mhd])");
+
+    public GetTelemetryAggregatesQuery {
+        if (deviceId == null) {
+            throw new BadQueryException("deviceId cannot be null");
+        }
+        if (from == null || to == null) {
+            throw new BadQueryException("from and to are required");
+        }
+        if (!from.isBefore(to)) {
+            throw new BadQueryException("from must be before to");
+        }
+        Duration size = parseResolution(resolution);
+        if (Duration.between(from, to).dividedBy(size) > MAX_BUCKETS) {
+            throw new BadQueryException(
+                "at most " + MAX_BUCKETS + " buckets per request, use a coarser resolution or a shorter range"
+            );
+        }
+    }
+
+    public Duration bucketSize() {
+        return parseResolution(resolution);
+    }
+
+    private static Duration parseResolution(String resolution) {
+        Matcher matcher = resolution == null ? null : RESOLUTION.matcher(resolution);
+        if (matcher == null || !matcher.matches()) {
+            throw new BadQueryException(
+                "resolution must be a number of minutes, hours or days, e.g. 15m, 1h, 1d; was: " + resolution
+            );
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        return switch (matcher.group(2)) {
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            default -> Duration.ofDays(amount);
+        };
+    }
+}
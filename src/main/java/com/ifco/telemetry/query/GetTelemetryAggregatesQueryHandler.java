@@ -0,0 +1,60 @@
+package com.ifco.telemetry.query;
+
+import com.ifco.telemetry.domain.RollupResolution;
+import com.ifco.telemetry.domain.TelemetryRollupBucket;
+import com.ifco.telemetry.repository.TelemetryRollupRepository;
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Returns a device's min/max/avg temperature per bucket from the rollup tables.
+ *
+ * Reads the coarsest rollup whose bucket size divides the requested resolution and
+ * to which from and to are aligned, so a query costs O(buckets read) instead of
+ * O(readings): a week at 1d resolution reads 7 rows of telemetry_rollup_1d, while
+ * 15m buckets or unaligned bounds fall back to the finer tables.
+ *
+ * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
+ */
+@Component
+@RequiredArgsConstructor
+public class GetTelemetryAggregatesQueryHandler {
+
+    private final TelemetryRollupRepository rollupRepository;
+
+    public DeviceAggregatesDTO handle(GetTelemetryAggregatesQuery query) {
+        Duration bucketSize = query.bucketSize();
+        RollupResolution source = sourceFor(query);
+        List<TelemetryAggregateDTO> buckets = rollupRepository
+            .findBuckets(source, query.deviceId(), query.from(), query.to(), bucketSize)
+            .stream()
+            .map(GetTelemetryAggregatesQueryHandler::toDto)
+            .toList();
+        return new DeviceAggregatesDTO(query.deviceId(), query.resolution(), source.label(), buckets);
+    }
+
+    static RollupResolution sourceFor(GetTelemetryAggregatesQuery query) {
+        RollupResolution[] resolutions = RollupResolution.values();
+        for (int i = resolutions.length - 1; i > 0; i--) {
+            RollupResolution candidate = resolutions[i];
+            if (query.bucketSize().toSeconds() % candidate.size().toSeconds() == 0
+                && candidate.isAligned(query.from())
+                && candidate.isAligned(query.to())) {
+                return candidate;
+            }
+        }
+        return RollupResolution.ONE_MINUTE;
+    }
+
+    private static TelemetryAggregateDTO toDto(TelemetryRollupBucket bucket) {
+        return new TelemetryAggregateDTO(
+            bucket.start(),
+            bucket.count(),
+            bucket.min(),
+            bucket.max(),
+            bucket.average()
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package com.ifco.telemetry.query;
+
+import java.time.Instant;
+
+/**
+ * One page of a device's readings with timestamps in [from, to), oldest first.
+ *
+ * @param from   inclusive lower bound, null for unbounded
+ * @param to     exclusive upper bound, null for unbounded
+ * @param limit  page size, 1 to {@value #MAX_LIMIT}
+ * @param cursor position after which the page starts, null for the first page
+ */
+public record GetTelemetryHistoryQuery(
+    Long deviceId,
+    Instant from,
+    Instant to,
+    int limit,
+    TelemetryHistoryCursor cursor
+) {
+
+    public static final int DEFAULT_LIMIT = 1000;
+    public static final int MAX_LIMIT = 10_000;
+
+    // Stand-ins for missing bounds; concrete values keep the query plan the same
+    static final Instant UNBOUNDED_FROM = Instant.EPOCH;
+    static final Instant UNBOUNDED_TO = Instant.parse("9999-01-01T00:00:00Z");
+
+    public GetTelemetryHistoryQuery {
+        if (deviceId == null) {
+            throw new BadQueryException("deviceId cannot be null");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadQueryException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadQueryException("from must be before to");
+        }
+    }
+
+    Instant fromOrUnbounded() {
+        return from != null ? from : UNBOUNDED_FROM;
+    }
+
+    Instant toOrUnbounded() {
+        return to != null ? to : UNBOUNDED_TO;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ifco.telemetry.query;
+
+import com.ifco.telemetry.domain.TelemetryReading;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Returns a device's readings from the write model, one keyset page at a time.
+ *
+ * Readings are handed to the consumer as they arrive from the database cursor, so
+ * a page of any size is never held in memory. One row more than the limit is
+ * read to tell whether another page follows.
+ *
+ * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
+ */
+@Component
+@RequiredArgsConstructor
+public class GetTelemetryHistoryQueryHandler {
+
+    private final TelemetryRepository telemetryRepository;
+
+    /**
+     * @return cursor of the next page, or null if this page is the last one
+     */
+    @Transactional(readOnly = true)
+    public TelemetryHistoryCursor handle(GetTelemetryHistoryQuery query, Consumer<TelemetryReadingDTO> consumer) {
+        Instant from = query.fromOrUnbounded();
+        TelemetryHistoryCursor after = query.cursor() != null
+            ? query.cursor()
+            : new TelemetryHistoryCursor(from, Long.MIN_VALUE);
+        Instant lowerBound = after.timestamp().isAfter(from) ? after.timestamp() : from;
+
+        try (Stream<TelemetryReading> readings = telemetryRepository.streamHistory(
+            query.deviceId(),
+            lowerBound,
+            query.toOrUnbounded(),
+            after.timestamp(),
+            after.id(),
+            Limit.of(query.limit() + 1)
+        )) {
+            Iterator<TelemetryReading> iterator = readings.iterator();
+            TelemetryReading last = null;
+            int count = 0;
+            while (iterator.hasNext()) {
+                TelemetryReading reading = iterator.next();
+                if (count == query.limit()) {
+                    return new TelemetryHistoryCursor(last.timestamp(), last.id());
+                }
+                consumer.accept(new TelemetryReadingDTO(reading.temperature(), reading.timestamp()));
+                last = reading;
+                count++;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ifco.telemetry.query;
+
+import java.time.Instant;
+
+public record TelemetryAggregateDTO(
+    Instant start,
+    long count,
+    double min,
+    double max,
+    double avg
+) {}
@@ -0,0 +1,39 @@
+package com.ifco.telemetry.query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last reading of a history page: its timestamp, and its id to
+ * break ties between readings with the same timestamp.
+ *
+ * Clients treat the encoded form as opaque and pass it back unchanged.
+ */
+public record TelemetryHistoryCursor(Instant timestamp, long id) {
+
+    public String encode() {
+        String position = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws BadQueryException if the cursor was not produced by {@link #encode()}
+     */
+    public static TelemetryHistoryCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 3) {
+                throw new BadQueryException("Invalid cursor: " + cursor);
+            }
+            return new TelemetryHistoryCursor(
+                Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                Long.parseLong(parts[2])
+            );
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new BadQueryException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
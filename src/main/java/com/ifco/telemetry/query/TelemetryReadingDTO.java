@@ -0,0 +1,8 @@
+package com.ifco.telemetry.query;
+
+import java.time.Instant;
+
+public record TelemetryReadingDTO(
+    Double measurement,
+    Instant date
+) {}
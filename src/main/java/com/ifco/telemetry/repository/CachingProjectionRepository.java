@@ -0,0 +1,190 @@
+package com.ifco.telemetry.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ifco.telemetry.projection.DeviceProjection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * In-process near-cache in front of another ProjectionRepository (Redis).
+ *
+ * Serves findById and findAllById for hot devices from local memory and answers the newer-than check
+ * of upsertIfNewer / upsertAllIfNewer locally when the cached projection is already
+ * newer than the incoming reading. Such readings would be rejected by Redis anyway:
+ * a stored projection only ever moves forward in time, so a cached entry can lag
+ * Redis but never be ahead of it.
+ *
+ * Coherence across pods: RedisProjectionRepository publishes the deviceIds it writes
+ * on RedisProjectionRepository.INVALIDATION_CHANNEL, tagged with its instanceId, and
+ * every other pod evicts them through {@link #onInvalidation(String)}. The writing pod
+ * ignores its own messages: it has already cached what it wrote. Entries also expire
+ * after a configurable time, which bounds staleness if an invalidation message is lost
+ * or races a local write.
+ *
+ * Full-fleet reads (findAll, streamAll) bypass the cache so they don't evict hot entries.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Slf4j
+public class CachingProjectionRepository implements ProjectionRepository {
+
+    private final ProjectionRepository delegate;
+    private final Cache<Long, DeviceProjection> cache;
+    // Prefix of the invalidations published by this pod's delegate
+    private final String ownInvalidationPrefix;
+
+    /**
+     * @param instanceId id the delegate tags its invalidation messages with
+     */
+    public CachingProjectionRepository(
+            ProjectionRepository delegate,
+            Cache<Long, DeviceProjection> cache,
+            String instanceId) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.ownInvalidationPrefix = instanceId + ":";
+    }
+
+    @Override
+    public Optional<DeviceProjection> findById(Long deviceId) {
+        // Absent devices are not cached: the mapping function returning null stores nothing
+        return Optional.ofNullable(cache.get(deviceId, id -> delegate.findById(id).orElse(null)));
+    }
+
+    /**
+     * Serves cached devices locally and loads the rest with one delegate call.
+     */
+    @Override
+    public List<DeviceProjection> findAllById(Collection<Long> deviceIds) {
+        Map<Long, DeviceProjection> found = cache.getAll(deviceIds, missing -> {
+            // Devices left out of the returned map are not cached
+            Map<Long, DeviceProjection> loaded = new HashMap<>();
+            delegate.findAllById(List.copyOf(missing)).forEach(projection -> loaded.put(projection.getDeviceId(), projection));
+            return loaded;
+        });
+        return deviceIds.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void save(DeviceProjection projection) {
+        delegate.save(projection);
+        cache.invalidate(projection.getDeviceId());
+    }
+
+    @Override
+    public boolean upsertIfNewer(Long deviceId, Double measurement, Instant timestamp) {
+        if (isCachedNewer(deviceId, timestamp)) {
+            return false;
+        }
+
+        boolean written = delegate.upsertIfNewer(deviceId, measurement, timestamp);
+        if (written) {
+            cacheIfNewer(new DeviceProjection(deviceId, measurement, timestamp));
+        } else {
+            // Redis holds something newer than we know about
+            cache.invalidate(deviceId);
+        }
+        return written;
+    }
+
+    @Override
+    public int upsertAllIfNewer(Collection<DeviceProjection> projections) {
+        List<DeviceProjection> candidates = new ArrayList<>(projections.size());
+        for (DeviceProjection projection : projections) {
+            if (!isCachedNewer(projection.getDeviceId(), projection.getLastUpdated())) {
+                candidates.add(projection);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        int written = delegate.upsertAllIfNewer(candidates);
+        if (written == candidates.size()) {
+            // The usual case: every candidate was newer than what Redis held
+            candidates.forEach(this::cacheIfNewer);
+        } else {
+            // Only the count comes back, not which devices Redis rejected as older;
+            // drop them all and reload lazily
+            cache.invalidateAll(candidates.stream().map(DeviceProjection::getDeviceId).toList());
+        }
+        return written;
+    }
+
+    @Override
+    public Iterable<DeviceProjection> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<DeviceProjection> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Applies an invalidation message: "<instanceId>:" followed by comma-separated
+     * deviceIds, or by RedisProjectionRepository.INVALIDATE_ALL to clear the cache.
+     * Messages from this pod are skipped; untagged messages (from pods that predate the
+     * instanceId) are applied.
+     */
+    public void onInvalidation(String message) {
+        if (message.startsWith(ownInvalidationPrefix)) {
+            return;
+        }
+        int separator = message.indexOf(':');
+        String payload = separator < 0 ? message : message.substring(separator + 1);
+        applyInvalidation(payload);
+    }
+
+    private void applyInvalidation(String message) {
+        if (RedisProjectionRepository.INVALIDATE_ALL.equals(message)) {
+            cache.invalidateAll();
+            return;
+        }
+
+        int start = 0;
+        while (start < message.length()) {
+            int end = message.indexOf(',', start);
+            if (end < 0) {
+                end = message.length();
+            }
+            try {
+                cache.invalidate(Long.parseLong(message, start, end, 10));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed projection invalidation: {}", message);
+                cache.invalidateAll();
+                return;
+            }
+            start = end + 1;
+        }
+    }
+
+    private boolean isCachedNewer(Long deviceId, Instant timestamp) {
+        DeviceProjection cached = cache.getIfPresent(deviceId);
+        return cached != null && cached.getLastUpdated().isAfter(timestamp);
+    }
+
+    private void cacheIfNewer(DeviceProjection projection) {
+        cache.asMap().merge(projection.getDeviceId(), projection, (current, candidate) ->
+                candidate.getLastUpdated().isBefore(current.getLastUpdated()) ? current : candidate);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ifco.telemetry.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Consistent hash ring mapping deviceIds to named nodes.
+ *
+ * Each node is placed on the ring at VIRTUAL_NODES points derived from its name
+ * (MD5 of "name#i"), so the placement depends only on the node names: every pod builds
+ * the same ring, and adding or removing one node of N moves about 1/N of the devices.
+ * A device belongs to the first point at or after the hash of its id.
+ *
+ * The ring is immutable; lookups are a binary search over a sorted long[].
+ */
+final class ConsistentHashRing {
+
+    static final int VIRTUAL_NODES = 160;
+
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    ConsistentHashRing(Collection<String> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        this.nodes = Set.copyOf(new LinkedHashSet<>(nodes));
+
+        long[][] entries = new long[this.nodes.size() * VIRTUAL_NODES][];
+        String[] names = this.nodes.stream().sorted().toArray(String[]::new);
+        int n = 0;
+        for (int node = 0; node < names.length; node++) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                entries[n++] = new long[] { point(names[node] + "#" + i), node };
+            }
+        }
+        // Ties (practically impossible) are broken by node name, so all pods agree
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = names[(int) entries[i][1]];
+        }
+    }
+
+    Set<String> nodes() {
+        return nodes;
+    }
+
+    String owner(long deviceId) {
+        int index = Arrays.binarySearch(points, hash(deviceId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * MurmurHash3 fmix64: spreads sequential deviceIds evenly over the ring.
+     */
+    static long hash(long deviceId) {
+        long h = deviceId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long point(String virtualNode) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(virtualNode.getBytes(StandardCharsets.UTF_8));
+            long point = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                point = (point << 8) | (digest[i] & 0xff);
+            }
+            return point;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required on every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ifco.telemetry.repository;
+
+import com.ifco.telemetry.projection.DeviceProjection;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Compact, versioned Redis encoding for DeviceProjection.
+ *
+ * Format v1 (29 bytes, big-endian):
+ * <pre>
+ * offset  size  field
+ *      0     1  format version (0x01)
+ *      1     8  deviceId (long)
+ *      9     8  lastMeasurement (IEEE 754 double)
+ *     17     8  lastUpdated epoch seconds (long)
+ *     25     4  lastUpdated nanos of second (int)
+ * </pre>
+ * The Lua upsert scripts read the timestamp at offset 17, so the layout of a version
+ * may never change; new layouts get a new version byte.
+ *
+ * Reads also accept the legacy JSON values written by GenericJackson2JsonRedisSerializer
+ * (first byte '[' or '{'), so projections written before the switch stay readable until
+ * ProjectionFormatMigrator has rewritten them. Writes use the configured format: JSON
+ * while a rolling upgrade still runs pods that only understand JSON, binary afterwards.
+ */
+public class DeviceProjectionRedisSerializer implements RedisSerializer<DeviceProjection> {
+
+    public static final byte VERSION_1 = 0x01;
+    public static final int VERSION_1_LENGTH = 29;
+
+    private final RedisSerializer<Object> legacyJsonSerializer;
+    private final boolean writeBinary;
+
+    public DeviceProjectionRedisSerializer(RedisSerializer<Object> legacyJsonSerializer, boolean writeBinary) {
+        this.legacyJsonSerializer = legacyJsonSerializer;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(DeviceProjection projection) {
+        if (projection == null) {
+            return null;
+        }
+        if (!writeBinary) {
+            return legacyJsonSerializer.serialize(projection);
+        }
+        if (projection.getDeviceId() == null
+                || projection.getLastMeasurement() == null
+                || projection.getLastUpdated() == null) {
+            throw new SerializationException("Cannot encode incomplete projection: " + projection);
+        }
+
+        return ByteBuffer.allocate(VERSION_1_LENGTH)
+                .put(VERSION_1)
+                .putLong(projection.getDeviceId())
+                .putDouble(projection.getLastMeasurement())
+                .putLong(projection.getLastUpdated().getEpochSecond())
+                .putInt(projection.getLastUpdated().getNano())
+                .array();
+    }
+
+    @Override
+    public DeviceProjection deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (isLegacyJson(bytes)) {
+            return (DeviceProjection) legacyJsonSerializer.deserialize(bytes);
+        }
+        if (bytes[0] != VERSION_1 || bytes.length != VERSION_1_LENGTH) {
+            throw new SerializationException(
+                    "Unsupported projection format: version=" + bytes[0] + ", length=" + bytes.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, VERSION_1_LENGTH - 1);
+        long deviceId = buffer.getLong();
+        double measurement = buffer.getDouble();
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        return new DeviceProjection(deviceId, measurement, Instant.ofEpochSecond(epochSecond, nano));
+    }
+
+    public static boolean isLegacyJson(byte[] bytes) {
+        return bytes.length > 0 && (bytes[0] == '[' || bytes[0] == '{');
+    }
+}
@@ -0,0 +1,389 @@
+package com.ifco.telemetry.repository;
+
+import com.ifco.telemetry.projection.DeviceProjection;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * In-process implementation of ProjectionRepository, for single-node deployments
+ * without Redis (telemetry.projection.store=memory) and as a fast test double.
+ *
+ * Storage: STRIPES independent open-addressed hash tables (linear probing), each made
+ * of three parallel primitive arrays: deviceId, measurement and the reading time in
+ * epoch nanoseconds. No object is kept per device, so the heap holds a few large
+ * arrays the GC never has to trace, at 24 bytes per slot (32 to 64 bytes per device
+ * with the 0.75 load factor). A table doubles under its stripe's lock when full.
+ *
+ * Concurrency: each stripe has a StampedLock. Writes (including the newer-than check)
+ * take the write lock of one stripe, so writers to different stripes never contend.
+ * Reads are optimistic: they read the slot without locking and only fall back to the
+ * read lock if a write to the stripe raced with them.
+ *
+ * Same newer-than semantics as the Redis scripts: equal timestamps overwrite.
+ * Timestamps must lie between the years 1677 and 2262 (epoch nanoseconds in a long),
+ * and Long.MIN_VALUE is reserved as the empty-slot marker.
+ */
+public class InMemoryProjectionRepository implements ProjectionRepository {
+
+    private static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int initialCapacity;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public InMemoryProjectionRepository() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedDevices fleet size to presize the tables for; they grow beyond it
+     */
+    public InMemoryProjectionRepository(int expectedDevices) {
+        this.initialCapacity = capacityFor(Math.max(expectedDevices, 0) / STRIPES + 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(initialCapacity);
+        }
+    }
+
+    /**
+     * Receives projections from {@link #forEach(ProjectionConsumer)} as primitives.
+     */
+    @FunctionalInterface
+    public interface ProjectionConsumer {
+
+        void accept(long deviceId, double measurement, long epochNanos);
+    }
+
+    @Override
+    public Optional<DeviceProjection> findById(Long deviceId) {
+        return Optional.ofNullable(get(deviceId));
+    }
+
+    @Override
+    public List<DeviceProjection> findAllById(Collection<Long> deviceIds) {
+        List<DeviceProjection> projections = new ArrayList<>(deviceIds.size());
+        for (Long deviceId : new LinkedHashSet<>(deviceIds)) {
+            DeviceProjection projection = get(deviceId);
+            if (projection != null) {
+                projections.add(projection);
+            }
+        }
+        return projections;
+    }
+
+    @Override
+    public void save(DeviceProjection projection) {
+        put(projection.getDeviceId(), projection.getLastMeasurement(), projection.getLastUpdated(), false);
+    }
+
+    @Override
+    public boolean upsertIfNewer(Long deviceId, Double measurement, Instant timestamp) {
+        return put(deviceId, measurement, timestamp, true);
+    }
+
+    @Override
+    public int upsertAllIfNewer(Collection<DeviceProjection> projections) {
+        int written = 0;
+        for (DeviceProjection projection : projections) {
+            if (put(projection.getDeviceId(), projection.getLastMeasurement(), projection.getLastUpdated(), true)) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public Iterable<DeviceProjection> findAll() {
+        return streamAll().toList();
+    }
+
+    /**
+     * Copies one stripe at a time into reused primitive buffers and builds the
+     * DeviceProjection objects as the stream is consumed. No lock is held between
+     * elements; each device belongs to exactly one stripe, so it is returned once.
+     */
+    @Override
+    public Stream<DeviceProjection> streamAll() {
+        Iterator<DeviceProjection> iterator = new Iterator<>() {
+            private int nextStripe;
+            private long[] ids = new long[0];
+            private double[] measurements = new double[0];
+            private long[] timestamps = new long[0];
+            private int count;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == count && nextStripe < STRIPES) {
+                    Stripe stripe = stripes[nextStripe++];
+                    long stamp = stripe.lock.readLock();
+                    try {
+                        if (ids.length < stripe.size) {
+                            ids = new long[stripe.size];
+                            measurements = new double[stripe.size];
+                            timestamps = new long[stripe.size];
+                        }
+                        Table table = stripe.table;
+                        count = 0;
+                        for (int slot = 0; slot < table.ids.length; slot++) {
+                            if (table.ids[slot] != EMPTY) {
+                                ids[count] = table.ids[slot];
+                                measurements[count] = table.measurements[slot];
+                                timestamps[count] = table.timestamps[slot];
+                                count++;
+                            }
+                        }
+                        position = 0;
+                    } finally {
+                        stripe.lock.unlockRead(stamp);
+                    }
+                }
+                return position < count;
+            }
+
+            @Override
+            public DeviceProjection next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = position++;
+                return projection(ids[i], measurements[i], timestamps[i]);
+            }
+        };
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    /**
+     * Visits every projection without allocating, one stripe at a time under its read
+     * lock: writes to that stripe wait for the consumer, so keep it short.
+     */
+    public void forEach(ProjectionConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                Table table = stripe.table;
+                for (int slot = 0; slot < table.ids.length; slot++) {
+                    if (table.ids[slot] != EMPTY) {
+                        consumer.accept(table.ids[slot], table.measurements[slot], table.timestamps[slot]);
+                    }
+                }
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * @return number of devices with a projection; not a snapshot under concurrent writes
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void deleteAll() {
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+            try {
+                stripe.table = new Table(initialCapacity);
+                stripe.size = 0;
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private DeviceProjection get(long deviceId) {
+        long hash = mix(deviceId);
+        Stripe stripe = stripes[(int) (hash >>> STRIPE_SHIFT)];
+
+        long stamp = stripe.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Table table = stripe.table;
+            int slot = table.slot(deviceId, hash);
+            double measurement = slot < 0 ? 0 : table.measurements[slot];
+            long timestamp = slot < 0 ? 0 : table.timestamps[slot];
+            if (stripe.lock.validate(stamp)) {
+                return slot < 0 ? null : projection(deviceId, measurement, timestamp);
+            }
+        }
+
+        stamp = stripe.lock.readLock();
+        try {
+            Table table = stripe.table;
+            int slot = table.slot(deviceId, hash);
+            return slot < 0 ? null : projection(deviceId, table.measurements[slot], table.timestamps[slot]);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    private boolean put(Long deviceId, Double measurement, Instant timestamp, boolean onlyIfNewer) {
+        if (deviceId == EMPTY) {
+            throw new IllegalArgumentException("Device ID " + EMPTY + " is not supported in memory");
+        }
+        double value = Objects.requireNonNull(measurement, "measurement");
+        long epochNanos = epochNanos(timestamp);
+        long hash = mix(deviceId);
+        Stripe stripe = stripes[(int) (hash >>> STRIPE_SHIFT)];
+
+        long stamp = stripe.lock.writeLock();
+        try {
+            Table table = stripe.table;
+            int slot = table.slot(deviceId, hash);
+            if (slot >= 0) {
+                if (onlyIfNewer && table.timestamps[slot] > epochNanos) {
+                    return false;
+                }
+                table.measurements[slot] = value;
+                table.timestamps[slot] = epochNanos;
+                return true;
+            }
+
+            if ((stripe.size + 1) * 4L > table.ids.length * 3L) {
+                table = stripe.grow();
+                slot = table.slot(deviceId, hash);
+            }
+            slot = ~slot;
+            table.ids[slot] = deviceId;
+            table.measurements[slot] = value;
+            table.timestamps[slot] = epochNanos;
+            stripe.size++;
+            return true;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    private static DeviceProjection projection(long deviceId, double measurement, long epochNanos) {
+        return new DeviceProjection(
+            deviceId,
+            measurement,
+            Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND))
+        );
+    }
+
+    private static long epochNanos(Instant timestamp) {
+        try {
+            return Math.addExact(Math.multiplyExact(timestamp.getEpochSecond(), NANOS_PER_SECOND), timestamp.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Timestamp out of the in-memory range (1677-2262): " + timestamp, e);
+        }
+    }
+
+    /**
+     * MurmurHash3 fmix64: the top bits pick the stripe, the low bits the slot.
+     */
+    private static long mix(long deviceId) {
+        long h = deviceId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int capacityFor(int devices) {
+        long slots = Math.max(MIN_CAPACITY, devices * 4L / 3 + 1);
+        if (slots > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) slots - 1) << 1;
+    }
+
+    private static final class Stripe {
+
+        final StampedLock lock = new StampedLock();
+        // Replaced, never resized in place, so an optimistic reader sees consistent lengths
+        Table table;
+        int size;
+
+        Stripe(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        Table grow() {
+            if (table.ids.length == MAX_CAPACITY) {
+                throw new IllegalStateException("In-memory projection stripe is full");
+            }
+            Table grown = new Table(table.ids.length * 2);
+            for (int slot = 0; slot < table.ids.length; slot++) {
+                long deviceId = table.ids[slot];
+                if (deviceId != EMPTY) {
+                    int target = ~grown.slot(deviceId, mix(deviceId));
+                    grown.ids[target] = deviceId;
+                    grown.measurements[target] = table.measurements[slot];
+                    grown.timestamps[target] = table.timestamps[slot];
+                }
+            }
+            table = grown;
+            return grown;
+        }
+    }
+
+    private static final class Table {
+
+        final long[] ids;
+        final double[] measurements;
+        final long[] timestamps;
+
+        Table(int capacity) {
+            this.ids = new long[capacity];
+            Arrays.fill(ids, EMPTY);
+            this.measurements = new double[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        /**
+         * @return the slot holding deviceId, or ~slot of the free slot where it belongs.
+         *         Probing is bounded, so a racing optimistic reader always terminates
+         *         (with -1, i.e. not found, if it saw no free slot).
+         */
+        int slot(long deviceId, long hash) {
+            int mask = ids.length - 1;
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long id = ids[slot];
+                if (id == deviceId) {
+                    return slot;
+                }
+                if (id == EMPTY) {
+                    return ~slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+}
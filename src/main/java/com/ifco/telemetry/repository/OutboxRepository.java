@@ -0,0 +1,44 @@
+package com.ifco.telemetry.repository;
+
+import com.ifco.telemetry.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Claims the oldest unclaimed (or expired) events for relaying by setting their
+     * lease, in one short statement. Rows being claimed by another relay (another pod)
+     * are skipped, so relays drain disjoint batches in parallel. No lock is held
+     * afterwards: the lease alone keeps other relays away until it expires.
+     * RETURNING yields the claimed rows in no guaranteed order; sort them by id if
+     * order matters.
+     */
+    @Transactional
+    @Query(
+        value = "UPDATE telemetry_outbox SET claimed_until = LOCALTIMESTAMP + :leaseMs * INTERVAL '1 millisecond'"
+            + " WHERE id IN ("
+            + "SELECT id FROM telemetry_outbox"
+            + " WHERE claimed_until IS NULL OR claimed_until < LOCALTIMESTAMP"
+            + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED"
+            + ") RETURNING id, device_id, temperature, timestamp, created_at",
+        nativeQuery = true
+    )
+    List<OutboxEvent> claimNextBatch(@Param("limit") int limit, @Param("leaseMs") long leaseMs);
+
+    /**
+     * Ends the lease of events that could not be relayed, so the next poll retries them.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE telemetry_outbox SET claimed_until = NULL WHERE id IN (:ids)", nativeQuery = true)
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+}
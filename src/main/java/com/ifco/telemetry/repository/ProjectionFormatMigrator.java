@@ -0,0 +1,182 @@
+package com.ifco.telemetry.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Brings projections stored by earlier versions up to date:
+ * - rewrites legacy JSON values in the configured format (telemetry.projection.redis-format)
+ * - adds devices missing from the projection index (written before the index existed)
+ *
+ * Walks the keyspace with SCAN (non-blocking, COUNT-sized steps) and applies each chunk
+ * with scripts/migrate-projections.lua, which only replaces a value if it is unchanged
+ * since it was read. Safe to run while listeners are writing and safe to run repeatedly.
+ *
+ * Runs on startup when telemetry.projection.migrate-on-startup is set; once every pod
+ * writes binary and one migration has completed, the setting can be turned off again.
+ *
+ * Fleet reads only see indexed devices, so the index is also backfilled on its own
+ * (no values rewritten) at startup by default (telemetry.projection.index-backfill-on-startup).
+ * That runs once per Redis: a completed backfill or migration sets
+ * RedisProjectionRepository.INDEX_COMPLETE_KEY, and later startups skip it.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "telemetry.projection.store", havingValue = "redis", matchIfMissing = true)
+public class ProjectionFormatMigrator implements ApplicationRunner {
+
+    private static final RedisScript<Long> MIGRATE_PROJECTIONS = RedisScript.of(
+            new ClassPathResource("scripts/migrate-projections.lua"), Long.class);
+    private static final int CHUNK_SIZE = 500;
+    private static final byte[] UNCHANGED = new byte[0];
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean migrateOnStartup;
+    private final boolean indexBackfillOnStartup;
+
+    public ProjectionFormatMigrator(
+            RedisTemplate<String, Object> redisTemplate,
+            @Value("${telemetry.projection.migrate-on-startup:false}") boolean migrateOnStartup,
+            @Value("${telemetry.projection.index-backfill-on-startup:true}") boolean indexBackfillOnStartup) {
+        this.redisTemplate = redisTemplate;
+        this.migrateOnStartup = migrateOnStartup;
+        this.indexBackfillOnStartup = indexBackfillOnStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (migrateOnStartup) {
+            migrate();
+        } else if (indexBackfillOnStartup && !isIndexComplete()) {
+            backfillIndex();
+        }
+    }
+
+    /**
+     * Rewrites legacy values and backfills the index.
+     */
+    public MigrationResult migrate() {
+        log.info("Projection migration started");
+        MigrationResult result = scan(true);
+        log.info("Projection migration finished: scanned={}, rewritten={}", result.scanned(), result.rewritten());
+        return result;
+    }
+
+    /**
+     * Adds every stored projection to the index without rewriting any value.
+     */
+    public MigrationResult backfillIndex() {
+        log.info("Projection index backfill started");
+        MigrationResult result = scan(false);
+        log.info("Projection index backfill finished: scanned={}", result.scanned());
+        return result;
+    }
+
+    /**
+     * @return true once a backfill or migration has completed on this Redis
+     */
+    public boolean isIndexComplete() {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(RedisProjectionRepository.INDEX_COMPLETE_KEY));
+    }
+
+    private MigrationResult scan(boolean rewrite) {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(RedisProjectionRepository.KEY_PREFIX + "*")
+                .count(CHUNK_SIZE)
+                .build();
+
+        long scanned = 0;
+        long rewritten = 0;
+        List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() == CHUNK_SIZE || !cursor.hasNext()) {
+                    scanned += chunk.size();
+                    rewritten += migrateChunk(chunk, rewrite);
+                    chunk.clear();
+                }
+            }
+        }
+
+        // Projections written from now on are indexed by the repository itself
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.stringCommands().set(
+                    RedisProjectionRepository.INDEX_COMPLETE_KEY.getBytes(StandardCharsets.UTF_8),
+                    Instant.now().toString().getBytes(StandardCharsets.US_ASCII));
+            return null;
+        });
+        return new MigrationResult(scanned, rewritten);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long migrateChunk(List<String> keys, boolean rewrite) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(keys.stream()
+                        .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                        .toArray(byte[][]::new)));
+
+        List<String> scriptKeys = new ArrayList<>(keys.size() + 1);
+        List<byte[]> args = new ArrayList<>(keys.size() * 3);
+        scriptKeys.add(RedisProjectionRepository.INDEX_KEY);
+        for (int i = 0; i < keys.size(); i++) {
+            String deviceId = keys.get(i).substring(RedisProjectionRepository.KEY_PREFIX.length());
+            byte[] value = values == null ? null : values.get(i);
+            if (value == null || !isDeviceId(deviceId)) {
+                // Deleted since the scan returned it, or not a projection key
+                continue;
+            }
+
+            byte[] current = rewrite ? serializer.serialize(serializer.deserialize(value)) : value;
+            boolean stale = !Arrays.equals(value, current);
+            scriptKeys.add(keys.get(i));
+            args.add(stale ? value : UNCHANGED);
+            args.add(stale ? current : UNCHANGED);
+            args.add(deviceId.getBytes(StandardCharsets.US_ASCII));
+        }
+        if (scriptKeys.size() == 1) {
+            return 0;
+        }
+
+        Long rewritten = redisTemplate.execute(
+                MIGRATE_PROJECTIONS,
+                RedisSerializer.byteArray(),
+                new GenericToStringSerializer<>(Long.class),
+                scriptKeys,
+                args.toArray()
+        );
+        return rewritten == null ? 0 : rewritten;
+    }
+
+    private static boolean isDeviceId(String candidate) {
+        try {
+            Long.parseLong(candidate);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public record MigrationResult(long scanned, long rewritten) {}
+}
@@ -2,13 +2,18 @@ package com.ifco.telemetry.repository;
 
 import com.ifco.telemetry.projection.DeviceProjection;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Abstraction for device projection storage.
  *
  * TDD Approach:
- * - Iteration 1: Implemented with in-memory Map (InMemoryProjectionRepository)
+ * - Iteration 1: Implemented in memory (InMemoryProjectionRepository, still used
+ *   for single-node deployments and benchmarks)
  * - Iteration 4: Swap to Redis implementation (tests remain unchanged)
  *
  * This interface decouples tests from infrastructure, allowing us to follow
@@ -18,9 +23,41 @@ public interface ProjectionRepository {
 
     Optional<DeviceProjection> findById(Long deviceId);
 
+    /**
+     * Reads the projections of the given devices in as few round trips as possible.
+     *
+     * @return the projections found, in the order of the first occurrence of their
+     *         deviceId; devices without a projection are left out
+     */
+    List<DeviceProjection> findAllById(Collection<Long> deviceIds);
+
     void save(DeviceProjection projection);
 
+    /**
+     * Stores the reading as the device's projection unless the stored one is newer.
+     * Check and write happen atomically; a reading with the same timestamp overwrites
+     * (last processed wins).
+     *
+     * @return true if the projection was written, false if the reading was older
+     */
+    boolean upsertIfNewer(Long deviceId, Double measurement, Instant timestamp);
+
+    /**
+     * Bulk variant of {@link #upsertIfNewer}: each projection is written unless the
+     * stored one for its device is newer. Expects at most one projection per device.
+     *
+     * @return number of projections written
+     */
+    int upsertAllIfNewer(Collection<DeviceProjection> projections);
+
     Iterable<DeviceProjection> findAll();
 
+    /**
+     * Lazily iterates all projections. Implementations read from storage in pages as
+     * the stream is consumed, so memory stays bounded by one page regardless of fleet size.
+     * Each device is returned at most once; devices added during iteration may be missed.
+     */
+    Stream<DeviceProjection> streamAll();
+
     void deleteAll();
 }
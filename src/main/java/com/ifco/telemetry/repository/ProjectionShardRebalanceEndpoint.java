@@ -0,0 +1,31 @@
+package com.ifco.telemetry.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Actuator endpoint for ProjectionShardRebalancer, registered by ShardedProjectionConfig.
+ *
+ * GET /actuator/projectionrebalance reports progress of the running (or last) rebalance,
+ * POST /actuator/projectionrebalance starts one.
+ *
+ * @RequiredArgsConstructor - Generates constructor for final fields (dependency injection)
+ */
+@Endpoint(id = "projectionrebalance")
+@RequiredArgsConstructor
+public class ProjectionShardRebalanceEndpoint {
+
+    private final ProjectionShardRebalancer rebalancer;
+
+    @ReadOperation
+    public ProjectionShardRebalancer.Progress progress() {
+        return rebalancer.progress();
+    }
+
+    @WriteOperation
+    public ProjectionShardRebalancer.Progress start() {
+        return rebalancer.start();
+    }
+}
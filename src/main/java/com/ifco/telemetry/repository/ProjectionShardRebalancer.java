@@ -0,0 +1,96 @@
+package com.ifco.telemetry.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs ShardedProjectionRepository.rebalance in the background after a change of
+ * telemetry.projection.sharding.nodes, one run at a time per instance. Progress is
+ * available from {@link #progress()} (actuator endpoint projectionrebalance).
+ *
+ * Only useful while telemetry.projection.sharding.previous-nodes is set on every pod:
+ * until then, pods routing with the old ring may keep writing to the old shards.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Slf4j
+public class ProjectionShardRebalancer {
+
+    private final ShardedProjectionRepository repository;
+
+    private final AtomicReference<Progress> lastRun = new AtomicReference<>(Progress.idle());
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong moved = new AtomicLong();
+
+    public ProjectionShardRebalancer(ShardedProjectionRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Starts a rebalance in the background unless one is already running.
+     *
+     * @return progress of the started, or already running, rebalance
+     */
+    public Progress start() {
+        Progress current = lastRun.get();
+        if (current.state() == State.RUNNING) {
+            return progress();
+        }
+        Progress started = new Progress(State.RUNNING, 0, 0, Instant.now(), null, null);
+        if (!lastRun.compareAndSet(current, started)) {
+            return progress();
+        }
+
+        scanned.set(0);
+        moved.set(0);
+        Thread.ofPlatform().name("projection-rebalance").start(this::run);
+        return progress();
+    }
+
+    public Progress progress() {
+        Progress run = lastRun.get();
+        if (run.state() != State.RUNNING) {
+            return run;
+        }
+        return new Progress(State.RUNNING, scanned.get(), moved.get(), run.startedAt(), null, null);
+    }
+
+    private void run() {
+        log.info("Projection shard rebalance started");
+        try {
+            repository.rebalance(scanned, moved);
+            finish(State.COMPLETED, null);
+            log.info("Projection shard rebalance finished: scanned={}, moved={}", scanned.get(), moved.get());
+        } catch (RuntimeException e) {
+            finish(State.FAILED, e.toString());
+            log.error("Projection shard rebalance failed", e);
+        }
+    }
+
+    private void finish(State state, String error) {
+        lastRun.set(new Progress(state, scanned.get(), moved.get(), lastRun.get().startedAt(), Instant.now(), error));
+    }
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * @param scanned projections read from all shards
+     * @param moved   projections moved to the shard that now owns them
+     */
+    public record Progress(
+        State state,
+        long scanned,
+        long moved,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+    ) {
+
+        static Progress idle() {
+            return new Progress(State.IDLE, 0, 0, null, null, null);
+        }
+    }
+}
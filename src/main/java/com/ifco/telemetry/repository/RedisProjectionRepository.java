@@ -1,33 +1,131 @@
 package com.ifco.telemetry.repository;
 
 import com.ifco.telemetry.projection.DeviceProjection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Redis-backed implementation of ProjectionRepository.
  *
- * Stores DeviceProjection as JSON in Redis with key pattern: device:projection:{deviceId}
+ * Stores DeviceProjection in Redis with key pattern: device:projection:{deviceId}
  *
  * Uses RedisTemplate configured with:
  * - String key serialization
- * - JSON value serialization (Jackson with JavaTimeModule for Instant support)
+ * - DeviceProjectionRedisSerializer values: the versioned 29-byte binary format by
+ *   default; legacy Jackson JSON is still read, and written instead while
+ *   telemetry.projection.redis-format=json (rolling upgrades)
+ *
+ * The Lua scripts decode the stored timestamp from either format, so a legacy JSON
+ * value is compared and replaced like a binary one.
+ *
+ * Conditional updates (upsertIfNewer) run as a Lua script (scripts/upsert-if-newer.lua)
+ * so the timestamp check and the write take a single round trip and cannot interleave
+ * with concurrent listener threads. Bulk updates use the multi-key variant
+ * (scripts/upsert-all-if-newer.lua), one call per chunk of WRITE_CHUNK_SIZE devices.
+ *
+ * Device index: every write also adds the deviceId to a sorted set (device:projection-index,
+ * all scores 0). Fleet-wide reads page through it with ZRANGEBYLEX using the last
+ * member seen as an exclusive cursor, then fetch each page of projections with one MGET.
+ * Each call is O(log n + page) and never blocks Redis the way KEYS does; pages stay
+ * stable under concurrent inserts (no duplicates, existing devices never skipped).
+ * Projections written before the index existed are added by ProjectionFormatMigrator,
+ * which then sets INDEX_COMPLETE_KEY.
+ *
+ * Near-cache invalidation: when telemetry.projection.near-cache.enabled is set, every
+ * write publishes the affected deviceIds on INVALIDATION_CHANNEL as
+ * "<instanceId>:<comma-separated ids>" ("<instanceId>:*" after deleteAll) so
+ * CachingProjectionRepository instances in the other pods evict them; the writing pod
+ * recognizes its own instanceId and keeps the entries it just cached.
+ * The scripts publish only for projections they actually wrote.
+ *
+ * Lookups of many devices (findAllById) send one MGET per READ_CHUNK_SIZE devices,
+ * all pipelined, so any number of devices costs a single round trip.
+ *
+ * Not created when projections are kept in memory (telemetry.projection.store=memory).
  *
  * Hexagonal Architecture: ProjectionRepository is a port (interface),
  * this class is an adapter that connects to Redis (external infrastructure).
  */
 @Repository
+@ConditionalOnProperty(name = "telemetry.projection.store", havingValue = "redis", matchIfMissing = true)
 public class RedisProjectionRepository implements ProjectionRepository {
 
-    private static final String KEY_PREFIX = "device:projection:";
+    static final String KEY_PREFIX = "device:projection:";
+    static final String INDEX_KEY = "device:projection-index";
+    // Set once every stored projection is known to be in the index
+    static final String INDEX_COMPLETE_KEY = "device:projection-index-complete";
+    public static final String INVALIDATION_CHANNEL = "device:projection-invalidations";
+    public static final String INVALIDATE_ALL = "*";
+    private static final byte[] KEY_PREFIX_BYTES = KEY_PREFIX.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INDEX_KEY_BYTES = INDEX_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INVALIDATION_CHANNEL_BYTES = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NO_CHANNEL = new byte[0];
+    private static final RedisScript<Long> UPSERT_IF_NEWER = RedisScript.of(
+            new ClassPathResource("scripts/upsert-if-newer.lua"), Long.class);
+    private static final RedisScript<Long> UPSERT_ALL_IF_NEWER = RedisScript.of(
+            new ClassPathResource("scripts/upsert-all-if-newer.lua"), Long.class);
+    private static final RedisScript<Long> DELETE_MOVED = RedisScript.of(
+            new ClassPathResource("scripts/delete-moved-projections.lua"), Long.class);
+    // Bounds the time a single script blocks Redis
+    private static final int WRITE_CHUNK_SIZE = 500;
+    // Devices fetched per index page / MGET
+    private static final int READ_CHUNK_SIZE = 1000;
+    private static final RedisSerializer<Long> SCRIPT_RESULT_SERIALIZER =
+            new GenericToStringSerializer<>(Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
+    // Channel passed to the scripts; empty disables publishing
+    private final byte[] invalidationChannel;
+    // Identifies this instance's invalidations, so its own near-cache can skip them
+    private final String instanceId = UUID.randomUUID().toString();
+    private final byte[] invalidationPrefix = (instanceId + ":").getBytes(StandardCharsets.US_ASCII);
 
-    public RedisProjectionRepository(RedisTemplate<String, Object> redisTemplate) {
+    public RedisProjectionRepository(
+            RedisTemplate<String, Object> redisTemplate,
+            @Value("${telemetry.projection.near-cache.enabled:false}") boolean publishInvalidations) {
         this.redisTemplate = redisTemplate;
+        this.invalidationChannel = publishInvalidations ? INVALIDATION_CHANNEL_BYTES : NO_CHANNEL;
+    }
+
+    /**
+     * @return true once every stored projection is known to be in the index
+     *         (set by ProjectionFormatMigrator)
+     */
+    public boolean isIndexComplete() {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(INDEX_COMPLETE_KEY));
+    }
+
+    /**
+     * @return id this instance prefixes its invalidation messages with
+     */
+    public String instanceId() {
+        return instanceId;
     }
 
     @Override
@@ -38,31 +136,278 @@ public class RedisProjectionRepository implements ProjectionRepository {
                 .map(obj -> (DeviceProjection) obj);
     }
 
+    @Override
+    public List<DeviceProjection> findAllById(Collection<Long> deviceIds) {
+        List<Long> ids = deviceIds.stream().distinct().toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < ids.size(); from += READ_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + READ_CHUNK_SIZE, ids.size()));
+                byte[][] keys = new byte[chunk.size()][];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = projectionKey(deviceIdBytes(chunk.get(i)));
+                }
+                connection.stringCommands().mGet(keys);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        List<DeviceProjection> projections = new ArrayList<>(ids.size());
+        for (Object reply : replies) {
+            for (Object value : (List<?>) reply) {
+                // Null for devices without a projection
+                if (value != null) {
+                    projections.add((DeviceProjection) redisTemplate.getValueSerializer().deserialize((byte[]) value));
+                }
+            }
+        }
+        return projections;
+    }
+
     @Override
     public void save(DeviceProjection projection) {
-        String key = KEY_PREFIX + projection.getDeviceId();
-        redisTemplate.opsForValue().set(key, projection);
+        byte[] key = projectionKey(deviceIdBytes(projection.getDeviceId()));
+        byte[] value = serializeValue(projection);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().set(key, value);
+            connection.zSetCommands().zAdd(INDEX_KEY_BYTES, 0, deviceIdBytes(projection.getDeviceId()));
+            if (invalidationChannel.length > 0) {
+                connection.publish(invalidationChannel, invalidationMessage(deviceIdBytes(projection.getDeviceId())));
+            }
+            return null;
+        });
     }
 
     @Override
-    public Iterable<DeviceProjection> findAll() {
-        Set<String> keys = redisTemplate.keys(KEY_PREFIX + "*");
-        if (keys == null || keys.isEmpty()) {
-            return Set.of();
+    public boolean upsertIfNewer(Long deviceId, Double measurement, Instant timestamp) {
+        byte[] value = serializeValue(new DeviceProjection(deviceId, measurement, timestamp));
+        Long written = redisTemplate.execute(
+                UPSERT_IF_NEWER,
+                RedisSerializer.byteArray(),
+                SCRIPT_RESULT_SERIALIZER,
+                List.of(KEY_PREFIX + deviceId, INDEX_KEY),
+                value,
+                Long.toString(timestamp.getEpochSecond()).getBytes(StandardCharsets.US_ASCII),
+                Integer.toString(timestamp.getNano()).getBytes(StandardCharsets.US_ASCII),
+                deviceIdBytes(deviceId),
+                invalidationChannel,
+                invalidationPrefix
+        );
+        return written != null && written == 1L;
+    }
+
+    @Override
+    public int upsertAllIfNewer(Collection<DeviceProjection> projections) {
+        int written = 0;
+        List<String> keys = new ArrayList<>(WRITE_CHUNK_SIZE + 1);
+        List<byte[]> args = new ArrayList<>(WRITE_CHUNK_SIZE * 4 + 2);
+        keys.add(INDEX_KEY);
+        args.add(invalidationChannel);
+        args.add(invalidationPrefix);
+        for (DeviceProjection projection : projections) {
+            keys.add(KEY_PREFIX + projection.getDeviceId());
+            args.add(serializeValue(projection));
+            args.add(Long.toString(projection.getLastUpdated().getEpochSecond()).getBytes(StandardCharsets.US_ASCII));
+            args.add(Integer.toString(projection.getLastUpdated().getNano()).getBytes(StandardCharsets.US_ASCII));
+            args.add(deviceIdBytes(projection.getDeviceId()));
+            if (keys.size() == WRITE_CHUNK_SIZE + 1) {
+                written += upsertChunk(keys, args);
+                keys.subList(1, keys.size()).clear();
+                args.subList(2, args.size()).clear();
+            }
+        }
+        if (keys.size() > 1) {
+            written += upsertChunk(keys, args);
         }
+        return written;
+    }
 
-        return keys.stream()
-                .map(key -> redisTemplate.opsForValue().get(key))
-                .filter(obj -> obj != null)
-                .map(obj -> (DeviceProjection) obj)
-                .collect(Collectors.toSet());
+    private int upsertChunk(List<String> keys, List<byte[]> args) {
+        Long written = redisTemplate.execute(
+                UPSERT_ALL_IF_NEWER,
+                RedisSerializer.byteArray(),
+                SCRIPT_RESULT_SERIALIZER,
+                keys,
+                args.toArray()
+        );
+        return written == null ? 0 : written.intValue();
+    }
+
+    /**
+     * Reads every projection, one index page and one MGET per READ_CHUNK_SIZE devices.
+     */
+    @Override
+    public Iterable<DeviceProjection> findAll() {
+        return streamAll().toList();
     }
 
+    /**
+     * Fetches the next index page only when the previous one has been consumed.
+     * No connection is held between pages, so an abandoned stream needs no cleanup.
+     */
+    @Override
+    public Stream<DeviceProjection> streamAll() {
+        Iterator<DeviceProjection> iterator = new Iterator<>() {
+            private Iterator<DeviceProjection> current = Collections.emptyIterator();
+            private byte[] cursor;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && !exhausted) {
+                    IndexPage page = readIndexPage(cursor);
+                    current = page.projections().iterator();
+                    cursor = page.lastMember();
+                    exhausted = cursor == null;
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public DeviceProjection next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Deletes projections page by page through the index, then the index itself.
+     */
     @Override
     public void deleteAll() {
-        Set<String> keys = redisTemplate.keys(KEY_PREFIX + "*");
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            byte[] cursor = null;
+            do {
+                List<byte[]> members = nextIndexMembers(connection, cursor);
+                if (!members.isEmpty()) {
+                    connection.keyCommands().del(projectionKeys(members));
+                }
+                cursor = members.size() == READ_CHUNK_SIZE ? members.get(members.size() - 1) : null;
+            } while (cursor != null);
+            connection.keyCommands().del(INDEX_KEY_BYTES);
+            if (invalidationChannel.length > 0) {
+                connection.publish(invalidationChannel, invalidationMessage(INVALIDATE_ALL.getBytes(StandardCharsets.US_ASCII)));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Deletes the given projections (and their index members) unless the stored value
+     * is newer than the one read. Used by ShardedProjectionRepository after copying
+     * projections to the shard that now owns them. Compared by lastUpdated, so legacy
+     * JSON values (copied in the current format) are deleted too.
+     *
+     * @return number of projections deleted
+     */
+    int deleteAllIfUnchanged(Collection<DeviceProjection> projections) {
+        int deleted = 0;
+        List<String> keys = new ArrayList<>(WRITE_CHUNK_SIZE + 1);
+        List<byte[]> args = new ArrayList<>(WRITE_CHUNK_SIZE * 3);
+        keys.add(INDEX_KEY);
+        for (DeviceProjection projection : projections) {
+            keys.add(KEY_PREFIX + projection.getDeviceId());
+            args.add(Long.toString(projection.getLastUpdated().getEpochSecond()).getBytes(StandardCharsets.US_ASCII));
+            args.add(Integer.toString(projection.getLastUpdated().getNano()).getBytes(StandardCharsets.US_ASCII));
+            args.add(deviceIdBytes(projection.getDeviceId()));
+            if (keys.size() == WRITE_CHUNK_SIZE + 1) {
+                deleted += deleteChunk(keys, args);
+                keys.subList(1, keys.size()).clear();
+                args.clear();
+            }
         }
+        if (keys.size() > 1) {
+            deleted += deleteChunk(keys, args);
+        }
+        return deleted;
+    }
+
+    private int deleteChunk(List<String> keys, List<byte[]> args) {
+        Long deleted = redisTemplate.execute(
+                DELETE_MOVED,
+                RedisSerializer.byteArray(),
+                SCRIPT_RESULT_SERIALIZER,
+                keys,
+                args.toArray()
+        );
+        return deleted == null ? 0 : deleted.intValue();
     }
+
+    /**
+     * Reads the page of projections following the given index member (exclusive).
+     * The returned lastMember is null once the index is exhausted.
+     */
+    IndexPage readIndexPage(byte[] afterMember) {
+        return redisTemplate.execute((RedisCallback<IndexPage>) connection -> {
+            List<byte[]> members = nextIndexMembers(connection, afterMember);
+            if (members.isEmpty()) {
+                return new IndexPage(List.of(), null);
+            }
+
+            List<byte[]> values = connection.stringCommands().mGet(projectionKeys(members));
+            List<DeviceProjection> projections = new ArrayList<>(members.size());
+            if (values != null) {
+                for (byte[] value : values) {
+                    // Null when the projection was deleted after the index page was read
+                    if (value != null) {
+                        projections.add((DeviceProjection) redisTemplate.getValueSerializer().deserialize(value));
+                    }
+                }
+            }
+            byte[] lastMember = members.size() == READ_CHUNK_SIZE ? members.get(members.size() - 1) : null;
+            return new IndexPage(projections, lastMember);
+        });
+    }
+
+    private static List<byte[]> nextIndexMembers(RedisConnection connection, byte[] afterMember) {
+        Range<byte[]> range = afterMember == null
+                ? Range.unbounded()
+                : Range.rightUnbounded(Range.Bound.exclusive(afterMember));
+        Set<byte[]> members = connection.zSetCommands()
+                .zRangeByLex(INDEX_KEY_BYTES, range, Limit.limit().count(READ_CHUNK_SIZE));
+        return members == null ? List.of() : new ArrayList<>(members);
+    }
+
+    private static byte[][] projectionKeys(List<byte[]> members) {
+        byte[][] keys = new byte[members.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = projectionKey(members.get(i));
+        }
+        return keys;
+    }
+
+    private static byte[] projectionKey(byte[] member) {
+        byte[] key = new byte[KEY_PREFIX_BYTES.length + member.length];
+        System.arraycopy(KEY_PREFIX_BYTES, 0, key, 0, KEY_PREFIX_BYTES.length);
+        System.arraycopy(member, 0, key, KEY_PREFIX_BYTES.length, member.length);
+        return key;
+    }
+
+    private byte[] invalidationMessage(byte[] payload) {
+        byte[] message = new byte[invalidationPrefix.length + payload.length];
+        System.arraycopy(invalidationPrefix, 0, message, 0, invalidationPrefix.length);
+        System.arraycopy(payload, 0, message, invalidationPrefix.length, payload.length);
+        return message;
+    }
+
+    private static byte[] deviceIdBytes(Long deviceId) {
+        return Long.toString(deviceId).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(DeviceProjection projection) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(projection);
+    }
+
+    record IndexPage(List<DeviceProjection> projections, byte[] lastMember) {}
 }
@@ -0,0 +1,383 @@
+package com.ifco.telemetry.repository;
+
+import com.ifco.telemetry.projection.DeviceProjection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ProjectionRepository spreading devices over several independent Redis nodes
+ * (telemetry.projection.sharding.nodes), each accessed through its own
+ * RedisProjectionRepository with the usual keys, index and Lua scripts.
+ *
+ * Routing: a ConsistentHashRing over the node names picks the shard of each device.
+ * Single-device operations go to that shard only; bulk operations (findAllById,
+ * upsertAllIfNewer, deleteAll) are split by shard and run on all of them in parallel.
+ *
+ * Fleet reads: streamAll keeps one index page fetch in flight per shard and hands out
+ * whichever page completes first, prefetching that shard's next page meanwhile. Memory
+ * stays bounded by one page per shard; the order of devices is unspecified.
+ *
+ * Rebalancing: after a node change, previousNodes is the ring as it was before. Until
+ * {@link #rebalance} has moved every device to its new shard:
+ * - writes go to the new owner; the newer-than check there cannot see a newer copy
+ *   still on the old owner, but reads below resolve that
+ * - reads of a device whose owner changed look at both shards and return the newer copy
+ * - streamAll does the same per page for moving devices and remembers their ids, so each
+ *   device is still returned once (the set holds only devices whose owner changed)
+ * Once rebalanced, drop previous-nodes again; copies left on a shard that does not own
+ * the device are ignored by every read.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Slf4j
+public class ShardedProjectionRepository implements ProjectionRepository, AutoCloseable {
+
+    private final Map<String, RedisProjectionRepository> shards;
+    private final ConsistentHashRing ring;
+    // Ring before the last node change while devices are being moved; null otherwise
+    private final ConsistentHashRing previousRing;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param shards        repository of every node in nodes and previousNodes, by name
+     * @param nodes         names of the nodes that own devices
+     * @param previousNodes names of the nodes before the last change, or empty
+     */
+    public ShardedProjectionRepository(
+        Map<String, RedisProjectionRepository> shards,
+        Collection<String> nodes,
+        Collection<String> previousNodes
+    ) {
+        this.ring = new ConsistentHashRing(nodes);
+        this.previousRing = previousNodes.isEmpty() || Set.copyOf(previousNodes).equals(ring.nodes())
+            ? null
+            : new ConsistentHashRing(previousNodes);
+
+        Set<String> required = new LinkedHashSet<>(nodes);
+        required.addAll(previousNodes);
+        for (String node : required) {
+            if (!shards.containsKey(node)) {
+                throw new IllegalArgumentException("No Redis repository for projection shard " + node);
+            }
+        }
+        Map<String, RedisProjectionRepository> used = new LinkedHashMap<>();
+        required.forEach(node -> used.put(node, shards.get(node)));
+        this.shards = Collections.unmodifiableMap(used);
+    }
+
+    /**
+     * @return true while a previous ring is configured, i.e. devices may still live on
+     *         the shard that owned them before the last node change
+     */
+    public boolean isRebalancing() {
+        return previousRing != null;
+    }
+
+    @Override
+    public Optional<DeviceProjection> findById(Long deviceId) {
+        Optional<DeviceProjection> current = shard(ring.owner(deviceId)).findById(deviceId);
+        String previous = previousOwner(deviceId);
+        if (previous == null) {
+            return current;
+        }
+        Optional<DeviceProjection> old = shard(previous).findById(deviceId);
+        if (current.isEmpty()) {
+            return old;
+        }
+        return old.map(projection -> newer(current.get(), projection)).or(() -> current);
+    }
+
+    @Override
+    public List<DeviceProjection> findAllById(Collection<Long> deviceIds) {
+        List<Long> ids = deviceIds.stream().distinct().toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, List<Long>> idsByShard = new HashMap<>();
+        for (Long deviceId : ids) {
+            idsByShard.computeIfAbsent(ring.owner(deviceId), node -> new ArrayList<>()).add(deviceId);
+            String previous = previousOwner(deviceId);
+            if (previous != null) {
+                idsByShard.computeIfAbsent(previous, node -> new ArrayList<>()).add(deviceId);
+            }
+        }
+
+        Map<Long, DeviceProjection> found = new HashMap<>(ids.size() * 2);
+        for (List<DeviceProjection> part : inParallel(idsByShard, RedisProjectionRepository::findAllById)) {
+            for (DeviceProjection projection : part) {
+                found.merge(projection.getDeviceId(), projection, ShardedProjectionRepository::newer);
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public void save(DeviceProjection projection) {
+        shard(ring.owner(projection.getDeviceId())).save(projection);
+    }
+
+    @Override
+    public boolean upsertIfNewer(Long deviceId, Double measurement, Instant timestamp) {
+        return shard(ring.owner(deviceId)).upsertIfNewer(deviceId, measurement, timestamp);
+    }
+
+    @Override
+    public int upsertAllIfNewer(Collection<DeviceProjection> projections) {
+        Map<String, List<DeviceProjection>> byShard = new HashMap<>();
+        for (DeviceProjection projection : projections) {
+            byShard.computeIfAbsent(ring.owner(projection.getDeviceId()), node -> new ArrayList<>()).add(projection);
+        }
+        int written = 0;
+        for (int shardWritten : inParallel(byShard, RedisProjectionRepository::upsertAllIfNewer)) {
+            written += shardWritten;
+        }
+        return written;
+    }
+
+    @Override
+    public Iterable<DeviceProjection> findAll() {
+        return streamAll().toList();
+    }
+
+    /**
+     * Merges the shards' index pages as they arrive. The first pages are requested when
+     * the stream is first advanced; an abandoned stream leaves at most one page fetch
+     * per shard running, which completes on its own.
+     */
+    @Override
+    public Stream<DeviceProjection> streamAll() {
+        Set<Long> movedEmitted = previousRing == null ? null : ConcurrentHashMap.newKeySet();
+        Iterator<DeviceProjection> iterator = new Iterator<>() {
+            private final Map<String, CompletableFuture<ShardPage>> inFlight = new HashMap<>();
+            private Iterator<DeviceProjection> current = Collections.emptyIterator();
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                if (!started) {
+                    started = true;
+                    shards.keySet().forEach(node -> inFlight.put(node, fetchPage(node, null, movedEmitted)));
+                }
+                while (!current.hasNext() && !inFlight.isEmpty()) {
+                    ShardPage page = (ShardPage) await(
+                        CompletableFuture.anyOf(inFlight.values().toArray(CompletableFuture[]::new))
+                    );
+                    if (page.cursor() == null) {
+                        inFlight.remove(page.node());
+                    } else {
+                        inFlight.put(page.node(), fetchPage(page.node(), page.cursor(), movedEmitted));
+                    }
+                    current = page.projections().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public DeviceProjection next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    @Override
+    public void deleteAll() {
+        Map<String, String> all = new HashMap<>();
+        shards.keySet().forEach(node -> all.put(node, node));
+        inParallel(all, (shard, node) -> {
+            shard.deleteAll();
+            return node;
+        });
+    }
+
+    /**
+     * Moves every projection stored on a shard other than its owner in the current ring,
+     * scanning all shards in parallel. A projection is copied with upsertAllIfNewer and
+     * then deleted from its old shard unless it was written there again in the meantime;
+     * run again until nothing is moved. Shards are read through their index, so this
+     * refuses to run until every shard has completed an index backfill.
+     *
+     * @param scanned incremented by the projections read
+     * @param moved   incremented by the projections deleted from their old shard
+     */
+    public void rebalance(AtomicLong scanned, AtomicLong moved) {
+        // Rebalancing walks each shard's index, so unindexed devices would silently stay behind
+        List<String> unindexed = shards.entrySet().stream()
+            .filter(shard -> !shard.getValue().isIndexComplete())
+            .map(Map.Entry::getKey)
+            .toList();
+        if (!unindexed.isEmpty()) {
+            throw new IllegalStateException(
+                "Projection shards " + unindexed + " have not completed an index backfill"
+                    + " (telemetry.projection.index-backfill-on-startup); refusing to rebalance"
+            );
+        }
+        Map<String, String> all = new HashMap<>();
+        shards.keySet().forEach(node -> all.put(node, node));
+        inParallel(all, (shard, node) -> {
+            rebalanceShard(node, shard, scanned, moved);
+            return node;
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void rebalanceShard(String node, RedisProjectionRepository source, AtomicLong scanned, AtomicLong moved) {
+        byte[] cursor = null;
+        long movedFromShard = 0;
+        do {
+            RedisProjectionRepository.IndexPage page = source.readIndexPage(cursor);
+            Map<String, List<DeviceProjection>> misplaced = new HashMap<>();
+            for (DeviceProjection projection : page.projections()) {
+                String owner = ring.owner(projection.getDeviceId());
+                if (!owner.equals(node)) {
+                    misplaced.computeIfAbsent(owner, target -> new ArrayList<>()).add(projection);
+                }
+            }
+            for (Map.Entry<String, List<DeviceProjection>> entry : misplaced.entrySet()) {
+                shard(entry.getKey()).upsertAllIfNewer(entry.getValue());
+                int deleted = source.deleteAllIfUnchanged(entry.getValue());
+                movedFromShard += deleted;
+                moved.addAndGet(deleted);
+            }
+            scanned.addAndGet(page.projections().size());
+            cursor = page.lastMember();
+        } while (cursor != null);
+        log.info("Projection shard {} rebalanced: moved={}", node, movedFromShard);
+    }
+
+    private CompletableFuture<ShardPage> fetchPage(String node, byte[] cursor, Set<Long> movedEmitted) {
+        return CompletableFuture.supplyAsync(() -> {
+            RedisProjectionRepository.IndexPage page = shard(node).readIndexPage(cursor);
+            return new ShardPage(node, ownedProjections(node, page.projections(), movedEmitted), page.lastMember());
+        }, executor);
+    }
+
+    /**
+     * Filters a shard's page down to the projections this shard should report: the ones
+     * it owns and, while rebalancing, the newer copy of devices moving to or from it that
+     * no other page has reported yet.
+     */
+    private List<DeviceProjection> ownedProjections(String node, List<DeviceProjection> page, Set<Long> movedEmitted) {
+        List<DeviceProjection> owned = new ArrayList<>(page.size());
+        Map<Long, DeviceProjection> moving = new HashMap<>();
+        Map<String, List<Long>> counterparts = new HashMap<>();
+        for (DeviceProjection projection : page) {
+            Long deviceId = projection.getDeviceId();
+            String owner = ring.owner(deviceId);
+            String previous = previousOwner(deviceId);
+            if (previous == null) {
+                // Leftover copies on other shards are ignored
+                if (owner.equals(node)) {
+                    owned.add(projection);
+                }
+            } else if (owner.equals(node) || previous.equals(node)) {
+                moving.put(deviceId, projection);
+                counterparts.computeIfAbsent(owner.equals(node) ? previous : owner, other -> new ArrayList<>())
+                    .add(deviceId);
+            }
+        }
+        if (moving.isEmpty()) {
+            return owned;
+        }
+
+        for (List<DeviceProjection> copies : inParallel(counterparts, RedisProjectionRepository::findAllById)) {
+            for (DeviceProjection copy : copies) {
+                moving.merge(copy.getDeviceId(), copy, ShardedProjectionRepository::newer);
+            }
+        }
+        for (DeviceProjection projection : moving.values()) {
+            if (movedEmitted.add(projection.getDeviceId())) {
+                owned.add(projection);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * @return the owner of the device in the previous ring if it differs from the
+     *         current owner, null otherwise
+     */
+    private String previousOwner(long deviceId) {
+        if (previousRing == null) {
+            return null;
+        }
+        String previous = previousRing.owner(deviceId);
+        return previous.equals(ring.owner(deviceId)) ? null : previous;
+    }
+
+    private RedisProjectionRepository shard(String node) {
+        return shards.get(node);
+    }
+
+    /**
+     * Runs the task for every shard in the map, in parallel when there is more than one.
+     */
+    private <T, R> List<R> inParallel(Map<String, T> work, BiFunction<RedisProjectionRepository, T, R> task) {
+        if (work.size() == 1) {
+            Map.Entry<String, T> only = work.entrySet().iterator().next();
+            return List.of(task.apply(shard(only.getKey()), only.getValue()));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(work.size());
+        work.forEach((node, input) -> futures.add(
+            CompletableFuture.supplyAsync(() -> task.apply(shard(node), input), executor)
+        ));
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <R> R await(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static DeviceProjection newer(DeviceProjection a, DeviceProjection b) {
+        return b.getLastUpdated().isAfter(a.getLastUpdated()) ? b : a;
+    }
+
+    private record ShardPage(String node, List<DeviceProjection> projections, byte[] cursor) {}
+}
@@ -0,0 +1,294 @@
+package com.ifco.telemetry.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the range partitions of the telemetry table (see V4 migration).
+ *
+ * On startup and then on telemetry.partitioning.cron it creates the partitions for the
+ * current and the next premake periods, so inserts always find their partition and the
+ * default partition stays empty in steady state. This only ever touches empty tables.
+ * Before attaching a future period, a validated CHECK constraint that excludes its range
+ * is put on telemetry_default, so ATTACH does not scan the default partition while it
+ * holds its exclusive lock.
+ *
+ * Rows from before partitioning live in the telemetry_legacy partition (see V4) and are
+ * left alone. Rows that still land in telemetry_default (backfills, late readings) are
+ * moved by a separate job on telemetry.partitioning.backfill.cron,
+ * never at startup. Each run moves at most max-periods-per-run periods, oldest first,
+ * each in its own transaction, so a large default partition is drained over several
+ * runs instead of blocking a deployment. Only days from max-age-days ago up to the end
+ * of the premade periods get a partition; rows outside that window (e.g. a device clock
+ * reset to 1970) stay in the default partition and are reported, rather than creating
+ * one partition per bogus day.
+ *
+ * Partitions are daily (telemetry_dYYYYMMDD) or weekly starting Monday
+ * (telemetry_wYYYYMMDD), per telemetry.partitioning.interval. Timestamps are UTC.
+ * Changing the interval only affects periods without a partition yet; a period that
+ * would overlap an existing partition fails to attach and is logged.
+ *
+ * Each partition is created in its own transaction under an advisory lock, so several
+ * pods can run the manager concurrently.
+ *
+ * @Slf4j - Provides 'log' field for logging
+ */
+@Component
+@Slf4j
+public class TelemetryPartitionManager implements ApplicationRunner {
+
+    static final String DEFAULT_PARTITION = "telemetry_default";
+    // Arbitrary application-wide key for pg_advisory_xact_lock
+    private static final long PARTITION_LOCK_KEY = 0x54454c454d455452L;
+    private static final DateTimeFormatter NAME_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    // Only the first few out-of-window days are named in the warning
+    private static final int REPORTED_DAYS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean weekly;
+    private final int premake;
+    private final int maxPeriodsPerRun;
+    private final int maxAgeDays;
+
+    public TelemetryPartitionManager(
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        @Value("${telemetry.partitioning.interval:daily}") String interval,
+        @Value("${telemetry.partitioning.premake:7}") int premake,
+        @Value("${telemetry.partitioning.backfill.max-periods-per-run:4}") int maxPeriodsPerRun,
+        @Value("${telemetry.partitioning.backfill.max-age-days:400}") int maxAgeDays
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.weekly = isWeekly(interval);
+        this.premake = premake;
+        this.maxPeriodsPerRun = maxPeriodsPerRun;
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        maintain();
+    }
+
+    @Scheduled(cron = "${telemetry.partitioning.cron:0 5 * * * *}")
+    public void scheduledMaintain() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${telemetry.partitioning.backfill.cron:0 35 * * * *}")
+    public void scheduledBackfill() {
+        backfillDefaultPartition();
+    }
+
+    /**
+     * Creates the partitions of the current and the next premake periods.
+     *
+     * @return number of partitions created
+     */
+    public int maintain() {
+        Set<LocalDate> periods = new LinkedHashSet<>();
+        LocalDate current = periodStart(LocalDate.now(ZoneOffset.UTC));
+        for (int i = 0; i <= premake; i++) {
+            periods.add(current);
+            current = nextPeriod(current);
+        }
+        int created = createPartitions(periods);
+        if (created > 0) {
+            log.info("Created {} telemetry partitions", created);
+        }
+        return created;
+    }
+
+    /**
+     * Moves rows out of the default partition into partitions of their own, for at most
+     * max-periods-per-run periods inside the accepted window.
+     *
+     * @return number of partitions created
+     */
+    public int backfillDefaultPartition() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate oldest = periodStart(today.minusDays(maxAgeDays));
+        LocalDate end = periodStart(today);
+        for (int i = 0; i <= premake; i++) {
+            end = nextPeriod(end);
+        }
+
+        Set<LocalDate> periods = new TreeSet<>();
+        List<LocalDate> outside = new ArrayList<>();
+        for (LocalDate day : jdbcTemplate.queryForList(
+            "SELECT DISTINCT CAST(date_trunc('day', timestamp) AS date) AS day FROM " + DEFAULT_PARTITION
+                + " ORDER BY day",
+            LocalDate.class
+        )) {
+            if (day.isBefore(oldest) || !day.isBefore(end)) {
+                outside.add(day);
+            } else {
+                periods.add(periodStart(day));
+            }
+        }
+        if (!outside.isEmpty()) {
+            log.warn(
+                "{} days in {} are outside the partitioned window [{}, {}) and stay there: {}",
+                outside.size(), DEFAULT_PARTITION, oldest, end,
+                outside.subList(0, Math.min(outside.size(), REPORTED_DAYS))
+            );
+        }
+
+        int created = createPartitions(periods.stream().limit(maxPeriodsPerRun).toList());
+        if (created > 0) {
+            log.info("Moved rows of {} periods out of {}, {} periods left", created, DEFAULT_PARTITION,
+                Math.max(0, periods.size() - maxPeriodsPerRun));
+        }
+        return created;
+    }
+
+    private int createPartitions(Collection<LocalDate> periods) {
+        int created = 0;
+        for (LocalDate start : periods) {
+            try {
+                if (createPartition(start)) {
+                    created++;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not create telemetry partition {}", partitionName(start), e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Creates the partition of the period starting at {@code start}, moving matching
+     * rows out of the default partition first (attaching fails while it holds any).
+     * A CHECK constraint matching the range lets ATTACH skip scanning the new partition;
+     * for premade periods, one excluding it from the default partition (see
+     * excludeFromDefault) lets ATTACH skip scanning that one too.
+     *
+     * @return false if the partition already existed
+     */
+    boolean createPartition(LocalDate start) {
+        String name = partitionName(start);
+        if (exists(name)) {
+            return false;
+        }
+
+        String from = "'" + start + " 00:00:00'";
+        String to = "'" + nextPeriod(start) + " 00:00:00'";
+        // Only premade periods: until ATTACH, the default partition rejects rows of the range
+        boolean excluded = start.isAfter(periodStart(LocalDate.now(ZoneOffset.UTC)))
+            && excludeFromDefault(name, from, to);
+        try {
+            return createAndAttach(name, from, to);
+        } finally {
+            if (excluded) {
+                jdbcTemplate.execute(
+                    "ALTER TABLE " + DEFAULT_PARTITION + " DROP CONSTRAINT IF EXISTS " + name + "_excluded"
+                );
+            }
+        }
+    }
+
+    private boolean createAndAttach(String name, String from, String to) {
+        Boolean created = transactionTemplate.execute(status -> {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, PARTITION_LOCK_KEY);
+            if (exists(name)) {
+                return false;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE telemetry INCLUDING DEFAULTS)");
+            jdbcTemplate.execute(
+                "ALTER TABLE " + name + " ADD CONSTRAINT " + name + "_range"
+                    + " CHECK (timestamp >= " + from + " AND timestamp < " + to + ")"
+            );
+            int moved = jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp >= " + from + " AND timestamp < " + to + " RETURNING *) "
+                    + "INSERT INTO " + name + " SELECT * FROM moved"
+            );
+            jdbcTemplate.execute(
+                "ALTER TABLE telemetry ATTACH PARTITION " + name + " FOR VALUES FROM (" + from + ") TO (" + to + ")"
+            );
+            // Redundant with the partition bound once attached
+            jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT " + name + "_range");
+            log.debug("Created telemetry partition {} with {} rows from the default partition", name, moved);
+            return true;
+        });
+        return Boolean.TRUE.equals(created);
+    }
+
+    /**
+     * Adds a CHECK constraint to the default partition that rules out the given range.
+     * It is added NOT VALID (no scan) and validated separately, which scans without
+     * blocking inserts; ATTACH then relies on it instead of scanning.
+     *
+     * @return false if the constraint could not be put in place (another pod is creating
+     *         the partition, or the default partition holds rows of the range)
+     */
+    private boolean excludeFromDefault(String name, String from, String to) {
+        String constraint = name + "_excluded";
+        try {
+            jdbcTemplate.execute(
+                "ALTER TABLE " + DEFAULT_PARTITION + " ADD CONSTRAINT " + constraint
+                    + " CHECK (timestamp < " + from + " OR timestamp >= " + to + ") NOT VALID"
+            );
+        } catch (DataAccessException e) {
+            log.debug("Could not add {} to {}", constraint, DEFAULT_PARTITION, e);
+            return false;
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " VALIDATE CONSTRAINT " + constraint);
+            return true;
+        } catch (DataAccessException e) {
+            // Rows of the period reached the default partition; they are moved before ATTACH
+            jdbcTemplate.execute("ALTER TABLE " + DEFAULT_PARTITION + " DROP CONSTRAINT IF EXISTS " + constraint);
+            return false;
+        }
+    }
+
+    String partitionName(LocalDate start) {
+        return (weekly ? "telemetry_w" : "telemetry_d") + start.format(NAME_DATE);
+    }
+
+    private boolean exists(String name) {
+        return Boolean.TRUE.equals(
+            jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)
+        );
+    }
+
+    private LocalDate periodStart(LocalDate day) {
+        return weekly ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+
+    private LocalDate nextPeriod(LocalDate start) {
+        return weekly ? start.plusWeeks(1) : start.plusDays(1);
+    }
+
+    private static boolean isWeekly(String interval) {
+        return switch (interval) {
+            case "daily" -> false;
+            case "weekly" -> true;
+            default -> throw new IllegalArgumentException(
+                "telemetry.partitioning.interval must be 'daily' or 'weekly', was: " + interval
+            );
+        };
+    }
+}
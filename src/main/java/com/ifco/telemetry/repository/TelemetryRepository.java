@@ -1,9 +1,45 @@
 package com.ifco.telemetry.repository;
 
 import com.ifco.telemetry.domain.Telemetry;
+import com.ifco.telemetry.domain.TelemetryReading;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.stream.Stream;
+
 @Repository
 public interface TelemetryRepository extends JpaRepository<Telemetry, Long> {
+
+    /**
+     * One keyset page of a device's readings in [from, to), oldest first, starting
+     * after the (afterTimestamp, afterId) position of the previous page.
+     *
+     * The key of idx_telemetry_device_history is (device_id, timestamp, id) with the
+     * temperature included, so a page is an index-only range scan, whatever its
+     * depth in the history (no OFFSET). Must be consumed inside a transaction: rows
+     * are fetched from a server-side cursor in chunks of the fetch size.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.ifco.telemetry.domain.TelemetryReading(t.id, t.timestamp, t.temperature)
+        FROM Telemetry t
+        WHERE t.deviceId = :deviceId
+          AND t.timestamp >= :from AND t.timestamp < :to
+          AND (t.timestamp > :afterTimestamp OR t.id > :afterId)
+        ORDER BY t.timestamp, t.id
+        """)
+    Stream<TelemetryReading> streamHistory(
+        Long deviceId,
+        Instant from,
+        Instant to,
+        Instant afterTimestamp,
+        long afterId,
+        Limit limit
+    );
 }
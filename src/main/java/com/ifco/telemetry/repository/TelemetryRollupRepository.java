@@ -0,0 +1,205 @@
+package com.ifco.telemetry.repository;
+
+import com.ifco.telemetry.domain.RollupResolution;
+import com.ifco.telemetry.domain.TelemetryRollupBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rollup tables (telemetry_rollup_1m/1h/1d) and the Kafka offsets and event ids they
+ * have applied.
+ *
+ * Bucket starts are stored as UTC wall-clock time, so day buckets line up with UTC days.
+ * Writes are meant to run in one transaction per consumed batch: lock the offsets,
+ * mark the event ids applied, add the aggregates, save the new offsets.
+ *
+ * @RequiredArgsConstructor - Generates constructor with final fields for dependency injection
+ */
+@Repository
+@RequiredArgsConstructor
+public class TelemetryRollupRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the offset rows of the given partitions until the transaction ends.
+     *
+     * @return next offset to apply per partition; partitions never applied are absent
+     */
+    public Map<Integer, Long> lockOffsets(String topic, Collection<Integer> partitions) {
+        if (partitions.isEmpty()) {
+            return Map.of();
+        }
+        String placeholders = partitions.stream().map(partition -> "?").collect(Collectors.joining(","));
+        Object[] args = new Object[partitions.size() + 1];
+        args[0] = topic;
+        int index = 1;
+        for (Integer partition : partitions) {
+            args[index++] = partition;
+        }
+        Map<Integer, Long> offsets = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT kafka_partition, next_offset FROM telemetry_rollup_offsets"
+                + " WHERE topic = ? AND kafka_partition IN (" + placeholders + ") FOR UPDATE",
+            rs -> {
+                offsets.put(rs.getInt("kafka_partition"), rs.getLong("next_offset"));
+            },
+            args
+        );
+        return offsets;
+    }
+
+    public void saveOffsets(String topic, Map<Integer, Long> nextOffsets) {
+        List<Object[]> rows = nextOffsets.entrySet()
+            .stream()
+            .map(entry -> new Object[] { topic, entry.getKey(), entry.getValue() })
+            .toList();
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO telemetry_rollup_offsets (topic, kafka_partition, next_offset) VALUES (?, ?, ?)"
+                + " ON CONFLICT (topic, kafka_partition) DO UPDATE"
+                + " SET next_offset = GREATEST(telemetry_rollup_offsets.next_offset, EXCLUDED.next_offset)",
+            rows
+        );
+    }
+
+    /**
+     * Records the event ids as applied. Ids recorded by another transaction that has
+     * not committed yet block until it ends.
+     *
+     * @return the ids that were not applied before; the others are duplicates
+     */
+    public Set<Long> markApplied(Collection<Long> eventIds) {
+        Set<Long> fresh = new HashSet<>();
+        if (eventIds.isEmpty()) {
+            return fresh;
+        }
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO telemetry_rollup_applied_events (event_id) SELECT unnest(?)"
+                        + " ON CONFLICT (event_id) DO NOTHING RETURNING event_id"
+                );
+                statement.setArray(1, connection.createArrayOf("bigint", eventIds.toArray()));
+                return statement;
+            },
+            rs -> {
+                fresh.add(rs.getLong(1));
+            }
+        );
+        return fresh;
+    }
+
+    /**
+     * Forgets applied event ids recorded longer than {@code retention} ago; the relay
+     * cannot resend an event that long after it was first sent.
+     *
+     * @return number of ids removed
+     */
+    public int deleteAppliedEventsOlderThan(Duration retention) {
+        // Compared in the database's clock, which wrote applied_at
+        return jdbcTemplate.update(
+            "DELETE FROM telemetry_rollup_applied_events WHERE applied_at < LOCALTIMESTAMP - ? * INTERVAL '1 second'",
+            retention.toSeconds()
+        );
+    }
+
+    /**
+     * Adds the deltas to their buckets, creating missing buckets. Late readings simply
+     * update older buckets.
+     */
+    public void addAll(RollupResolution resolution, Collection<TelemetryRollupBucket> deltas) {
+        String table = resolution.table();
+        List<Object[]> rows = deltas.stream()
+            .map(delta -> new Object[] {
+                delta.deviceId(),
+                toUtc(delta.start()),
+                delta.count(),
+                delta.sum(),
+                delta.min(),
+                delta.max()
+            })
+            .toList();
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO " + table
+                + " (device_id, bucket_start, sample_count, temperature_sum, temperature_min, temperature_max)"
+                + " VALUES (?, ?, ?, ?, ?, ?)"
+                + " ON CONFLICT (device_id, bucket_start) DO UPDATE SET"
+                + " sample_count = " + table + ".sample_count + EXCLUDED.sample_count,"
+                + " temperature_sum = " + table + ".temperature_sum + EXCLUDED.temperature_sum,"
+                + " temperature_min = LEAST(" + table + ".temperature_min, EXCLUDED.temperature_min),"
+                + " temperature_max = GREATEST(" + table + ".temperature_max, EXCLUDED.temperature_max)",
+            rows
+        );
+    }
+
+    /**
+     * Reads a device's buckets starting in [from, to) from the {@code source} table,
+     * merged into buckets of {@code bucketSize} (a multiple of the source size),
+     * oldest first. Buckets are aligned to {@code from}, so the first one starts there
+     * and holds a full bucket of data rather than the tail of an epoch-aligned one.
+     */
+    public List<TelemetryRollupBucket> findBuckets(
+        RollupResolution source,
+        Long deviceId,
+        Instant from,
+        Instant to,
+        Duration bucketSize
+    ) {
+        return jdbcTemplate.query(
+            "SELECT date_bin(CAST(? AS interval), bucket_start, ?) AS bucket,"
+                + " SUM(sample_count) AS sample_count, SUM(temperature_sum) AS temperature_sum,"
+                + " MIN(temperature_min) AS temperature_min, MAX(temperature_max) AS temperature_max"
+                + " FROM " + source.table()
+                + " WHERE device_id = ? AND bucket_start >= ? AND bucket_start < ?"
+                + " GROUP BY bucket ORDER BY bucket",
+            (rs, rowNum) -> toBucket(deviceId, rs),
+            bucketSize.toSeconds() + " seconds",
+            toUtc(from),
+            deviceId,
+            toUtc(from),
+            toUtc(to)
+        );
+    }
+
+    /**
+     * Empties all rollups, applied offsets and applied event ids (tests and rebuilds).
+     */
+    public void deleteAll() {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            jdbcTemplate.execute("TRUNCATE " + resolution.table());
+        }
+        jdbcTemplate.execute("TRUNCATE telemetry_rollup_offsets");
+        jdbcTemplate.execute("TRUNCATE telemetry_rollup_applied_events");
+    }
+
+    private static TelemetryRollupBucket toBucket(Long deviceId, ResultSet rs) throws SQLException {
+        return new TelemetryRollupBucket(
+            deviceId,
+            rs.getObject("bucket", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+            rs.getLong("sample_count"),
+            rs.getDouble("temperature_sum"),
+            rs.getDouble("temperature_min"),
+            rs.getDouble("temperature_max")
+        );
+    }
+
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,4 @@
+-- Let Hibernate pre-allocate ids in blocks of 50 (pooled optimizer).
+-- IDENTITY generation forces one INSERT round trip per row and disables JDBC batching.
+-- Must match allocationSize on Telemetry.id.
+ALTER SEQUENCE telemetry_id_seq INCREMENT BY 50;
@@ -0,0 +1,14 @@
+-- Transactional outbox: events are written in the same transaction as the telemetry
+-- row and relayed to Kafka (telemetry.events) by OutboxRelay, then deleted.
+-- Rows are short-lived; the table stays small as long as the relay keeps up.
+CREATE SEQUENCE telemetry_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE telemetry_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('telemetry_outbox_id_seq'),
+    device_id BIGINT NOT NULL,
+    temperature DOUBLE PRECISION NOT NULL,
+    timestamp TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+ALTER SEQUENCE telemetry_outbox_id_seq OWNED BY telemetry_outbox.id;
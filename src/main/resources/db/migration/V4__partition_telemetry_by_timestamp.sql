@@ -0,0 +1,65 @@
+-- Range-partition telemetry by reading timestamp.
+-- Partitions (daily or weekly, see telemetry.partitioning) are created ahead of time by
+-- TelemetryPartitionManager. Readings outside every partition land in telemetry_default;
+-- the manager moves them into their own partitions on a later run, so backfills and
+-- late readings are never rejected.
+--
+-- Existing rows are not copied: the old table is attached as telemetry_legacy, the
+-- partition of everything before the start of the current (ISO) week. Only this week's
+-- rows move to the default partition, so it starts small and later ATTACHes have little
+-- to scan. On an empty table there is no legacy partition.
+
+-- Keep the id sequence (and its INCREMENT BY 50) across the table swap
+ALTER SEQUENCE telemetry_id_seq OWNED BY NONE;
+ALTER TABLE telemetry RENAME TO telemetry_legacy;
+-- Index and constraint names are schema-wide; free them for the new table. The device
+-- index matches the partitioned one below, so ATTACH adopts it instead of rebuilding it.
+ALTER TABLE telemetry_legacy RENAME CONSTRAINT telemetry_pkey TO telemetry_legacy_pkey;
+ALTER INDEX idx_telemetry_device_timestamp RENAME TO telemetry_legacy_device_timestamp_idx;
+ALTER INDEX idx_telemetry_timestamp RENAME TO telemetry_legacy_timestamp_idx;
+
+-- The primary key of a partitioned table must contain the partition key
+CREATE TABLE telemetry (
+    id BIGINT NOT NULL DEFAULT nextval('telemetry_id_seq'),
+    device_id BIGINT NOT NULL,
+    temperature DOUBLE PRECISION NOT NULL,
+    timestamp TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE telemetry_id_seq OWNED BY telemetry.id;
+
+CREATE TABLE telemetry_default PARTITION OF telemetry DEFAULT;
+
+-- Per-device history (latest per device, device time ranges); one small tree per partition
+CREATE INDEX idx_telemetry_device_timestamp ON telemetry(device_id, timestamp DESC);
+
+-- Rows arrive roughly in timestamp order, so a BRIN index answers fleet-wide time
+-- ranges at a fraction of a B-tree's size and insert cost
+CREATE INDEX idx_telemetry_timestamp_brin ON telemetry USING brin (timestamp);
+
+DO $$
+DECLARE
+    -- Weekly partitions start on Monday too, so no period straddles the bound
+    legacy_end TIMESTAMP := date_trunc('week', now() AT TIME ZONE 'UTC');
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM telemetry_legacy) THEN
+        DROP TABLE telemetry_legacy;
+        RETURN;
+    END IF;
+
+    -- This week's (and any future-dated) rows go to the default partition
+    INSERT INTO telemetry (id, device_id, temperature, timestamp, created_at)
+    SELECT id, device_id, temperature, timestamp, created_at
+    FROM telemetry_legacy
+    WHERE timestamp >= legacy_end;
+    DELETE FROM telemetry_legacy WHERE timestamp >= legacy_end;
+
+    -- Validates the bound with one scan of the legacy table; no row is rewritten
+    EXECUTE format(
+        'ALTER TABLE telemetry ATTACH PARTITION telemetry_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+        legacy_end
+    );
+    DROP INDEX telemetry_legacy_timestamp_idx;
+END $$;
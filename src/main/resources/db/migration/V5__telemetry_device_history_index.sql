@@ -0,0 +1,7 @@
+-- Covering index for GET /devices/{id}/telemetry.
+-- The key matches the keyset order (timestamp, id) and the leaf pages carry the
+-- temperature, so history pages are index-only range scans. A backward scan still
+-- serves the latest readings of a device, which the index it replaces was for.
+CREATE INDEX idx_telemetry_device_history ON telemetry (device_id, timestamp, id) INCLUDE (temperature);
+
+DROP INDEX idx_telemetry_device_timestamp;
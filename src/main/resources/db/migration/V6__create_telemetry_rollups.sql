@@ -0,0 +1,26 @@
+-- Per-device temperature aggregates in 1 minute, 1 hour and 1 day buckets,
+-- maintained by TelemetryRollupEventHandler from telemetry.events.
+-- bucket_start is the UTC start of the bucket. Averages are temperature_sum / sample_count,
+-- so buckets can be merged further at query time.
+CREATE TABLE telemetry_rollup_1m (
+    device_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count BIGINT NOT NULL,
+    temperature_sum DOUBLE PRECISION NOT NULL,
+    temperature_min DOUBLE PRECISION NOT NULL,
+    temperature_max DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (device_id, bucket_start)
+);
+
+CREATE TABLE telemetry_rollup_1h (LIKE telemetry_rollup_1m INCLUDING ALL);
+
+CREATE TABLE telemetry_rollup_1d (LIKE telemetry_rollup_1m INCLUDING ALL);
+
+-- Next Kafka offset to apply per partition, written in the same transaction as the
+-- aggregates: redelivered records are skipped instead of being counted twice
+CREATE TABLE telemetry_rollup_offsets (
+    topic VARCHAR(255) NOT NULL,
+    kafka_partition INT NOT NULL,
+    next_offset BIGINT NOT NULL,
+    PRIMARY KEY (topic, kafka_partition)
+);
@@ -0,0 +1,4 @@
+-- Relays claim outbox rows with a lease instead of holding row locks while they send
+-- to Kafka: a claimed row is skipped by other relays until claimed_until has passed,
+-- so the rows of a relay that died are picked up again once its lease expires.
+ALTER TABLE telemetry_outbox ADD COLUMN claimed_until TIMESTAMP;
@@ -0,0 +1,11 @@
+-- Outbox row ids of the events already added to the rollups, written in the same
+-- transaction as the aggregates. The outbox relay may send an event twice (a send
+-- that landed although it timed out), and the copy gets a new Kafka offset, so the
+-- offsets in telemetry_rollup_offsets alone cannot catch it.
+-- Rows older than telemetry.rollup.applied-events.retention-hours are pruned.
+CREATE TABLE telemetry_rollup_applied_events (
+    event_id BIGINT NOT NULL PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+CREATE INDEX idx_telemetry_rollup_applied_events_applied_at ON telemetry_rollup_applied_events (applied_at);
@@ -0,0 +1,43 @@
+-- Deletes projections that were copied to another shard, unless they changed since.
+-- A projection written again in the meantime (by a pod still routing to this shard)
+-- is kept; the next rebalance run moves it.
+--
+-- KEYS[1]: projection index (sorted set, member = deviceId)
+-- KEYS[2..n]: device projection keys
+-- ARGV[3i-2]: lastUpdated epoch seconds of the projection copied from KEYS[i+1]
+-- ARGV[3i-1]: lastUpdated nanos of second of the projection copied from KEYS[i+1]
+-- ARGV[3i]:   deviceId of KEYS[i+1]
+--
+-- The stored value is compared by timestamp, not by bytes: a legacy JSON value is
+-- copied as binary v1, so its bytes never match. A value that is not newer than the
+-- copy is deleted; one that cannot be decoded is kept.
+--
+-- Returns the number of projections deleted.
+-- Stored timestamp of a projection value; same decoding as upsert-if-newer.lua
+local function stored_timestamp(value)
+  if string.byte(value, 1) == 1 and #value == 29 then
+    return struct.unpack('>i8i4', value, 18)
+  end
+  local seconds, nanos = string.match(value, '"lastUpdated":(%-?%d+)%.(%d+)')
+  if seconds then
+    return tonumber(seconds), tonumber(nanos)
+  end
+  return nil
+end
+
+local deleted = 0
+for i = 2, #KEYS do
+  local base = (i - 2) * 3
+  local copiedSeconds = tonumber(ARGV[base + 1])
+  local copiedNanos = tonumber(ARGV[base + 2])
+  local current = redis.call('GET', KEYS[i])
+  if current then
+    local seconds, nanos = stored_timestamp(current)
+    if seconds and (seconds < copiedSeconds or (seconds == copiedSeconds and nanos <= copiedNanos)) then
+      redis.call('DEL', KEYS[i])
+      redis.call('ZREM', KEYS[1], ARGV[base + 3])
+      deleted = deleted + 1
+    end
+  end
+end
+return deleted
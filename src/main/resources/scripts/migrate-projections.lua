@@ -0,0 +1,21 @@
+-- Rewrites legacy projection values in the current format and backfills the index.
+-- A value is only replaced if it is still the one the migrator read, so projections
+-- written concurrently by listeners are never overwritten with older data.
+--
+-- KEYS[1]: projection index (sorted set, score 0, member = deviceId)
+-- KEYS[i + 1]: device projection key
+-- ARGV[3i-2]: value read by the migrator (empty = value already current, only index it)
+-- ARGV[3i-1]: replacement value in the current format
+-- ARGV[3i]:   deviceId
+--
+-- Returns the number of values rewritten.
+local rewritten = 0
+for i = 2, #KEYS do
+  local base = (i - 2) * 3
+  redis.call('ZADD', KEYS[1], 0, ARGV[base + 3])
+  if ARGV[base + 1] ~= '' and redis.call('GET', KEYS[i]) == ARGV[base + 1] then
+    redis.call('SET', KEYS[i], ARGV[base + 2])
+    rewritten = rewritten + 1
+  end
+end
+return rewritten
@@ -0,0 +1,55 @@
+-- Multi-key variant of upsert-if-newer.lua: applies many device projections in one call.
+-- Each key is written unless its stored projection is newer; ties overwrite.
+--
+-- KEYS[1]: projection index (sorted set, score 0, member = deviceId)
+-- KEYS[i + 1]: device projection key
+-- ARGV[1]:    near-cache invalidation channel; written deviceIds are published there
+--             as one comma-separated message after ARGV[2] (empty = no publish)
+-- ARGV[2]:    invalidation prefix naming the writing instance ("<instanceId>:")
+-- ARGV[4i-1]: serialized projection to store for KEYS[i + 1]
+-- ARGV[4i]:   new lastUpdated epoch seconds
+-- ARGV[4i+1]: new lastUpdated nanos of second
+-- ARGV[4i+2]: deviceId
+--
+-- Returns the number of projections written.
+-- Stored timestamp of a projection value; same decoding as upsert-if-newer.lua
+local function stored_timestamp(value)
+  if string.byte(value, 1) == 1 and #value == 29 then
+    return struct.unpack('>i8i4', value, 18)
+  end
+  local seconds, nanos = string.match(value, '"lastUpdated":(%-?%d+)%.(%d+)')
+  if seconds then
+    return tonumber(seconds), tonumber(nanos)
+  end
+  return nil
+end
+
+local channel = ARGV[1]
+local writtenIds = {}
+local written = 0
+for i = 2, #KEYS do
+  local key = KEYS[i]
+  local base = (i - 2) * 4 + 2
+  local newSeconds = tonumber(ARGV[base + 2])
+  local newNanos = tonumber(ARGV[base + 3])
+  local apply = true
+  redis.call('ZADD', KEYS[1], 0, ARGV[base + 4])
+  local current = redis.call('GET', key)
+  if current then
+    local seconds, nanos = stored_timestamp(current)
+    if seconds then
+      if newSeconds < seconds or (newSeconds == seconds and newNanos < nanos) then
+        apply = false
+      end
+    end
+  end
+  if apply then
+    redis.call('SET', key, ARGV[base + 1])
+    written = written + 1
+    writtenIds[written] = ARGV[base + 4]
+  end
+end
+if channel ~= '' and written > 0 then
+  redis.call('PUBLISH', channel, ARGV[2] .. table.concat(writtenIds, ','))
+end
+return written
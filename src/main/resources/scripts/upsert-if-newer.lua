@@ -0,0 +1,48 @@
+-- Atomically writes a device projection unless the stored one is newer.
+-- Ties (same timestamp) overwrite: last processed wins.
+-- The device is (re)added to the projection index either way.
+--
+-- KEYS[1]: device projection key
+-- KEYS[2]: projection index (sorted set, score 0, member = deviceId)
+-- ARGV[1]: serialized projection to store
+-- ARGV[2]: new lastUpdated epoch seconds
+-- ARGV[3]: new lastUpdated nanos of second
+-- ARGV[4]: deviceId
+-- ARGV[5]: near-cache invalidation channel; "<ARGV[6]><deviceId>" is published there
+--          when the projection is written (empty = no publish)
+-- ARGV[6]: invalidation prefix naming the writing instance ("<instanceId>:")
+--
+-- Stored values are either binary v1 (DeviceProjectionRedisSerializer) or legacy Jackson
+-- JSON where Instants are written as "<seconds>.<nanos>". Either way seconds and nanos
+-- are compared as separate integers (a Lua double cannot hold epoch nanos exactly).
+--
+-- Returns 1 when the projection was written, 0 when an older event was ignored.
+local function stored_timestamp(value)
+  if string.byte(value, 1) == 1 and #value == 29 then
+    -- Binary v1: seconds (int64) and nanos (int32) at offset 17
+    return struct.unpack('>i8i4', value, 18)
+  end
+  local seconds, nanos = string.match(value, '"lastUpdated":(%-?%d+)%.(%d+)')
+  if seconds then
+    return tonumber(seconds), tonumber(nanos)
+  end
+  return nil
+end
+
+redis.call('ZADD', KEYS[2], 0, ARGV[4])
+local current = redis.call('GET', KEYS[1])
+if current then
+  local seconds, nanos = stored_timestamp(current)
+  if seconds then
+    local newSeconds = tonumber(ARGV[2])
+    local newNanos = tonumber(ARGV[3])
+    if newSeconds < seconds or (newSeconds == seconds and newNanos < nanos) then
+      return 0
+    end
+  end
+end
+redis.call('SET', KEYS[1], ARGV[1])
+if ARGV[5] ~= '' then
+  redis.call('PUBLISH', ARGV[5], ARGV[6] .. ARGV[4])
+end
+return 1
@@ -65,4 +65,12 @@ public abstract class TestContainersBase {
         registry.add("spring.data.redis.host", REDIS::getHost);
         registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
     }
+
+    /**
+     * URI of a logical database of the shared Redis container, for tests that need
+     * several independent Redis nodes (database 0 is the one the application uses).
+     */
+    protected static String redisUri(int database) {
+        return "redis://" + REDIS.getHost() + ":" + REDIS.getMappedPort(6379) + "/" + database;
+    }
 }
@@ -39,7 +39,7 @@ public class UnitTestConfiguration {
      *
      * This allows command handler tests to verify event publishing behavior
      * without actually crossing into event handler territory.
-     * The command handler doesn't care HOW EventPublisher works internally (Kafka, etc).
+     * The command handler doesn't care HOW EventPublisher works internally (outbox, Kafka, etc).
      */
     @Bean
     @Primary
@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import com.ifco.telemetry.TestContainersBase;
 import com.ifco.telemetry.command.RecordTelemetryCommand;
 import com.ifco.telemetry.command.RecordTelemetryCommandHandler;
+import com.ifco.telemetry.repository.OutboxRepository;
 import com.ifco.telemetry.repository.ProjectionRepository;
 import com.ifco.telemetry.repository.TelemetryRepository;
 import java.time.Instant;
@@ -40,9 +41,14 @@ class TelemetryErrorScenariosAcceptanceTest extends TestContainersBase {
     @Autowired
     private ProjectionRepository projectionRepository;
 
+    @Autowired
+    private OutboxRepository outboxRepository;
+
     @BeforeEach
     void clearData() {
         // Explicit cleanup before each test for isolation
+        // Drop events of previous tests not yet relayed, or they land in the fresh projections
+        outboxRepository.deleteAllInBatch();
         telemetryRepository.deleteAll();
         projectionRepository.deleteAll();
     }
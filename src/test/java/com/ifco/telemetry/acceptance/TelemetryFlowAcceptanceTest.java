@@ -10,6 +10,7 @@ import com.ifco.telemetry.domain.Telemetry;
 import com.ifco.telemetry.projection.DeviceProjection;
 import com.ifco.telemetry.query.DeviceTemperatureDTO;
 import com.ifco.telemetry.query.GetLatestTemperaturesQueryHandler;
+import com.ifco.telemetry.repository.OutboxRepository;
 import com.ifco.telemetry.repository.ProjectionRepository;
 import com.ifco.telemetry.repository.TelemetryRepository;
 import java.time.Duration;
@@ -20,10 +21,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
-@Transactional
 class TelemetryFlowAcceptanceTest extends TestContainersBase {
 
     @Autowired
@@ -38,8 +37,13 @@ class TelemetryFlowAcceptanceTest extends TestContainersBase {
     @Autowired
     private ProjectionRepository projectionRepository;
 
+    @Autowired
+    private OutboxRepository outboxRepository;
+
     @BeforeEach
     void clearData() {
+        // Drop events of previous tests not yet relayed, or they land in the fresh projections
+        outboxRepository.deleteAllInBatch();
         telemetryRepository.deleteAll();
         projectionRepository.deleteAll();
     }
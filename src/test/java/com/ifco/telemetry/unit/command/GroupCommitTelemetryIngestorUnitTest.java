@@ -0,0 +1,250 @@
+package com.ifco.telemetry.unit.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.command.GroupCommitTelemetryIngestor;
+import com.ifco.telemetry.command.IngestRejectedException;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommand;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommandHandler;
+import com.ifco.telemetry.command.RecordTelemetryBatchResult;
+import com.ifco.telemetry.command.RecordTelemetryCommand;
+import com.ifco.telemetry.event.EventPublisher;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Unit tests for GroupCommitTelemetryIngestor.
+ *
+ * Real batch handler and repository, mocked EventPublisher boundary
+ * (see RecordTelemetryBatchCommandHandlerUnitTest and TESTING-GUIDE.md).
+ * Verifies queued readings are stored in grouped transactions, failed commits are
+ * retried or split so only failing readings are dropped, and that stopping while
+ * readings are being submitted leaves no future uncompleted.
+ */
+@SpringBootTest(
+    classes = {
+        GroupCommitTelemetryIngestor.class,
+        RecordTelemetryBatchCommandHandler.class,
+    },
+    properties = {
+        "telemetry.ingest.async.enabled=true",
+        "telemetry.ingest.async.max-batch-size=100",
+        "telemetry.ingest.async.max-wait-ms=50",
+    }
+)
+@EnableAutoConfiguration
+@Import(UnitTestConfiguration.class)
+class GroupCommitTelemetryIngestorUnitTest extends TestContainersBase {
+
+    @Autowired
+    private GroupCommitTelemetryIngestor ingestor;
+
+    @Autowired
+    private TelemetryRepository telemetryRepository;
+
+    @Autowired
+    private EventPublisher eventPublisher; // Mocked via UnitTestConfiguration
+
+    @BeforeEach
+    void clearData() {
+        telemetryRepository.deleteAll();
+        Mockito.reset(eventPublisher); // Reset mock for test isolation
+    }
+
+    @Test
+    @DisplayName("Should store queued readings in group commits")
+    void should_store_queued_readings_in_group_commits() throws Exception {
+        // Given - More readings than one group holds
+        List<CompletableFuture<Void>> commits = IntStream
+            .range(0, 250)
+            .mapToObj(i ->
+                ingestor.submit(
+                    new RecordTelemetryCommand(
+                        (long) i,
+                        20.0,
+                        Instant.parse("2025-01-31T13:00:00Z")
+                    )
+                )
+            )
+            .toList();
+
+        // When - Every reading's group has committed
+        CompletableFuture
+            .allOf(commits.toArray(CompletableFuture[]::new))
+            .get(10, TimeUnit.SECONDS);
+
+        // Then - All stored, with far fewer publishes (transactions) than readings
+        assertThat(telemetryRepository.count()).isEqualTo(250);
+        verify(eventPublisher, atMost(10)).publishAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid reading without queueing it")
+    void should_reject_invalid_reading() {
+        // Given
+        RecordTelemetryCommand command = new RecordTelemetryCommand(
+            1L,
+            null,
+            Instant.parse("2025-01-31T13:00:00Z")
+        );
+
+        // When & Then
+        assertThatThrownBy(() -> ingestor.submit(command))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("temperature cannot be null");
+        verify(eventPublisher, never()).publishAll(any());
+    }
+
+    @Test
+    @DisplayName("Should complete every accepted reading's future when stopped during submits")
+    void should_complete_every_future_when_stopped_during_submits() throws Exception {
+        // Given - A separate pipeline, so stopping it leaves the shared context running
+        GroupCommitTelemetryIngestor pipeline = new GroupCommitTelemetryIngestor(
+            Mockito.mock(RecordTelemetryBatchCommandHandler.class),
+            100_000, 100, 1, true, 5000, 3, 100, false, new SimpleMeterRegistry()
+        );
+        pipeline.start();
+        Queue<CompletableFuture<Void>> accepted = new ConcurrentLinkedQueue<>();
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> running = IntStream.range(0, 4)
+                .<Future<?>>mapToObj(submitter -> submitters.submit(() -> {
+                    // Submit until the pipeline turns readings away
+                    for (long id = 0; ; id++) {
+                        try {
+                            accepted.add(pipeline.submit(
+                                new RecordTelemetryCommand(id, 20.0, Instant.parse("2025-01-31T13:00:00Z"))
+                            ));
+                        } catch (IngestRejectedException e) {
+                            rejected.incrementAndGet();
+                            return;
+                        }
+                    }
+                }))
+                .toList();
+
+            // When - Stopped while the submitters are still going
+            Thread.sleep(20);
+            pipeline.stop();
+            for (Future<?> submitter : running) {
+                submitter.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+
+        // Then - Every submitter was turned away and every accepted reading was committed
+        assertThat(rejected.get()).isEqualTo(4);
+        CompletableFuture
+            .allOf(accepted.toArray(CompletableFuture[]::new))
+            .get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should retry a group commit that failed on an infrastructure error")
+    void should_retry_group_commit_on_infrastructure_failure() throws Exception {
+        // Given - The database is unreachable for the first two attempts
+        RecordTelemetryBatchCommandHandler handler = Mockito.mock(RecordTelemetryBatchCommandHandler.class);
+        when(handler.handle(any()))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"))
+            .thenReturn(new RecordTelemetryBatchResult(2, List.of()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GroupCommitTelemetryIngestor pipeline = mockedPipeline(handler, meterRegistry);
+        pipeline.start();
+        try {
+            // When
+            List<CompletableFuture<Void>> commits = List.of(
+                pipeline.submit(reading(1L)),
+                pipeline.submit(reading(2L))
+            );
+
+            // Then - Committed on the third attempt, nothing dropped
+            CompletableFuture
+                .allOf(commits.toArray(CompletableFuture[]::new))
+                .get(10, TimeUnit.SECONDS);
+            verify(handler, times(3)).handle(any());
+            assertThat(meterRegistry.counter("telemetry.ingest.failed").count()).isZero();
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop only the reading that breaks its group")
+    void should_drop_only_the_failing_reading() throws Exception {
+        // Given - Any commit containing device 13 fails
+        RecordTelemetryBatchCommandHandler handler = Mockito.mock(RecordTelemetryBatchCommandHandler.class);
+        when(handler.handle(any())).thenAnswer(invocation -> {
+            RecordTelemetryBatchCommand batch = invocation.getArgument(0);
+            if (batch.commands().stream().anyMatch(command -> command.deviceId() == 13L)) {
+                throw new DataIntegrityViolationException("bad row");
+            }
+            return new RecordTelemetryBatchResult(batch.commands().size(), List.of());
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GroupCommitTelemetryIngestor pipeline = mockedPipeline(handler, meterRegistry);
+        pipeline.start();
+        try {
+            // When
+            CompletableFuture<Void> good = pipeline.submit(reading(12L));
+            CompletableFuture<Void> bad = pipeline.submit(reading(13L));
+            CompletableFuture<Void> alsoGood = pipeline.submit(reading(14L));
+
+            // Then - The other readings are committed, the breaking one is dropped and counted
+            good.get(10, TimeUnit.SECONDS);
+            alsoGood.get(10, TimeUnit.SECONDS);
+            assertThatThrownBy(() -> bad.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+            assertThat(meterRegistry.counter("telemetry.ingest.failed").count()).isEqualTo(1.0);
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    /**
+     * A pipeline over a mocked handler. Groups wait up to 200 ms, so readings
+     * submitted together share one; retries back off from 10 ms.
+     */
+    private static GroupCommitTelemetryIngestor mockedPipeline(
+        RecordTelemetryBatchCommandHandler handler,
+        SimpleMeterRegistry meterRegistry
+    ) {
+        return new GroupCommitTelemetryIngestor(handler, 100, 100, 200, false, 5000, 3, 10, false, meterRegistry);
+    }
+
+    private static RecordTelemetryCommand reading(long deviceId) {
+        return new RecordTelemetryCommand(deviceId, 20.0, Instant.parse("2025-01-31T13:00:00Z"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.ifco.telemetry.unit.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommand;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommandHandler;
+import com.ifco.telemetry.command.RecordTelemetryBatchResult;
+import com.ifco.telemetry.command.RecordTelemetryCommand;
+import com.ifco.telemetry.domain.Telemetry;
+import com.ifco.telemetry.event.EventPublisher;
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for RecordTelemetryBatchCommandHandler.
+ *
+ * Same strategy as RecordTelemetryCommandHandlerUnitTest: real repository,
+ * mocked EventPublisher boundary. See TESTING-GUIDE.md.
+ */
+@SpringBootTest(classes = { RecordTelemetryBatchCommandHandler.class })
+@EnableAutoConfiguration
+@Import(UnitTestConfiguration.class)
+class RecordTelemetryBatchCommandHandlerUnitTest extends TestContainersBase {
+
+    @Autowired
+    private RecordTelemetryBatchCommandHandler handler;
+
+    @Autowired
+    private TelemetryRepository telemetryRepository;
+
+    @Autowired
+    private EventPublisher eventPublisher; // Mocked via UnitTestConfiguration
+
+    @BeforeEach
+    void clearData() {
+        telemetryRepository.deleteAll();
+        Mockito.reset(eventPublisher); // Reset mock for test isolation
+    }
+
+    @Test
+    @DisplayName("Should save every reading of a valid batch")
+    @SuppressWarnings("unchecked")
+    void should_save_every_reading_of_a_valid_batch() {
+        // Given
+        RecordTelemetryBatchCommand batch = new RecordTelemetryBatchCommand(
+            List.of(
+                new RecordTelemetryCommand(
+                    1L,
+                    10.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ),
+                new RecordTelemetryCommand(
+                    1L,
+                    12.0,
+                    Instant.parse("2025-01-31T13:00:05Z")
+                ),
+                new RecordTelemetryCommand(
+                    2L,
+                    8.0,
+                    Instant.parse("2025-01-31T13:00:01Z")
+                )
+            )
+        );
+
+        // When
+        RecordTelemetryBatchResult result = handler.handle(batch);
+
+        // Then - All readings stored
+        assertThat(result.accepted()).isEqualTo(3);
+        assertThat(result.rejected()).isEmpty();
+        List<Telemetry> telemetries = telemetryRepository.findAll();
+        assertThat(telemetries)
+            .extracting(Telemetry::getTemperature)
+            .containsExactlyInAnyOrder(10.0, 12.0, 8.0);
+
+        // And - Events published together, in batch order
+        ArgumentCaptor<List<TelemetryRecordedEvent>> eventsCaptor =
+            ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publishAll(eventsCaptor.capture());
+        assertThat(eventsCaptor.getValue())
+            .extracting(TelemetryRecordedEvent::temperature)
+            .containsExactly(10.0, 12.0, 8.0);
+    }
+
+    @Test
+    @DisplayName("Should store valid readings and report invalid ones by index")
+    void should_store_valid_readings_and_report_invalid_ones() {
+        // Given - Second and third readings are invalid
+        RecordTelemetryBatchCommand batch = new RecordTelemetryBatchCommand(
+            Arrays.asList(
+                new RecordTelemetryCommand(
+                    1L,
+                    10.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ),
+                new RecordTelemetryCommand(
+                    2L,
+                    null,
+                    Instant.parse("2025-01-31T13:00:05Z")
+                ),
+                null,
+                new RecordTelemetryCommand(
+                    3L,
+                    15.0,
+                    Instant.parse("2025-01-31T13:00:10Z")
+                )
+            )
+        );
+
+        // When
+        RecordTelemetryBatchResult result = handler.handle(batch);
+
+        // Then
+        assertThat(result.accepted()).isEqualTo(2);
+        assertThat(result.rejected()).containsExactly(
+            new RecordTelemetryBatchResult.RejectedItem(
+                1,
+                "temperature cannot be null"
+            ),
+            new RecordTelemetryBatchResult.RejectedItem(
+                2,
+                "reading cannot be null"
+            )
+        );
+        assertThat(telemetryRepository.findAll())
+            .extracting(Telemetry::getDeviceId)
+            .containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should not publish when every reading is rejected")
+    void should_not_publish_when_every_reading_is_rejected() {
+        // Given
+        RecordTelemetryBatchCommand batch = new RecordTelemetryBatchCommand(
+            List.of(new RecordTelemetryCommand(null, 10.0, Instant.now()))
+        );
+
+        // When
+        RecordTelemetryBatchResult result = handler.handle(batch);
+
+        // Then
+        assertThat(result.accepted()).isZero();
+        assertThat(telemetryRepository.findAll()).isEmpty();
+        verify(eventPublisher, never()).publishAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject empty batch")
+    void should_reject_empty_batch() {
+        assertThatThrownBy(() ->
+            handler.handle(new RecordTelemetryBatchCommand(List.of()))
+        )
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("batch cannot be empty");
+    }
+}
@@ -0,0 +1,87 @@
+package com.ifco.telemetry.unit.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ifco.telemetry.config.DeviceIdPartitioner;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DeviceIdPartitioner.
+ * Verifies numeric keys map to deviceId mod partitions (negative ids included),
+ * other keys fall back to murmur2 like Kafka's default, and unkeyed events are rejected.
+ */
+class DeviceIdPartitionerUnitTest {
+
+    private static final String TOPIC = "telemetry.events";
+    private static final int PARTITIONS = 4;
+
+    private final DeviceIdPartitioner partitioner = new DeviceIdPartitioner();
+    private final Cluster cluster = cluster(PARTITIONS);
+
+    @Test
+    @DisplayName("Should map numeric device ids to deviceId mod partitions")
+    void should_map_numeric_keys_round_robin() {
+        // When / Then - Sequential devices spread evenly over all partitions
+        for (long deviceId = 0; deviceId < 12; deviceId++) {
+            assertThat(partition(Long.toString(deviceId))).isEqualTo((int) (deviceId % PARTITIONS));
+        }
+        assertThat(partition(Long.toString(Long.MAX_VALUE))).isEqualTo((int) (Long.MAX_VALUE % PARTITIONS));
+    }
+
+    @Test
+    @DisplayName("Should map negative device ids to a valid partition")
+    void should_map_negative_keys_with_floor_mod() {
+        // When / Then - floorMod, not %, so the partition is never negative
+        assertThat(partition("-1")).isEqualTo(3);
+        assertThat(partition("-4")).isEqualTo(0);
+        assertThat(partition("-5")).isEqualTo(3);
+        assertThat(partition(Long.toString(Long.MIN_VALUE))).isBetween(0, PARTITIONS - 1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to murmur2 for non-numeric keys")
+    void should_fall_back_to_murmur2() {
+        // Given
+        String key = "device-abc";
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        int partition = partitioner.partition(TOPIC, key, keyBytes, null, null, cluster);
+
+        // Then - Same partition as Kafka's default partitioner would choose
+        assertThat(partition).isEqualTo(Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS);
+        assertThat(partitioner.partition(TOPIC, key, keyBytes, null, null, cluster)).isEqualTo(partition);
+    }
+
+    @Test
+    @DisplayName("Should reject events without a key")
+    void should_reject_null_key() {
+        // When / Then
+        assertThatThrownBy(() -> partitioner.partition(TOPIC, null, null, null, null, cluster))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("keyed by deviceId");
+    }
+
+    private int partition(String key) {
+        return partitioner.partition(TOPIC, key, key.getBytes(StandardCharsets.UTF_8), null, null, cluster);
+    }
+
+    private static Cluster cluster(int partitions) {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> infos = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            infos.add(new PartitionInfo(TOPIC, partition, node, new Node[] { node }, new Node[] { node }));
+        }
+        return new Cluster("test-cluster", List.of(node), infos, Set.of(), Set.of());
+    }
+}
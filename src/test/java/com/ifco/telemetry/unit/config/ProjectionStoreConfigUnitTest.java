@@ -0,0 +1,105 @@
+package com.ifco.telemetry.unit.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.ifco.telemetry.config.InMemoryProjectionConfig;
+import com.ifco.telemetry.config.ProjectionCacheConfig;
+import com.ifco.telemetry.config.RedisConfig;
+import com.ifco.telemetry.config.ShardedProjectionConfig;
+import com.ifco.telemetry.projection.ProjectionRebuilder;
+import com.ifco.telemetry.repository.InMemoryProjectionRepository;
+import com.ifco.telemetry.repository.ProjectionFormatMigrator;
+import com.ifco.telemetry.repository.ProjectionRepository;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Unit tests for the projection store configurations.
+ * Verifies that store=memory leaves a single ProjectionRepository and no Redis projection
+ * beans, that Redis stays the default, and that memory combined with the near-cache or
+ * sharding fails at startup.
+ */
+class ProjectionStoreConfigUnitTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withUserConfiguration(
+            RedisConfig.class,
+            RedisProjectionRepository.class,
+            ProjectionFormatMigrator.class,
+            ProjectionCacheConfig.class,
+            ShardedProjectionConfig.class,
+            InMemoryProjectionConfig.class
+        )
+        .withBean(RedisConnectionFactory.class, () -> mock(RedisConnectionFactory.class))
+        .withBean(ProjectionRebuilder.class, () -> mock(ProjectionRebuilder.class));
+
+    @Test
+    @DisplayName("Should keep projections in Redis by default")
+    void should_use_redis_by_default() {
+        contextRunner.run(context -> {
+            // Then
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(ProjectionRepository.class);
+            assertThat(context).hasSingleBean(RedisProjectionRepository.class);
+            assertThat(context).hasSingleBean(ProjectionFormatMigrator.class);
+            assertThat(context).doesNotHaveBean(InMemoryProjectionRepository.class);
+        });
+    }
+
+    @Test
+    @DisplayName("Should create no Redis projection beans when projections are kept in memory")
+    void should_back_off_redis_beans_in_memory_mode() {
+        contextRunner
+            .withPropertyValues("telemetry.projection.store=memory")
+            .run(context -> {
+                // Then
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(ProjectionRepository.class);
+                assertThat(context).hasSingleBean(InMemoryProjectionRepository.class);
+                assertThat(context).doesNotHaveBean(RedisProjectionRepository.class);
+                assertThat(context).doesNotHaveBean(ProjectionFormatMigrator.class);
+                assertThat(context).doesNotHaveBean(RedisTemplate.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should fail at startup when memory is combined with the near-cache")
+    void should_reject_memory_with_near_cache() {
+        contextRunner
+            .withPropertyValues(
+                "telemetry.projection.store=memory",
+                "telemetry.projection.near-cache.enabled=true"
+            )
+            .run(context -> {
+                // Then
+                assertThat(context).hasFailed();
+                assertThat(context.getStartupFailure())
+                    .rootCause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("telemetry.projection.near-cache.enabled");
+            });
+    }
+
+    @Test
+    @DisplayName("Should fail at startup when memory is combined with sharding")
+    void should_reject_memory_with_sharding() {
+        contextRunner
+            .withPropertyValues(
+                "telemetry.projection.store=memory",
+                "telemetry.projection.sharding.nodes=a=redis://localhost:6379"
+            )
+            .run(context -> {
+                // Then
+                assertThat(context).hasFailed();
+                assertThat(context.getStartupFailure())
+                    .rootCause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("telemetry.projection.sharding.nodes");
+            });
+    }
+}
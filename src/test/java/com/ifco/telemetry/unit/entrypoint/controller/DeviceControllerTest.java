@@ -1,22 +1,47 @@
 package com.ifco.telemetry.unit.entrypoint.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.ifco.telemetry.controller.DeviceController;
+import com.ifco.telemetry.query.DeviceAggregatesDTO;
 import com.ifco.telemetry.query.DeviceTemperatureDTO;
+import com.ifco.telemetry.query.GetDeviceTemperaturesQueryHandler;
 import com.ifco.telemetry.query.GetLatestTemperaturesQueryHandler;
+import com.ifco.telemetry.query.GetTelemetryAggregatesQuery;
+import com.ifco.telemetry.query.GetTelemetryAggregatesQueryHandler;
+import com.ifco.telemetry.query.GetTelemetryHistoryQuery;
+import com.ifco.telemetry.query.GetTelemetryHistoryQueryHandler;
+import com.ifco.telemetry.query.TelemetryAggregateDTO;
+import com.ifco.telemetry.query.TelemetryHistoryCursor;
+import com.ifco.telemetry.query.TelemetryReadingDTO;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Unit tests for DeviceController.
@@ -29,6 +54,15 @@ class DeviceControllerTest {
     @MockBean
     private GetLatestTemperaturesQueryHandler queryHandler;
 
+    @MockBean
+    private GetDeviceTemperaturesQueryHandler deviceTemperaturesQueryHandler;
+
+    @MockBean
+    private GetTelemetryHistoryQueryHandler historyQueryHandler;
+
+    @MockBean
+    private GetTelemetryAggregatesQueryHandler aggregatesQueryHandler;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -78,4 +112,254 @@ class DeviceControllerTest {
 
         verify(queryHandler).handle();
     }
+
+    @Test
+    @DisplayName("Should stream temperatures as NDJSON when requested")
+    void should_stream_temperatures_as_ndjson() throws Exception {
+        // Given
+        when(queryHandler.stream()).thenReturn(Stream.of(
+            new DeviceTemperatureDTO(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z")),
+            new DeviceTemperatureDTO(2L, 10.0, Instant.parse("2025-01-31T13:00:11Z"))
+        ));
+
+        // When
+        MvcResult result = mockMvc
+            .perform(get("/devices/temperatures").accept("application/x-ndjson"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson"))
+            .andExpect(content().string(
+                "{\"deviceId\":1,\"measurement\":12.0,\"date\":\"2025-01-31T13:00:05Z\"}\n" +
+                "{\"deviceId\":2,\"measurement\":10.0,\"date\":\"2025-01-31T13:00:11Z\"}\n"
+            ));
+
+        verify(queryHandler).stream();
+    }
+
+    @Test
+    @DisplayName("Should stream temperatures as JSON array when stream=true")
+    void should_stream_temperatures_as_json_array() throws Exception {
+        // Given
+        when(queryHandler.stream()).thenReturn(Stream.of(
+            new DeviceTemperatureDTO(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z")),
+            new DeviceTemperatureDTO(2L, 10.0, Instant.parse("2025-01-31T13:00:11Z"))
+        ));
+
+        // When
+        MvcResult result = mockMvc
+            .perform(get("/devices/temperatures").param("stream", "true"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$[0].deviceId").value(1))
+            .andExpect(jsonPath("$[0].date").value("2025-01-31T13:00:05Z"))
+            .andExpect(jsonPath("$[1].deviceId").value(2))
+            .andExpect(jsonPath("$[1].measurement").value(10.0));
+
+        verify(queryHandler).stream();
+    }
+
+    @Test
+    @DisplayName("Should stream empty JSON array when no devices")
+    void should_stream_empty_json_array_when_no_devices() throws Exception {
+        // Given
+        when(queryHandler.stream()).thenReturn(Stream.empty());
+
+        // When
+        MvcResult result = mockMvc
+            .perform(get("/devices/temperatures").param("stream", "true"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string("[]"));
+    }
+
+    @Test
+    @DisplayName("Should stream a history page with the next cursor")
+    void should_stream_history_page_with_next_cursor() throws Exception {
+        // Given
+        TelemetryHistoryCursor next = new TelemetryHistoryCursor(
+            Instant.parse("2025-01-31T13:00:05Z"),
+            42L
+        );
+        doAnswer(invocation -> {
+            Consumer<TelemetryReadingDTO> consumer = invocation.getArgument(1);
+            consumer.accept(new TelemetryReadingDTO(10.0, Instant.parse("2025-01-31T13:00:00Z")));
+            consumer.accept(new TelemetryReadingDTO(12.0, Instant.parse("2025-01-31T13:00:05Z")));
+            return next;
+        }).when(historyQueryHandler).handle(any(), any());
+
+        // When
+        MvcResult result = mockMvc
+            .perform(get("/devices/1/telemetry")
+                .param("from", "2025-01-31T00:00:00Z")
+                .param("to", "2025-02-01T00:00:00Z")
+                .param("limit", "2"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deviceId").value(1))
+            .andExpect(jsonPath("$.readings[0].measurement").value(10.0))
+            .andExpect(jsonPath("$.readings[0].date").value("2025-01-31T13:00:00Z"))
+            .andExpect(jsonPath("$.readings[1].measurement").value(12.0))
+            .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+
+        ArgumentCaptor<GetTelemetryHistoryQuery> captor =
+            ArgumentCaptor.forClass(GetTelemetryHistoryQuery.class);
+        verify(historyQueryHandler).handle(captor.capture(), any());
+        assertThat(captor.getValue()).isEqualTo(new GetTelemetryHistoryQuery(
+            1L,
+            Instant.parse("2025-01-31T00:00:00Z"),
+            Instant.parse("2025-02-01T00:00:00Z"),
+            2,
+            null
+        ));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for invalid history parameters")
+    void should_return_bad_request_for_invalid_history_parameters() throws Exception {
+        // When & Then - limit out of range, empty range, forged cursor
+        mockMvc
+            .perform(get("/devices/1/telemetry").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+        mockMvc
+            .perform(get("/devices/1/telemetry")
+                .param("from", "2025-02-01T00:00:00Z")
+                .param("to", "2025-01-31T00:00:00Z"))
+            .andExpect(status().isBadRequest());
+        mockMvc
+            .perform(get("/devices/1/telemetry").param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(historyQueryHandler);
+    }
+
+    @Test
+    @DisplayName("Should return aggregates for the requested resolution and range")
+    void should_return_aggregates_for_requested_resolution_and_range() throws Exception {
+        // Given
+        GetTelemetryAggregatesQuery query = new GetTelemetryAggregatesQuery(
+            1L,
+            "1d",
+            Instant.parse("2025-01-31T00:00:00Z"),
+            Instant.parse("2025-02-01T00:00:00Z")
+        );
+        when(aggregatesQueryHandler.handle(query)).thenReturn(new DeviceAggregatesDTO(
+            1L,
+            "1d",
+            "1d",
+            List.of(new TelemetryAggregateDTO(Instant.parse("2025-01-31T00:00:00Z"), 4, 8.0, 30.0, 16.0))
+        ));
+
+        // When & Then
+        mockMvc
+            .perform(get("/devices/1/aggregates")
+                .param("resolution", "1d")
+                .param("from", "2025-01-31T00:00:00Z")
+                .param("to", "2025-02-01T00:00:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.source").value("1d"))
+            .andExpect(jsonPath("$.buckets[0].start").value("2025-01-31T00:00:00Z"))
+            .andExpect(jsonPath("$.buckets[0].count").value(4))
+            .andExpect(jsonPath("$.buckets[0].min").value(8.0))
+            .andExpect(jsonPath("$.buckets[0].max").value(30.0))
+            .andExpect(jsonPath("$.buckets[0].avg").value(16.0));
+
+        // And - too many buckets is rejected before querying
+        mockMvc
+            .perform(get("/devices/1/aggregates")
+                .param("resolution", "1m")
+                .param("from", "2025-01-01T00:00:00Z")
+                .param("to", "2025-02-01T00:00:00Z"))
+            .andExpect(status().isBadRequest());
+        verify(aggregatesQueryHandler).handle(query);
+    }
+
+    @Test
+    @DisplayName("Should not answer internal argument errors as bad requests")
+    void should_not_answer_internal_argument_errors_as_bad_requests() {
+        // Given - A bug deep inside the handler, not an invalid query
+        when(aggregatesQueryHandler.handle(any())).thenThrow(new IllegalArgumentException("unknown rollup table"));
+
+        // When & Then - It surfaces as a server error instead of a 400
+        assertThatThrownBy(() -> mockMvc
+            .perform(get("/devices/1/aggregates")
+                .param("from", "2025-01-31T00:00:00Z")
+                .param("to", "2025-02-01T00:00:00Z")))
+            .hasCauseInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unknown rollup table");
+    }
+
+    @Test
+    @DisplayName("Should return one device's temperature, or 404 if unknown")
+    void should_return_one_device_temperature_or_not_found() throws Exception {
+        // Given
+        when(deviceTemperaturesQueryHandler.handle(1L)).thenReturn(Optional.of(
+            new DeviceTemperatureDTO(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z"))
+        ));
+        when(deviceTemperaturesQueryHandler.handle(2L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc
+            .perform(get("/devices/1/temperature"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deviceId").value(1))
+            .andExpect(jsonPath("$.measurement").value(12.0))
+            .andExpect(jsonPath("$.date").value("2025-01-31T13:00:05Z"));
+        mockMvc
+            .perform(get("/devices/2/temperature"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should look up the requested devices in one call")
+    void should_look_up_requested_devices_in_one_call() throws Exception {
+        // Given
+        when(deviceTemperaturesQueryHandler.handle(List.of(2L, 404L, 1L))).thenReturn(List.of(
+            new DeviceTemperatureDTO(2L, 10.0, Instant.parse("2025-01-31T13:00:11Z")),
+            new DeviceTemperatureDTO(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z"))
+        ));
+
+        // When & Then
+        mockMvc
+            .perform(post("/devices/temperatures:lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"deviceIds\": [2, 404, 1]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].deviceId").value(2))
+            .andExpect(jsonPath("$[1].deviceId").value(1));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an empty lookup")
+    void should_return_bad_request_for_empty_lookup() throws Exception {
+        // When & Then
+        mockMvc
+            .perform(post("/devices/temperatures:lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"deviceIds\": []}"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(deviceTemperaturesQueryHandler);
+    }
 }
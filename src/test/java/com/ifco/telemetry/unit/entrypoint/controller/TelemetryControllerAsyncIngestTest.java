@@ -0,0 +1,144 @@
+package com.ifco.telemetry.unit.entrypoint.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ifco.telemetry.command.GroupCommitTelemetryIngestor;
+import com.ifco.telemetry.command.IngestRejectedException;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommandHandler;
+import com.ifco.telemetry.command.RecordTelemetryCommand;
+import com.ifco.telemetry.command.RecordTelemetryCommandHandler;
+import com.ifco.telemetry.controller.TelemetryController;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Unit tests for TelemetryController with asynchronous group-commit ingest enabled.
+ * The ingestor is mocked, which makes it present for the controller.
+ * Verifies readings are queued instead of stored inline and that a full queue, or a
+ * durable ack that times out, maps to 503.
+ */
+@WebMvcTest(TelemetryController.class)
+class TelemetryControllerAsyncIngestTest {
+
+    private static final String PAYLOAD = """
+        {
+            "deviceId": 1,
+            "measurement": 10.0,
+            "date": "2025-01-31T13:00:00Z"
+        }
+        """;
+
+    @MockBean
+    private RecordTelemetryCommandHandler commandHandler;
+
+    @MockBean
+    private RecordTelemetryBatchCommandHandler batchCommandHandler;
+
+    @MockBean
+    private GroupCommitTelemetryIngestor ingestor;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should queue telemetry in the ingestor instead of calling the handler")
+    void should_queue_telemetry_in_ingestor() throws Exception {
+        // Given
+        when(ingestor.submit(any())).thenReturn(new CompletableFuture<>());
+
+        // When
+        mockMvc
+            .perform(
+                post("/telemetry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(PAYLOAD)
+            )
+            .andExpect(status().isAccepted());
+
+        // Then - Acknowledged on enqueue, without waiting for the commit
+        ArgumentCaptor<RecordTelemetryCommand> captor = ArgumentCaptor.forClass(
+            RecordTelemetryCommand.class
+        );
+        verify(ingestor).submit(captor.capture());
+        assertThat(captor.getValue().deviceId()).isEqualTo(1L);
+        assertThat(captor.getValue().temperature()).isEqualTo(10.0);
+        assertThat(captor.getValue().date()).isEqualTo(
+            Instant.parse("2025-01-31T13:00:00Z")
+        );
+        verify(commandHandler, never()).handle(any());
+    }
+
+    @Test
+    @DisplayName("Should acknowledge after group commit when durable-ack is enabled")
+    void should_acknowledge_after_commit_with_durable_ack() throws Exception {
+        // Given
+        when(ingestor.isDurableAck()).thenReturn(true);
+        when(ingestor.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When & Then
+        mockMvc
+            .perform(
+                post("/telemetry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(PAYLOAD)
+            )
+            .andExpect(status().isAccepted());
+
+        verify(ingestor).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should return service unavailable when the ingest queue is full")
+    void should_return_service_unavailable_when_queue_full() throws Exception {
+        // Given
+        when(ingestor.submit(any())).thenThrow(
+            new IngestRejectedException("ingest queue is full")
+        );
+
+        // When & Then
+        mockMvc
+            .perform(
+                post("/telemetry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(PAYLOAD)
+            )
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"));
+
+        verify(commandHandler, never()).handle(any());
+    }
+
+    @Test
+    @DisplayName("Should return service unavailable when the durable ack times out")
+    void should_return_service_unavailable_when_durable_ack_times_out() throws Exception {
+        // Given - The group never commits
+        when(ingestor.isDurableAck()).thenReturn(true);
+        when(ingestor.durableAckTimeoutMs()).thenReturn(50L);
+        when(ingestor.submit(any())).thenReturn(new CompletableFuture<>());
+
+        // When & Then
+        mockMvc
+            .perform(
+                post("/telemetry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(PAYLOAD)
+            )
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"));
+    }
+}
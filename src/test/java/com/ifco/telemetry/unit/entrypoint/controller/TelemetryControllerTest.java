@@ -3,14 +3,21 @@ package com.ifco.telemetry.unit.entrypoint.controller;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.ifco.telemetry.command.RecordTelemetryBatchCommand;
+import com.ifco.telemetry.command.RecordTelemetryBatchCommandHandler;
+import com.ifco.telemetry.command.RecordTelemetryBatchResult;
 import com.ifco.telemetry.command.RecordTelemetryCommand;
 import com.ifco.telemetry.command.RecordTelemetryCommandHandler;
 import com.ifco.telemetry.controller.TelemetryController;
 import java.time.Instant;
+import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -31,6 +38,9 @@ class TelemetryControllerTest {
     @MockBean
     private RecordTelemetryCommandHandler commandHandler;
 
+    @MockBean
+    private RecordTelemetryBatchCommandHandler batchCommandHandler;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -166,4 +176,227 @@ class TelemetryControllerTest {
 
         verify(commandHandler, never()).handle(any());
     }
+
+    @Test
+    @DisplayName(
+        "Should decode fractional and offset dates and ignore unknown fields"
+    )
+    void should_decode_fractional_and_offset_dates_and_ignore_unknown_fields()
+        throws Exception {
+        // Given - Field order, an unknown field and two date shapes
+        String fractionalUtc = """
+            {
+                "date": "2024-02-29T23:59:59.123456789Z",
+                "firmware": { "version": "1.2.3", "flags": [1, 2] },
+                "measurement": -3,
+                "deviceId": 7
+            }
+            """;
+        String withOffset = """
+            {
+                "deviceId": 8,
+                "measurement": 21.5,
+                "date": "2025-01-31T14:00:00.5+01:00"
+            }
+            """;
+
+        // When
+        for (String payload : List.of(fractionalUtc, withOffset)) {
+            mockMvc
+                .perform(
+                    post("/telemetry")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload)
+                )
+                .andExpect(status().isAccepted());
+        }
+
+        // Then
+        ArgumentCaptor<RecordTelemetryCommand> captor = ArgumentCaptor.forClass(
+            RecordTelemetryCommand.class
+        );
+        verify(commandHandler, times(2)).handle(captor.capture());
+        assertThat(captor.getAllValues()).containsExactly(
+            new RecordTelemetryCommand(
+                7L,
+                -3.0,
+                Instant.parse("2024-02-29T23:59:59.123456789Z")
+            ),
+            new RecordTelemetryCommand(
+                8L,
+                21.5,
+                Instant.parse("2025-01-31T13:00:00.5Z")
+            )
+        );
+    }
+
+    @Test
+    @DisplayName("Should accept numbers sent as strings, as Jackson does")
+    void should_accept_numbers_sent_as_strings() throws Exception {
+        // Given
+        String payload = """
+            {
+                "deviceId": "7",
+                "measurement": " 21.5 ",
+                "date": "2025-01-31T13:00:00Z"
+            }
+            """;
+
+        // When
+        mockMvc
+            .perform(
+                post("/telemetry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(payload)
+            )
+            .andExpect(status().isAccepted());
+
+        // Then
+        verify(commandHandler).handle(
+            new RecordTelemetryCommand(
+                7L,
+                21.5,
+                Instant.parse("2025-01-31T13:00:00Z")
+            )
+        );
+    }
+
+    @Test
+    @DisplayName("Should return bad request for malformed or mistyped payloads")
+    void should_return_bad_request_for_malformed_or_mistyped_payloads()
+        throws Exception {
+        // Given
+        List<String> invalidPayloads = List.of(
+            "{\"deviceId\": 1, \"measurement\": 10.0,",
+            "[1, 10.0, \"2025-01-31T13:00:00Z\"]",
+            "{\"deviceId\": \"one\", \"measurement\": 10.0, \"date\": \"2025-01-31T13:00:00Z\"}",
+            "{\"deviceId\": \"\", \"measurement\": 10.0, \"date\": \"2025-01-31T13:00:00Z\"}",
+            "{\"deviceId\": 1, \"measurement\": \"warm\", \"date\": \"2025-01-31T13:00:00Z\"}",
+            "{\"deviceId\": 1, \"measurement\": 10.0, \"date\": \"2025-02-30T13:00:00Z\"}"
+        );
+
+        // When & Then
+        for (String payload : invalidPayloads) {
+            mockMvc
+                .perform(
+                    post("/telemetry")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload)
+                )
+                .andExpect(status().isBadRequest());
+        }
+
+        verify(commandHandler, never()).handle(any());
+    }
+
+    @Test
+    @DisplayName("Should accept batch and call handler with commands in order")
+    void should_accept_batch_and_call_handler_with_commands_in_order()
+        throws Exception {
+        // Given
+        String payload = """
+            {
+                "readings": [
+                    { "deviceId": 1, "measurement": 10.0, "date": "2025-01-31T13:00:00Z" },
+                    { "deviceId": 2, "measurement": 12.5, "date": "2025-01-31T13:00:05Z" }
+                ]
+            }
+            """;
+        when(batchCommandHandler.handle(any())).thenReturn(
+            new RecordTelemetryBatchResult(2, List.of())
+        );
+
+        // When
+        mockMvc
+            .perform(
+                post("/telemetry/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(payload)
+            )
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.accepted").value(2))
+            .andExpect(jsonPath("$.rejected").isEmpty());
+
+        // Then - Verify handler called with readings mapped to commands
+        ArgumentCaptor<RecordTelemetryBatchCommand> captor =
+            ArgumentCaptor.forClass(RecordTelemetryBatchCommand.class);
+        verify(batchCommandHandler).handle(captor.capture());
+
+        List<RecordTelemetryCommand> commands = captor.getValue().commands();
+        assertThat(commands).containsExactly(
+            new RecordTelemetryCommand(
+                1L,
+                10.0,
+                Instant.parse("2025-01-31T13:00:00Z")
+            ),
+            new RecordTelemetryCommand(
+                2L,
+                12.5,
+                Instant.parse("2025-01-31T13:00:05Z")
+            )
+        );
+    }
+
+    @Test
+    @DisplayName("Should report rejected batch items by index")
+    void should_report_rejected_batch_items_by_index() throws Exception {
+        // Given - Second reading has no measurement
+        String payload = """
+            {
+                "readings": [
+                    { "deviceId": 1, "measurement": 10.0, "date": "2025-01-31T13:00:00Z" },
+                    { "deviceId": 2, "date": "2025-01-31T13:00:05Z" }
+                ]
+            }
+            """;
+        when(batchCommandHandler.handle(any())).thenReturn(
+            new RecordTelemetryBatchResult(
+                1,
+                List.of(
+                    new RecordTelemetryBatchResult.RejectedItem(
+                        1,
+                        "temperature cannot be null"
+                    )
+                )
+            )
+        );
+
+        // When & Then
+        mockMvc
+            .perform(
+                post("/telemetry/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(payload)
+            )
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.accepted").value(1))
+            .andExpect(jsonPath("$.rejected[0].index").value(1))
+            .andExpect(
+                jsonPath("$.rejected[0].reason").value(
+                    "temperature cannot be null"
+                )
+            );
+    }
+
+    @Test
+    @DisplayName("Should return bad request for empty batch")
+    void should_return_bad_request_for_empty_batch() throws Exception {
+        // Given
+        String payload = """
+            {
+                "readings": []
+            }
+            """;
+
+        // When & Then
+        mockMvc
+            .perform(
+                post("/telemetry/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(payload)
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(batchCommandHandler, never()).handle(any());
+    }
 }
@@ -0,0 +1,74 @@
+package com.ifco.telemetry.unit.entrypoint.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.controller.TelemetryRequest;
+import com.ifco.telemetry.controller.TelemetryRequestDecoder;
+import com.ifco.telemetry.controller.TelemetryRequestMessageConverter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+/**
+ * Unit tests for TelemetryRequestMessageConverter and TelemetryRequestDecoder.
+ * Verifies requests are read but never written and that decoding stays within its
+ * allocation ceiling (see TelemetryRequestBindingBenchmark for the JMH target).
+ */
+class TelemetryRequestMessageConverterTest {
+
+    // Well above the ~400 B/op JMH target, well below databinding or java.time parsing
+    private static final long MAX_BYTES_PER_DECODE = 1536;
+
+    private final TelemetryRequestMessageConverter converter = new TelemetryRequestMessageConverter();
+
+    @Test
+    @DisplayName("Should read a request and leave writing to Jackson")
+    void should_read_but_not_write_requests() throws IOException {
+        // Given
+        byte[] body = "{\"deviceId\":-7,\"measurement\":21.5,\"date\":\"2024-02-29T23:59:59.123456789Z\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+        // When
+        TelemetryRequest read = converter.read(TelemetryRequest.class, new MockHttpInputMessage(body));
+
+        // Then
+        assertThat(read).isEqualTo(new TelemetryRequest(
+            -7L,
+            21.5,
+            Instant.parse("2024-02-29T23:59:59.123456789Z")
+        ));
+        assertThat(converter.canRead(TelemetryRequest.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(TelemetryRequest.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should decode a reading within the allocation ceiling")
+    void should_decode_within_allocation_ceiling() throws IOException {
+        // Given - Warmed up until the JIT has compiled the decoder
+        TelemetryRequestDecoder decoder = new TelemetryRequestDecoder();
+        byte[] payload = "{\"deviceId\":42,\"measurement\":21.5,\"date\":\"2025-01-31T13:00:00.123Z\"}"
+            .getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 50_000; i++) {
+            decoder.decode(new ByteArrayInputStream(payload));
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // When
+        int iterations = 10_000;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            decoder.decode(new ByteArrayInputStream(payload));
+        }
+        long bytesPerDecode = (threads.getCurrentThreadAllocatedBytes() - before) / iterations;
+
+        // Then
+        assertThat(bytesPerDecode).isLessThanOrEqualTo(MAX_BYTES_PER_DECODE);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ifco.telemetry.unit.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.config.KafkaConfig;
+import com.ifco.telemetry.event.DeadLetterReplayer;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.ProjectionRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for the retry topics, the DLT and DeadLetterReplayer against a real broker.
+ * Records are produced with plain Kafka clients, so the test controls their exact bytes.
+ */
+@SpringBootTest
+@Import(UnitTestConfiguration.class)
+class DeadLetterHandlingUnitTest extends TestContainersBase {
+
+    @Autowired
+    private DeadLetterReplayer deadLetterReplayer;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Test
+    @DisplayName("Should dead-letter an undeserializable event with its key, headers and exception")
+    void should_dead_letter_undeserializable_event_with_key_headers_and_exception() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        ProducerRecord<String, String> poison = new ProducerRecord<>(KafkaConfig.TELEMETRY_TOPIC, key, "not json");
+        poison.headers().add("trace-id", "abc".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        send(poison);
+
+        // Then
+        List<ConsumerRecord<String, String>> deadLettered = new ArrayList<>();
+        try (KafkaConsumer<String, String> consumer = dltConsumer()) {
+            await()
+                .atMost(Duration.ofSeconds(20))
+                .untilAsserted(() -> {
+                    consumer.poll(Duration.ofMillis(200)).forEach(record -> {
+                        if (key.equals(record.key())) {
+                            deadLettered.add(record);
+                        }
+                    });
+                    assertThat(deadLettered).hasSize(1);
+                });
+        }
+        ConsumerRecord<String, String> record = deadLettered.get(0);
+        assertThat(record.value()).isEqualTo("not json");
+        assertThat(header(record, "trace-id")).isEqualTo("abc");
+        assertThat(header(record, "kafka_dlt-original-topic")).isEqualTo(KafkaConfig.TELEMETRY_TOPIC);
+        assertThat(record.headers().lastHeader("kafka_dlt-exception-fqcn")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should replay dead-lettered events into the projections")
+    void should_replay_dead_lettered_events_into_projections() throws Exception {
+        // Given - An event dead-lettered while Redis was down, say
+        long deviceId = 7_000_000L + (System.nanoTime() & 0xFFFF);
+        send(new ProducerRecord<>(
+            KafkaConfig.TELEMETRY_DLT,
+            String.valueOf(deviceId),
+            "{\"deviceId\":" + deviceId + ",\"temperature\":21.5,\"date\":\"2025-01-31T13:00:00Z\"}"
+        ));
+
+        // When
+        DeadLetterReplayer.Progress started = deadLetterReplayer.start(1000, null);
+
+        // Then
+        assertThat(started.state()).isEqualTo(DeadLetterReplayer.State.RUNNING);
+        await()
+            .atMost(Duration.ofSeconds(20))
+            .untilAsserted(() -> {
+                assertThat(deadLetterReplayer.progress().state()).isEqualTo(DeadLetterReplayer.State.COMPLETED);
+                Optional<DeviceProjection> projection = projectionRepository.findById(deviceId);
+                assertThat(projection).isPresent();
+                assertThat(projection.get().getLastMeasurement()).isEqualTo(21.5);
+            });
+        assertThat(deadLetterReplayer.progress().replayed()).isPositive();
+    }
+
+    private void send(ProducerRecord<String, String> record) throws Exception {
+        Map<String, Object> props = Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        try (KafkaProducer<String, String> producer =
+                 new KafkaProducer<>(props, new StringSerializer(), new StringSerializer())) {
+            producer.send(record).get();
+        }
+    }
+
+    private KafkaConsumer<String, String> dltConsumer() {
+        KafkaConsumer<String, String> consumer = new KafkaConsumer<>(
+            Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.GROUP_ID_CONFIG, "dlt-test-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"
+            ),
+            new StringDeserializer(),
+            new StringDeserializer()
+        );
+        consumer.subscribe(List.of(KafkaConfig.TELEMETRY_DLT));
+        return consumer;
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
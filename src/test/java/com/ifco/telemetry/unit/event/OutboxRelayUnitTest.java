@@ -0,0 +1,159 @@
+package com.ifco.telemetry.unit.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.domain.OutboxEvent;
+import com.ifco.telemetry.event.OutboxRelay;
+import com.ifco.telemetry.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for OutboxRelay with a mocked KafkaTemplate.
+ * Verifies that only acknowledged events leave the outbox, that claimed rows are leased
+ * to one relay until they are released or the lease expires, and that no transaction is
+ * open while Kafka is being waited for.
+ */
+@SpringBootTest(
+    classes = { OutboxRelay.class },
+    properties = {
+        "telemetry.outbox.relay.send-timeout-ms=200",
+        "telemetry.outbox.relay.lease-ms=60000"
+    }
+)
+@EnableAutoConfiguration
+@Import(UnitTestConfiguration.class)
+class OutboxRelayUnitTest extends TestContainersBase {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @BeforeEach
+    void clearData() {
+        outboxRepository.deleteAllInBatch();
+        Mockito.reset(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Should keep only the events Kafka did not acknowledge in the outbox")
+    void should_keep_only_unacknowledged_events_in_outbox() {
+        // Given - The broker rejects the event of device 2
+        saveEvents(1L, 2L, 3L);
+        AtomicBoolean sentInTransaction = new AtomicBoolean();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sentInTransaction.compareAndSet(false, TransactionSynchronizationManager.isActualTransactionActive());
+            ProducerRecord<String, Object> record = invocation.getArgument(0);
+            if ("2".equals(record.key())) {
+                return CompletableFuture.failedFuture(
+                    new KafkaProducerException(record, "Send failed", new RecordTooLargeException())
+                );
+            }
+            return CompletableFuture.completedFuture((SendResult<String, Object>) null);
+        });
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        assertThat(outboxRepository.findAll())
+            .extracting(OutboxEvent::getDeviceId)
+            .containsExactly(2L);
+        assertThat(meterRegistry.get("telemetry.outbox.relay.send.failures")
+            .tag("exception", "RecordTooLargeException")
+            .counter()
+            .count()).isEqualTo(1.0);
+        assertThat(sentInTransaction).isFalse();
+
+        // When - The broker accepts it on the next poll
+        Mockito.reset(kafkaTemplate);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture((SendResult<String, Object>) null));
+        outboxRelay.relay();
+
+        // Then - The rejected event was released, not left leased
+        assertThat(outboxRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep events whose send timed out leased until the lease expires")
+    void should_keep_timed_out_events_leased() {
+        // Given - The broker never answers
+        saveEvents(1L);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        outboxRelay.relay();
+
+        // When - The broker is back, but the send may still land
+        Mockito.reset(kafkaTemplate);
+        outboxRelay.relay();
+
+        // Then - The event is neither resent nor dropped while its lease runs
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        assertThat(outboxRepository.findAll()).extracting(OutboxEvent::getDeviceId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should skip claimed events until their lease expires")
+    void should_skip_claimed_events_until_lease_expires() {
+        // Given
+        saveEvents(1L, 2L, 3L);
+
+        // When - Two relays claim concurrently
+        List<OutboxEvent> first = outboxRepository.claimNextBatch(2, 60_000);
+        List<OutboxEvent> second = outboxRepository.claimNextBatch(10, 60_000);
+
+        // Then - Each event is claimed once, oldest first (RETURNING order is not guaranteed)
+        assertThat(first).extracting(OutboxEvent::getDeviceId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(second).extracting(OutboxEvent::getDeviceId).containsExactly(3L);
+        assertThat(outboxRepository.claimNextBatch(10, 60_000)).isEmpty();
+
+        // When - A relay dies with an already expired lease
+        outboxRepository.deleteAllInBatch();
+        saveEvents(4L);
+        outboxRepository.claimNextBatch(10, -1);
+
+        // Then - Another relay picks the event up again
+        assertThat(outboxRepository.claimNextBatch(10, 60_000))
+            .extracting(OutboxEvent::getDeviceId)
+            .containsExactly(4L);
+    }
+
+    private void saveEvents(Long... deviceIds) {
+        Instant now = Instant.now();
+        for (Long deviceId : deviceIds) {
+            outboxRepository.save(new OutboxEvent(deviceId, deviceId * 10.0, now, now));
+        }
+    }
+}
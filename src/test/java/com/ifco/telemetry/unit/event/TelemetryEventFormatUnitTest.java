@@ -0,0 +1,84 @@
+package com.ifco.telemetry.unit.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.config.KafkaConfig;
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.event.TelemetryRecordedEventSerializer;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.ProjectionRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for the event wire formats: the projection consumers read a topic holding
+ * both JSON (no schema header, as written before the binary format) and binary events.
+ */
+@SpringBootTest
+@Import(UnitTestConfiguration.class)
+class TelemetryEventFormatUnitTest extends TestContainersBase {
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @BeforeEach
+    void clearData() {
+        projectionRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should apply JSON and binary events from the same topic")
+    void should_apply_json_and_binary_events_from_same_topic() throws Exception {
+        // Given
+        TelemetryRecordedEvent jsonEvent =
+            new TelemetryRecordedEvent(8_101L, 18.5, Instant.parse("2025-01-31T13:00:00.123456Z"));
+        TelemetryRecordedEvent binaryEvent =
+            new TelemetryRecordedEvent(8_102L, -4.25, Instant.parse("2025-01-31T13:00:01.654321Z"));
+
+        // When
+        send("json", jsonEvent);
+        send("binary", binaryEvent);
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .untilAsserted(() -> assertThat(projectionRepository.findAllById(List.of(8_101L, 8_102L))).containsExactly(
+                new DeviceProjection(8_101L, 18.5, jsonEvent.date()),
+                new DeviceProjection(8_102L, -4.25, binaryEvent.date())
+            ));
+    }
+
+    private void send(String format, TelemetryRecordedEvent event) throws Exception {
+        Map<String, Object> props = Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        try (KafkaProducer<String, TelemetryRecordedEvent> producer = new KafkaProducer<>(
+            props,
+            new StringSerializer(),
+            new TelemetryRecordedEventSerializer(format)
+        )) {
+            producer.send(new ProducerRecord<>(
+                KafkaConfig.TELEMETRY_TOPIC,
+                String.valueOf(event.deviceId()),
+                event
+            )).get();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ifco.telemetry.unit.event;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.ifco.telemetry.TestContainersBase;
 import com.ifco.telemetry.UnitTestConfiguration;
@@ -8,14 +9,18 @@ import com.ifco.telemetry.event.TelemetryRecordedEvent;
 import com.ifco.telemetry.event.TelemetryRecordedEventHandler;
 import com.ifco.telemetry.projection.DeviceProjection;
 import com.ifco.telemetry.repository.ProjectionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 
 @SpringBootTest
 @Import(UnitTestConfiguration.class)
@@ -27,6 +32,9 @@ class TelemetryRecordedEventHandlerUnitTest extends TestContainersBase {
     @Autowired
     private ProjectionRepository projectionRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void clearData() {
         projectionRepository.deleteAll();
@@ -261,4 +269,146 @@ class TelemetryRecordedEventHandlerUnitTest extends TestContainersBase {
             Instant.parse("2025-01-31T13:00:10Z")
         );
     }
+
+    @Test
+    @DisplayName("Should keep newest event per device when applying a batch")
+    void should_keep_newest_event_per_device_when_applying_batch() {
+        // When - Batch with several events per device, out of order
+        eventHandler.handleAll(
+            List.of(
+                new TelemetryRecordedEvent(
+                    1L,
+                    10.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ),
+                new TelemetryRecordedEvent(
+                    1L,
+                    20.0,
+                    Instant.parse("2025-01-31T13:00:10Z")
+                ),
+                new TelemetryRecordedEvent(
+                    2L,
+                    8.0,
+                    Instant.parse("2025-01-31T13:00:05Z")
+                ),
+                new TelemetryRecordedEvent(
+                    1L,
+                    15.0,
+                    Instant.parse("2025-01-31T13:00:05Z")
+                )
+            )
+        );
+
+        // Then - Each device holds its chronologically latest reading
+        assertThat(projectionRepository.findById(1L))
+            .get()
+            .extracting(DeviceProjection::getLastMeasurement)
+            .isEqualTo(20.0);
+        assertThat(projectionRepository.findById(2L))
+            .get()
+            .extracting(DeviceProjection::getLastMeasurement)
+            .isEqualTo(8.0);
+    }
+
+    @Test
+    @DisplayName("Should not overwrite newer projection when applying a batch")
+    void should_not_overwrite_newer_projection_when_applying_batch() {
+        // Given - Projection newer than anything in the batch
+        projectionRepository.save(
+            new DeviceProjection(
+                1L,
+                30.0,
+                Instant.parse("2025-01-31T13:01:00Z")
+            )
+        );
+
+        // When
+        eventHandler.handleAll(
+            List.of(
+                new TelemetryRecordedEvent(
+                    1L,
+                    10.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ),
+                new TelemetryRecordedEvent(
+                    2L,
+                    12.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                )
+            )
+        );
+
+        // Then - Device 1 unchanged, device 2 created
+        assertThat(projectionRepository.findById(1L))
+            .get()
+            .extracting(DeviceProjection::getLastMeasurement)
+            .isEqualTo(30.0);
+        assertThat(projectionRepository.findById(2L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should count updated, ignored and collapsed events")
+    void should_count_events_by_outcome() {
+        // Given - Device 1 already has a newer projection
+        projectionRepository.save(
+            new DeviceProjection(1L, 30.0, Instant.parse("2025-01-31T13:01:00Z"))
+        );
+        double updatedBefore = eventCount("updated");
+        double ignoredBefore = eventCount("ignored");
+        double collapsedBefore = eventCount("collapsed");
+
+        // When - One older event for device 1, two events for device 2 in one batch
+        eventHandler.handleAll(
+            List.of(
+                new TelemetryRecordedEvent(
+                    1L,
+                    10.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ),
+                new TelemetryRecordedEvent(
+                    2L,
+                    11.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ),
+                new TelemetryRecordedEvent(
+                    2L,
+                    12.0,
+                    Instant.parse("2025-01-31T13:00:05Z")
+                )
+            )
+        );
+
+        // Then
+        assertThat(eventCount("updated") - updatedBefore).isEqualTo(1.0);
+        assertThat(eventCount("ignored") - ignoredBefore).isEqualTo(1.0);
+        assertThat(eventCount("collapsed") - collapsedBefore).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should pinpoint the event at fault when a batch fails")
+    void should_pinpoint_failing_event_of_a_batch() {
+        // Given - Device 2's event cannot be stored
+        Instant date = Instant.parse("2025-01-31T13:00:00Z");
+        List<ConsumerRecord<String, TelemetryRecordedEvent>> records = List.of(
+            new ConsumerRecord<>("telemetry.events", 0, 0L, "1", new TelemetryRecordedEvent(1L, 10.0, date)),
+            new ConsumerRecord<>("telemetry.events", 0, 1L, "2", new TelemetryRecordedEvent(2L, null, date)),
+            new ConsumerRecord<>("telemetry.events", 0, 2L, "3", new TelemetryRecordedEvent(3L, 30.0, date))
+        );
+
+        // When & Then - Only that record is reported, the one before it is applied
+        assertThatThrownBy(() -> eventHandler.onBatch(records))
+            .isInstanceOfSatisfying(BatchListenerFailedException.class, e ->
+                assertThat(e.getRecord()).isSameAs(records.get(1))
+            );
+        assertThat(projectionRepository.findById(1L)).isPresent();
+        assertThat(projectionRepository.findById(3L)).isEmpty();
+    }
+
+    private double eventCount(String outcome) {
+        return meterRegistry
+            .get("telemetry.projection.events")
+            .tag("outcome", outcome)
+            .counter()
+            .count();
+    }
 }
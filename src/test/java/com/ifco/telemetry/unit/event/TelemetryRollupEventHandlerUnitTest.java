@@ -0,0 +1,180 @@
+package com.ifco.telemetry.unit.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.domain.RollupResolution;
+import com.ifco.telemetry.domain.TelemetryRollupBucket;
+import com.ifco.telemetry.event.OutboxRelay;
+import com.ifco.telemetry.event.TelemetryRecordedEvent;
+import com.ifco.telemetry.event.TelemetryRollupEventHandler;
+import com.ifco.telemetry.repository.TelemetryRollupRepository;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for TelemetryRollupEventHandler against the real rollup tables.
+ * Records are built by hand (own topic name, listener disabled), so the test
+ * controls offsets, event ids and redelivery.
+ */
+@SpringBootTest(properties = "telemetry.rollup.enabled=false")
+@Import(UnitTestConfiguration.class)
+class TelemetryRollupEventHandlerUnitTest extends TestContainersBase {
+
+    private static final String TOPIC = "telemetry.events.rollup-test";
+    private static final long DEVICE = 901L;
+    private static final Instant FROM = Instant.parse("2025-01-31T00:00:00Z");
+    private static final Instant TO = Instant.parse("2025-02-01T00:00:00Z");
+
+    @Autowired
+    private TelemetryRollupEventHandler eventHandler;
+
+    @Autowired
+    private TelemetryRollupRepository rollupRepository;
+
+    @BeforeEach
+    void clearData() {
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should aggregate readings per bucket, including late ones")
+    void should_aggregate_readings_per_bucket_including_late_ones() {
+        // Given - Two readings in the same minute, then a late one an hour earlier
+        eventHandler.handleAll(List.of(
+            record(0, 10.0, "2025-01-31T13:00:10Z"),
+            record(1, 14.0, "2025-01-31T13:00:50Z"),
+            record(2, 12.0, "2025-01-31T13:01:05Z")
+        ));
+
+        // When
+        eventHandler.handleAll(List.of(record(3, 6.0, "2025-01-31T12:59:00Z")));
+
+        // Then
+        assertThat(buckets(RollupResolution.ONE_MINUTE, Duration.ofMinutes(1))).containsExactly(
+            bucket("2025-01-31T12:59:00Z", 1, 6.0, 6.0, 6.0),
+            bucket("2025-01-31T13:00:00Z", 2, 24.0, 10.0, 14.0),
+            bucket("2025-01-31T13:01:00Z", 1, 12.0, 12.0, 12.0)
+        );
+        assertThat(buckets(RollupResolution.ONE_HOUR, Duration.ofHours(1))).containsExactly(
+            bucket("2025-01-31T12:00:00Z", 1, 6.0, 6.0, 6.0),
+            bucket("2025-01-31T13:00:00Z", 3, 36.0, 10.0, 14.0)
+        );
+        assertThat(buckets(RollupResolution.ONE_DAY, Duration.ofDays(1))).containsExactly(
+            bucket("2025-01-31T00:00:00Z", 4, 42.0, 6.0, 14.0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should not count redelivered records twice")
+    void should_not_count_redelivered_records_twice() {
+        // Given
+        List<ConsumerRecord<String, TelemetryRecordedEvent>> batch = List.of(
+            record(0, 10.0, "2025-01-31T13:00:10Z"),
+            record(1, 14.0, "2025-01-31T13:00:50Z")
+        );
+        eventHandler.handleAll(batch);
+
+        // When - The same batch again (e.g. after a rebalance), followed by a new record
+        eventHandler.handleAll(List.of(batch.get(0), batch.get(1), record(2, 18.0, "2025-01-31T13:00:55Z")));
+
+        // Then
+        assertThat(buckets(RollupResolution.ONE_DAY, Duration.ofDays(1))).containsExactly(
+            bucket("2025-01-31T00:00:00Z", 3, 42.0, 10.0, 18.0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should not count an event the relay sent twice")
+    void should_not_count_resent_event_twice() {
+        // Given - Event 7 applied once
+        eventHandler.handleAll(List.of(record(0, 10.0, "2025-01-31T13:00:10Z", 7L)));
+
+        // When - Sent again at a new offset, also twice within one batch, next to a new event
+        eventHandler.handleAll(List.of(
+            record(1, 10.0, "2025-01-31T13:00:10Z", 7L),
+            record(2, 14.0, "2025-01-31T13:00:50Z", 8L),
+            record(3, 14.0, "2025-01-31T13:00:50Z", 8L)
+        ));
+
+        // Then
+        assertThat(buckets(RollupResolution.ONE_DAY, Duration.ofDays(1))).containsExactly(
+            bucket("2025-01-31T00:00:00Z", 2, 24.0, 10.0, 14.0)
+        );
+
+        // When - The ids are pruned, a resend is counted again
+        rollupRepository.deleteAppliedEventsOlderThan(Duration.ofSeconds(-60));
+        eventHandler.handleAll(List.of(record(4, 10.0, "2025-01-31T13:00:10Z", 7L)));
+
+        // Then
+        assertThat(buckets(RollupResolution.ONE_DAY, Duration.ofDays(1))).containsExactly(
+            bucket("2025-01-31T00:00:00Z", 3, 34.0, 10.0, 14.0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should align buckets to an unaligned from")
+    void should_align_buckets_to_unaligned_from() {
+        // Given - One reading before from, one in each hour after it
+        eventHandler.handleAll(List.of(
+            record(0, 8.0, "2025-01-31T10:15:00Z"),
+            record(1, 10.0, "2025-01-31T10:45:00Z"),
+            record(2, 12.0, "2025-01-31T11:20:00Z"),
+            record(3, 14.0, "2025-01-31T11:40:00Z")
+        ));
+
+        // When - 1h buckets from 10:30, read from the minute rollups
+        List<TelemetryRollupBucket> buckets = rollupRepository.findBuckets(
+            RollupResolution.ONE_MINUTE,
+            DEVICE,
+            Instant.parse("2025-01-31T10:30:00Z"),
+            Instant.parse("2025-01-31T12:30:00Z"),
+            Duration.ofHours(1)
+        );
+
+        // Then - No partial 10:00 bucket; each bucket covers a full hour from 10:30
+        assertThat(buckets).containsExactly(
+            bucket("2025-01-31T10:30:00Z", 2, 22.0, 10.0, 12.0),
+            bucket("2025-01-31T11:30:00Z", 1, 14.0, 14.0, 14.0)
+        );
+    }
+
+    private List<TelemetryRollupBucket> buckets(RollupResolution resolution, Duration size) {
+        return rollupRepository.findBuckets(resolution, DEVICE, FROM, TO, size);
+    }
+
+    private static ConsumerRecord<String, TelemetryRecordedEvent> record(long offset, double temperature, String date) {
+        return new ConsumerRecord<>(
+            TOPIC,
+            0,
+            offset,
+            String.valueOf(DEVICE),
+            new TelemetryRecordedEvent(DEVICE, temperature, Instant.parse(date))
+        );
+    }
+
+    private static ConsumerRecord<String, TelemetryRecordedEvent> record(
+        long offset,
+        double temperature,
+        String date,
+        long eventId
+    ) {
+        ConsumerRecord<String, TelemetryRecordedEvent> record = record(offset, temperature, date);
+        record.headers().add(OutboxRelay.EVENT_ID_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(eventId).array());
+        return record;
+    }
+
+    private static TelemetryRollupBucket bucket(String start, long count, double sum, double min, double max) {
+        return new TelemetryRollupBucket(DEVICE, Instant.parse(start), count, sum, min, max);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ifco.telemetry.unit.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.domain.Telemetry;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.projection.ProjectionRebuilder;
+import com.ifco.telemetry.repository.ProjectionRepository;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for ProjectionRebuilder against the real write model and Redis.
+ * Small slices and chunks, so a handful of devices spans several of each.
+ */
+@SpringBootTest(properties = {
+    "telemetry.projection.rebuild.parallelism=2",
+    "telemetry.projection.rebuild.slices=3",
+    "telemetry.projection.rebuild.chunk-size=2"
+})
+@Import(UnitTestConfiguration.class)
+class ProjectionRebuilderUnitTest extends TestContainersBase {
+
+    @Autowired
+    private ProjectionRebuilder projectionRebuilder;
+
+    @Autowired
+    private TelemetryRepository telemetryRepository;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @BeforeEach
+    void clearData() {
+        telemetryRepository.deleteAll();
+        projectionRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the latest reading of every device without overwriting newer projections")
+    void should_rebuild_latest_readings_without_overwriting_newer_projections() {
+        // Given - Several readings per device, stored out of order
+        telemetryRepository.saveAll(List.of(
+            new Telemetry(1L, 10.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new Telemetry(1L, 11.0, Instant.parse("2025-01-31T13:05:00Z")),
+            new Telemetry(1L, 9.0, Instant.parse("2025-01-31T12:55:00Z")),
+            new Telemetry(2L, 20.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new Telemetry(3L, 30.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new Telemetry(7L, 70.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new Telemetry(100L, 1000.0, Instant.parse("2025-01-31T13:00:00Z"))
+        ));
+        // And - A live event already projected a newer reading of device 2
+        projectionRepository.save(new DeviceProjection(2L, 25.0, Instant.parse("2025-01-31T14:00:00Z")));
+        // And - A stale projection of device 3
+        projectionRepository.save(new DeviceProjection(3L, 0.0, Instant.parse("2025-01-30T00:00:00Z")));
+
+        // When
+        projectionRebuilder.start();
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .until(() -> projectionRebuilder.progress().state() != ProjectionRebuilder.State.RUNNING);
+        ProjectionRebuilder.Progress progress = projectionRebuilder.progress();
+        assertThat(progress.state()).isEqualTo(ProjectionRebuilder.State.COMPLETED);
+        assertThat(progress.slices()).isEqualTo(3);
+        assertThat(progress.slicesCompleted()).isEqualTo(3);
+        assertThat(progress.devices()).isEqualTo(5);
+        assertThat(progress.written()).isEqualTo(4);
+
+        assertThat(projectionRepository.findAllById(List.of(1L, 2L, 3L, 7L, 100L))).containsExactly(
+            new DeviceProjection(1L, 11.0, Instant.parse("2025-01-31T13:05:00Z")),
+            new DeviceProjection(2L, 25.0, Instant.parse("2025-01-31T14:00:00Z")),
+            new DeviceProjection(3L, 30.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new DeviceProjection(7L, 70.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new DeviceProjection(100L, 1000.0, Instant.parse("2025-01-31T13:00:00Z"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should complete with no slices when there is no telemetry")
+    void should_complete_with_no_slices_when_there_is_no_telemetry() {
+        // When
+        projectionRebuilder.start();
+
+        // Then
+        await()
+            .atMost(Duration.ofSeconds(10))
+            .until(() -> projectionRebuilder.progress().state() != ProjectionRebuilder.State.RUNNING);
+        ProjectionRebuilder.Progress progress = projectionRebuilder.progress();
+        assertThat(progress.state()).isEqualTo(ProjectionRebuilder.State.COMPLETED);
+        assertThat(progress.slices()).isZero();
+        assertThat(progress.devices()).isZero();
+        assertThat(projectionRepository.findAll()).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ifco.telemetry.unit.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.query.DeviceTemperatureDTO;
+import com.ifco.telemetry.query.GetDeviceTemperaturesQueryHandler;
+import com.ifco.telemetry.repository.ProjectionRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest
+@Import(UnitTestConfiguration.class)
+class GetDeviceTemperaturesQueryHandlerUnitTest extends TestContainersBase {
+
+    @Autowired
+    private GetDeviceTemperaturesQueryHandler queryHandler;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @BeforeEach
+    void clearData() {
+        projectionRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should return a single device's projection as DTO")
+    void should_return_single_device_projection() {
+        // Given
+        projectionRepository.save(new DeviceProjection(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z")));
+
+        // When & Then
+        assertThat(queryHandler.handle(1L)).contains(
+            new DeviceTemperatureDTO(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z"))
+        );
+        assertThat(queryHandler.handle(2L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return requested devices in request order, skipping unknown ones")
+    void should_return_requested_devices_in_request_order() {
+        // Given - More devices than fit in one MGET
+        Instant date = Instant.parse("2025-01-31T13:00:00Z");
+        LongStream.rangeClosed(1, 2500).forEach(id ->
+            projectionRepository.save(new DeviceProjection(id, (double) id, date))
+        );
+        List<Long> requested = new ArrayList<>(LongStream.rangeClosed(1, 2500).boxed().toList());
+        Collections.reverse(requested);
+        requested.add(1, 9999L);
+        requested.add(2500L);
+
+        // When
+        List<DeviceTemperatureDTO> results = queryHandler.handle(requested);
+
+        // Then
+        assertThat(results).hasSize(2500);
+        assertThat(results.get(0).deviceId()).isEqualTo(2500L);
+        assertThat(results.get(2499).deviceId()).isEqualTo(1L);
+        assertThat(results).allMatch(dto -> dto.measurement() == dto.deviceId().doubleValue());
+    }
+}
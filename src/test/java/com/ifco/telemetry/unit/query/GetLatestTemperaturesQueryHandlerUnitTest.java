@@ -10,6 +10,7 @@ import com.ifco.telemetry.query.GetLatestTemperaturesQueryHandler;
 import com.ifco.telemetry.repository.ProjectionRepository;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -111,4 +112,28 @@ class GetLatestTemperaturesQueryHandlerUnitTest extends TestContainersBase {
             Instant.parse("2025-01-31T14:30:00Z")
         );
     }
+
+    @Test
+    @DisplayName("Should stream every device across multiple index pages")
+    void should_stream_all_devices_across_pages() {
+        // Given - More devices than a single read page
+        projectionRepository.upsertAllIfNewer(
+            LongStream.rangeClosed(1, 2500)
+                .mapToObj(id -> new DeviceProjection(
+                    id,
+                    20.0,
+                    Instant.parse("2025-01-31T13:00:00Z")
+                ))
+                .toList()
+        );
+
+        // When
+        List<Long> deviceIds = queryHandler
+            .stream()
+            .map(DeviceTemperatureDTO::deviceId)
+            .toList();
+
+        // Then
+        assertThat(deviceIds).hasSize(2500).doesNotHaveDuplicates();
+    }
 }
@@ -0,0 +1,110 @@
+package com.ifco.telemetry.unit.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.domain.RollupResolution;
+import com.ifco.telemetry.domain.TelemetryRollupBucket;
+import com.ifco.telemetry.query.DeviceAggregatesDTO;
+import com.ifco.telemetry.query.GetTelemetryAggregatesQuery;
+import com.ifco.telemetry.query.GetTelemetryAggregatesQueryHandler;
+import com.ifco.telemetry.query.TelemetryAggregateDTO;
+import com.ifco.telemetry.repository.TelemetryRollupRepository;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for GetTelemetryAggregatesQueryHandler against the real rollup tables.
+ * Verifies which rollup serves a query and how its buckets are merged.
+ */
+@SpringBootTest(classes = { GetTelemetryAggregatesQueryHandler.class, TelemetryRollupRepository.class })
+@EnableAutoConfiguration
+@Import(UnitTestConfiguration.class)
+class GetTelemetryAggregatesQueryHandlerUnitTest extends TestContainersBase {
+
+    private static final long DEVICE = 902L;
+
+    @Autowired
+    private GetTelemetryAggregatesQueryHandler queryHandler;
+
+    @Autowired
+    private TelemetryRollupRepository rollupRepository;
+
+    @BeforeEach
+    void clearData() {
+        rollupRepository.deleteAll();
+        // Minute buckets 13:00, 13:10, 13:20; their hour and day buckets
+        rollupRepository.addAll(RollupResolution.ONE_MINUTE, List.of(
+            new TelemetryRollupBucket(DEVICE, Instant.parse("2025-01-31T13:00:00Z"), 2, 20.0, 8.0, 12.0),
+            new TelemetryRollupBucket(DEVICE, Instant.parse("2025-01-31T13:10:00Z"), 1, 14.0, 14.0, 14.0),
+            new TelemetryRollupBucket(DEVICE, Instant.parse("2025-01-31T13:20:00Z"), 1, 30.0, 30.0, 30.0)
+        ));
+        rollupRepository.addAll(RollupResolution.ONE_HOUR, List.of(
+            new TelemetryRollupBucket(DEVICE, Instant.parse("2025-01-31T13:00:00Z"), 4, 64.0, 8.0, 30.0)
+        ));
+        rollupRepository.addAll(RollupResolution.ONE_DAY, List.of(
+            new TelemetryRollupBucket(DEVICE, Instant.parse("2025-01-31T00:00:00Z"), 4, 64.0, 8.0, 30.0)
+        ));
+    }
+
+    @Test
+    @DisplayName("Should serve aligned daily queries from the daily rollup")
+    void should_serve_aligned_daily_queries_from_daily_rollup() {
+        // When
+        DeviceAggregatesDTO result = queryHandler.handle(new GetTelemetryAggregatesQuery(
+            DEVICE,
+            "1d",
+            Instant.parse("2025-01-31T00:00:00Z"),
+            Instant.parse("2025-02-01T00:00:00Z")
+        ));
+
+        // Then
+        assertThat(result.source()).isEqualTo("1d");
+        assertThat(result.buckets()).containsExactly(
+            new TelemetryAggregateDTO(Instant.parse("2025-01-31T00:00:00Z"), 4, 8.0, 30.0, 16.0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should merge minute buckets for sub-hour resolutions")
+    void should_merge_minute_buckets_for_sub_hour_resolutions() {
+        // When
+        DeviceAggregatesDTO result = queryHandler.handle(new GetTelemetryAggregatesQuery(
+            DEVICE,
+            "15m",
+            Instant.parse("2025-01-31T00:00:00Z"),
+            Instant.parse("2025-02-01T00:00:00Z")
+        ));
+
+        // Then
+        assertThat(result.source()).isEqualTo("1m");
+        assertThat(result.buckets()).containsExactly(
+            new TelemetryAggregateDTO(Instant.parse("2025-01-31T13:00:00Z"), 3, 8.0, 14.0, 34.0 / 3),
+            new TelemetryAggregateDTO(Instant.parse("2025-01-31T13:15:00Z"), 1, 30.0, 30.0, 30.0)
+        );
+    }
+
+    @Test
+    @DisplayName("Should fall back to a finer rollup for unaligned bounds")
+    void should_fall_back_to_finer_rollup_for_unaligned_bounds() {
+        // When - Daily buckets, but the range starts at 13:00
+        DeviceAggregatesDTO result = queryHandler.handle(new GetTelemetryAggregatesQuery(
+            DEVICE,
+            "1d",
+            Instant.parse("2025-01-31T13:00:00Z"),
+            Instant.parse("2025-02-01T00:00:00Z")
+        ));
+
+        // Then
+        assertThat(result.source()).isEqualTo("1h");
+        assertThat(result.buckets()).extracting(TelemetryAggregateDTO::count).containsExactly(4L);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ifco.telemetry.unit.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.domain.Telemetry;
+import com.ifco.telemetry.query.GetTelemetryHistoryQuery;
+import com.ifco.telemetry.query.GetTelemetryHistoryQueryHandler;
+import com.ifco.telemetry.query.TelemetryHistoryCursor;
+import com.ifco.telemetry.query.TelemetryReadingDTO;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Unit tests for GetTelemetryHistoryQueryHandler against the real write model.
+ * Verifies range bounds, ordering and that following the cursors visits every
+ * reading exactly once, including readings that share a timestamp.
+ */
+@SpringBootTest(classes = { GetTelemetryHistoryQueryHandler.class })
+@EnableAutoConfiguration
+@Import(UnitTestConfiguration.class)
+class GetTelemetryHistoryQueryHandlerUnitTest extends TestContainersBase {
+
+    @Autowired
+    private GetTelemetryHistoryQueryHandler queryHandler;
+
+    @Autowired
+    private TelemetryRepository telemetryRepository;
+
+    @BeforeEach
+    void clearData() {
+        telemetryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should page through a device's readings in the range, oldest first")
+    void should_page_through_readings_in_range_oldest_first() {
+        // Given - Stored out of order, two share a timestamp, one outside the range,
+        // one of another device
+        telemetryRepository.saveAll(List.of(
+            new Telemetry(1L, 13.0, Instant.parse("2025-01-31T13:00:10Z")),
+            new Telemetry(1L, 10.0, Instant.parse("2025-01-31T13:00:00Z")),
+            new Telemetry(1L, 11.0, Instant.parse("2025-01-31T13:00:05Z")),
+            new Telemetry(1L, 12.0, Instant.parse("2025-01-31T13:00:05Z")),
+            new Telemetry(1L, 99.0, Instant.parse("2025-02-01T00:00:00Z")),
+            new Telemetry(2L, 50.0, Instant.parse("2025-01-31T13:00:01Z"))
+        ));
+        Instant from = Instant.parse("2025-01-31T00:00:00Z");
+        Instant to = Instant.parse("2025-02-01T00:00:00Z");
+
+        // When - Follow the cursors with pages of two
+        List<List<TelemetryReadingDTO>> pages = new ArrayList<>();
+        TelemetryHistoryCursor cursor = null;
+        do {
+            List<TelemetryReadingDTO> page = new ArrayList<>();
+            cursor = queryHandler.handle(new GetTelemetryHistoryQuery(1L, from, to, 2, cursor), page::add);
+            pages.add(page);
+        } while (cursor != null);
+
+        // Then - Every reading in [from, to) once, in timestamp order
+        assertThat(pages).hasSize(2);
+        assertThat(pages.get(0)).hasSize(2);
+        assertThat(pages.stream().flatMap(List::stream).toList())
+            .extracting(TelemetryReadingDTO::date)
+            .containsExactly(
+                Instant.parse("2025-01-31T13:00:00Z"),
+                Instant.parse("2025-01-31T13:00:05Z"),
+                Instant.parse("2025-01-31T13:00:05Z"),
+                Instant.parse("2025-01-31T13:00:10Z")
+            );
+        assertThat(pages.stream().flatMap(List::stream).toList())
+            .extracting(TelemetryReadingDTO::measurement)
+            .containsExactlyInAnyOrder(10.0, 11.0, 12.0, 13.0);
+    }
+
+    @Test
+    @DisplayName("Should return an empty last page for an unknown device")
+    void should_return_empty_last_page_for_unknown_device() {
+        // Given
+        telemetryRepository.save(new Telemetry(1L, 10.0, Instant.parse("2025-01-31T13:00:00Z")));
+
+        // When
+        List<TelemetryReadingDTO> page = new ArrayList<>();
+        TelemetryHistoryCursor next = queryHandler.handle(
+            new GetTelemetryHistoryQuery(404L, null, null, GetTelemetryHistoryQuery.DEFAULT_LIMIT, null),
+            page::add
+        );
+
+        // Then
+        assertThat(page).isEmpty();
+        assertThat(next).isNull();
+    }
+}
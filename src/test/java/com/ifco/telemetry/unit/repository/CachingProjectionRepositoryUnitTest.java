@@ -0,0 +1,153 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.CachingProjectionRepository;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Unit tests for the near-cache (CachingProjectionRepository) in front of Redis.
+ *
+ * Projections are deleted from Redis behind the cache's back, so a result that is still
+ * present proves it came from the cache. Other pods are simulated by publishing on the
+ * invalidation channel directly.
+ */
+@SpringBootTest(properties = "telemetry.projection.near-cache.enabled=true")
+@Import(UnitTestConfiguration.class)
+class CachingProjectionRepositoryUnitTest extends TestContainersBase {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T13:00:00Z");
+    private static final Duration PROPAGATION = Duration.ofMillis(500);
+
+    @Autowired
+    private CachingProjectionRepository repository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    void clearData() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should serve a device written by this pod from the cache")
+    void should_serve_own_writes_from_cache() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+        deleteFromRedis(1L);
+
+        // When / Then - Our own invalidation message does not evict the entry
+        await().during(PROPAGATION).atMost(PROPAGATION.multipliedBy(4))
+            .until(() -> repository.findById(1L).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should answer the newer-than check from the cache")
+    void should_reject_older_readings_locally() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+        deleteFromRedis(1L);
+
+        // When - Redis alone would accept it, since it no longer holds the device
+        boolean written = repository.upsertIfNewer(1L, 9.0, NOW.minusSeconds(1));
+
+        // Then
+        assertThat(written).isFalse();
+        assertThat(repository.findById(1L)).get().extracting(DeviceProjection::getLastMeasurement).isEqualTo(10.0);
+    }
+
+    @Test
+    @DisplayName("Should cache devices written in bulk")
+    void should_cache_bulk_writes() {
+        // Given
+        repository.upsertAllIfNewer(List.of(
+            new DeviceProjection(1L, 10.0, NOW),
+            new DeviceProjection(2L, 20.0, NOW)
+        ));
+        deleteFromRedis(1L);
+        deleteFromRedis(2L);
+
+        // When / Then
+        await().during(PROPAGATION).atMost(PROPAGATION.multipliedBy(4))
+            .until(() -> repository.findAllById(List.of(1L, 2L)).size() == 2);
+    }
+
+    @Test
+    @DisplayName("Should evict devices written by another pod")
+    void should_evict_on_remote_invalidation() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+        repository.upsertIfNewer(2L, 20.0, NOW);
+        deleteFromRedis(1L);
+        deleteFromRedis(2L);
+
+        // When
+        publish("other-pod:1");
+
+        // Then - Only device 1 is reloaded (and found gone)
+        await().atMost(Duration.ofSeconds(5)).until(() -> repository.findById(1L).isEmpty());
+        assertThat(repository.findById(2L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should apply untagged invalidations and invalidate-all messages")
+    void should_apply_untagged_and_invalidate_all_messages() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+        repository.upsertIfNewer(2L, 20.0, NOW);
+        deleteFromRedis(1L);
+        deleteFromRedis(2L);
+
+        // When - A pod predating the instance tag
+        publish("1");
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> repository.findById(1L).isEmpty());
+
+        // When
+        publish("other-pod:" + RedisProjectionRepository.INVALIDATE_ALL);
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> repository.findById(2L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should clear the whole cache on a malformed invalidation")
+    void should_clear_cache_on_malformed_invalidation() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+        repository.upsertIfNewer(2L, 20.0, NOW);
+        deleteFromRedis(1L);
+        deleteFromRedis(2L);
+
+        // When - Device 2 is not named, but the message can't be trusted
+        publish("other-pod:1,not-a-device");
+
+        // Then
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> repository.findById(1L).isEmpty() && repository.findById(2L).isEmpty());
+    }
+
+    private void deleteFromRedis(long deviceId) {
+        stringRedisTemplate.delete("device:projection:" + deviceId);
+    }
+
+    private void publish(String message) {
+        stringRedisTemplate.convertAndSend(RedisProjectionRepository.INVALIDATION_CHANNEL, message);
+    }
+}
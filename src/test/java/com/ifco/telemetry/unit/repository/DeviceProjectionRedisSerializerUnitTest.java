@@ -0,0 +1,97 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ifco.telemetry.config.RedisConfig;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.DeviceProjectionRedisSerializer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Unit tests for DeviceProjectionRedisSerializer.
+ * Verifies the v1 binary layout the Lua scripts rely on, round trips in both formats
+ * and that legacy JSON values stay readable in binary mode.
+ */
+class DeviceProjectionRedisSerializerUnitTest {
+
+    private final GenericJackson2JsonRedisSerializer json = RedisConfig.legacyJsonSerializer();
+    private final DeviceProjectionRedisSerializer binary = new DeviceProjectionRedisSerializer(json, true);
+    private final DeviceProjectionRedisSerializer jsonMode = new DeviceProjectionRedisSerializer(json, false);
+
+    @Test
+    @DisplayName("Should encode the documented 29-byte v1 layout")
+    void should_encode_v1_layout() {
+        // Given
+        DeviceProjection projection =
+            new DeviceProjection(42L, -3.5, Instant.parse("2025-01-31T13:00:00.123456789Z"));
+
+        // When
+        byte[] bytes = binary.serialize(projection);
+
+        // Then - Timestamp at offset 17, where the Lua scripts read it
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertThat(bytes).hasSize(DeviceProjectionRedisSerializer.VERSION_1_LENGTH);
+        assertThat(buffer.get(0)).isEqualTo(DeviceProjectionRedisSerializer.VERSION_1);
+        assertThat(buffer.getLong(1)).isEqualTo(42L);
+        assertThat(buffer.getDouble(9)).isEqualTo(-3.5);
+        assertThat(buffer.getLong(17)).isEqualTo(projection.getLastUpdated().getEpochSecond());
+        assertThat(buffer.getInt(25)).isEqualTo(123_456_789);
+    }
+
+    @Test
+    @DisplayName("Should round-trip projections in the binary format")
+    void should_round_trip_binary() {
+        // Given - Including a timestamp before the epoch and extreme values
+        DeviceProjection[] projections = {
+            new DeviceProjection(1L, 21.5, Instant.parse("2025-01-31T13:00:00Z")),
+            new DeviceProjection(-7L, Double.MAX_VALUE, Instant.parse("1969-12-31T23:59:59.999999999Z")),
+            new DeviceProjection(Long.MAX_VALUE, -0.0, Instant.ofEpochSecond(0, 1))
+        };
+
+        // When / Then
+        for (DeviceProjection projection : projections) {
+            assertThat(binary.deserialize(binary.serialize(projection))).isEqualTo(projection);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write JSON in json mode and read it in both modes")
+    void should_write_and_read_legacy_json() {
+        // Given
+        DeviceProjection projection =
+            new DeviceProjection(5L, 18.25, Instant.parse("2025-01-31T13:00:00.5Z"));
+
+        // When
+        byte[] bytes = jsonMode.serialize(projection);
+
+        // Then - The JSON shape the Lua scripts parse the timestamp from
+        assertThat(DeviceProjectionRedisSerializer.isLegacyJson(bytes)).isTrue();
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).contains("\"lastUpdated\":1738328400.500000000");
+        assertThat(jsonMode.deserialize(bytes)).isEqualTo(projection);
+        assertThat(binary.deserialize(bytes)).isEqualTo(projection);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown versions and incomplete projections")
+    void should_reject_unknown_versions_and_incomplete_projections() {
+        // Given
+        byte[] futureVersion = new byte[DeviceProjectionRedisSerializer.VERSION_1_LENGTH];
+        futureVersion[0] = 0x02;
+
+        // When / Then
+        assertThatThrownBy(() -> binary.deserialize(futureVersion)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(new byte[] { 0x01, 0x00 }))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.serialize(new DeviceProjection(1L, null, Instant.now())))
+            .isInstanceOf(SerializationException.class);
+        assertThat(binary.deserialize(null)).isNull();
+        assertThat(binary.deserialize(new byte[0])).isNull();
+    }
+}
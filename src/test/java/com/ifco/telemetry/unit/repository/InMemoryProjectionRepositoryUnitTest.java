@@ -0,0 +1,126 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.InMemoryProjectionRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for InMemoryProjectionRepository.
+ * Verifies the newer-than semantics match the Redis scripts, tables grow without losing
+ * devices, iteration returns every device once, and concurrent writers keep the newest reading.
+ */
+class InMemoryProjectionRepositoryUnitTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T13:00:00.123456789Z");
+
+    private final InMemoryProjectionRepository repository = new InMemoryProjectionRepository(16);
+
+    @Test
+    @DisplayName("Should keep the newer reading and overwrite on equal timestamps")
+    void should_apply_newer_than_semantics() {
+        // Given
+        repository.upsertIfNewer(1L, 20.0, NOW);
+
+        // When
+        boolean olderWritten = repository.upsertIfNewer(1L, 10.0, NOW.minusNanos(1));
+        boolean sameWritten = repository.upsertIfNewer(1L, 25.0, NOW);
+
+        // Then - Nanosecond precision is kept
+        assertThat(olderWritten).isFalse();
+        assertThat(sameWritten).isTrue();
+        assertThat(repository.findById(1L)).contains(new DeviceProjection(1L, 25.0, NOW));
+        assertThat(repository.findById(2L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep every device while the tables grow")
+    void should_keep_devices_while_growing() {
+        // When - Far beyond the presized capacity, including negative ids
+        int written = repository.upsertAllIfNewer(
+            LongStream.range(-50_000, 50_000).mapToObj(id -> new DeviceProjection(id, (double) id, NOW)).toList()
+        );
+
+        // Then
+        assertThat(written).isEqualTo(100_000);
+        assertThat(repository.size()).isEqualTo(100_000);
+        assertThat(repository.findById(-42L)).get().extracting(DeviceProjection::getLastMeasurement).isEqualTo(-42.0);
+        assertThat(repository.findAllById(List.of(7L, 100_000L, -3L, 7L)))
+            .extracting(DeviceProjection::getDeviceId)
+            .containsExactly(7L, -3L);
+    }
+
+    @Test
+    @DisplayName("Should iterate every device exactly once")
+    void should_iterate_every_device_once() {
+        // Given
+        LongStream.range(0, 10_000).forEach(id -> repository.upsertIfNewer(id, 20.0, NOW));
+
+        // When
+        List<Long> streamed = repository.streamAll().map(DeviceProjection::getDeviceId).toList();
+        AtomicLong visited = new AtomicLong();
+        repository.forEach((deviceId, measurement, epochNanos) -> visited.incrementAndGet());
+
+        // Then
+        assertThat(streamed).hasSize(10_000).doesNotHaveDuplicates();
+        assertThat(visited.get()).isEqualTo(10_000);
+
+        // When
+        repository.deleteAll();
+
+        // Then
+        assertThat(repository.streamAll()).isEmpty();
+        assertThat(repository.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the newest reading under concurrent writers")
+    void should_keep_newest_reading_under_concurrency() throws Exception {
+        // Given - Each writer sends every device one reading, at its own timestamp
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int offset = writer;
+                futures.add(executor.submit(() -> {
+                    for (long id = 0; id < 20_000; id++) {
+                        repository.upsertIfNewer(id, (double) offset, NOW.plusSeconds(offset));
+                        repository.findById(id);
+                    }
+                }));
+            }
+
+            // When
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then - The last writer's (newest) reading wins everywhere
+        assertThat(repository.size()).isEqualTo(20_000);
+        assertThat(repository.streamAll())
+            .allSatisfy(projection -> assertThat(projection.getLastMeasurement()).isEqualTo(writers - 1.0));
+    }
+
+    @Test
+    @DisplayName("Should reject timestamps outside the supported range")
+    void should_reject_timestamps_out_of_range() {
+        // When / Then
+        assertThatThrownBy(() -> repository.upsertIfNewer(1L, 20.0, Instant.parse("2300-01-01T00:00:00Z")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
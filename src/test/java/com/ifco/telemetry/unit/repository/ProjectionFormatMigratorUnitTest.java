@@ -0,0 +1,149 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.config.RedisConfig;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.DeviceProjectionRedisSerializer;
+import com.ifco.telemetry.repository.ProjectionFormatMigrator;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Unit tests for ProjectionFormatMigrator.
+ * Verifies legacy JSON projections are rewritten in the binary format with their
+ * values intact, unindexed devices are added to the index, and a second run is a no-op.
+ * Also verifies the startup index backfill runs once and rewrites no value.
+ */
+@SpringBootTest
+@Import(UnitTestConfiguration.class)
+class ProjectionFormatMigratorUnitTest extends TestContainersBase {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T13:00:00.123456789Z");
+    private static final String INDEX_KEY = "device:projection-index";
+
+    @Autowired
+    private ProjectionFormatMigrator migrator;
+
+    @Autowired
+    private RedisProjectionRepository repository;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    void clearData() {
+        // Unindexed keys are invisible to deleteAll, and scanned counts every key
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("Should rewrite legacy JSON projections in the binary format")
+    void should_rewrite_legacy_json() {
+        // Given - Two legacy values without index entries, one current binary value
+        storeRaw(1L, RedisConfig.legacyJsonSerializer().serialize(new DeviceProjection(1L, 10.0, NOW)));
+        storeRaw(2L, RedisConfig.legacyJsonSerializer().serialize(new DeviceProjection(2L, -2.5, NOW.minusSeconds(60))));
+        repository.save(new DeviceProjection(3L, 30.0, NOW));
+
+        // When
+        ProjectionFormatMigrator.MigrationResult result = migrator.migrate();
+
+        // Then
+        assertThat(result.scanned()).isEqualTo(3);
+        assertThat(result.rewritten()).isEqualTo(2);
+        assertThat(rawValue(1L)).hasSize(DeviceProjectionRedisSerializer.VERSION_1_LENGTH);
+        assertThat(rawValue(2L)[0]).isEqualTo(DeviceProjectionRedisSerializer.VERSION_1);
+        assertThat(repository.findAllById(List.of(1L, 2L, 3L))).containsExactly(
+            new DeviceProjection(1L, 10.0, NOW),
+            new DeviceProjection(2L, -2.5, NOW.minusSeconds(60)),
+            new DeviceProjection(3L, 30.0, NOW)
+        );
+    }
+
+    @Test
+    @DisplayName("Should backfill the index and leave other keys alone")
+    void should_backfill_index() {
+        // Given
+        storeRaw(1L, RedisConfig.legacyJsonSerializer().serialize(new DeviceProjection(1L, 10.0, NOW)));
+        stringRedisTemplate.opsForValue().set("device:projection:not-a-device", "unrelated");
+
+        // When
+        migrator.migrate();
+
+        // Then - Fleet reads now see the device
+        assertThat(stringRedisTemplate.opsForZSet().range(INDEX_KEY, 0, -1)).containsExactly("1");
+        assertThat(repository.streamAll().map(DeviceProjection::getDeviceId)).containsExactly(1L);
+        assertThat(stringRedisTemplate.opsForValue().get("device:projection:not-a-device")).isEqualTo("unrelated");
+    }
+
+    @Test
+    @DisplayName("Should rewrite nothing on a second run")
+    void should_be_idempotent() {
+        // Given
+        storeRaw(1L, RedisConfig.legacyJsonSerializer().serialize(new DeviceProjection(1L, 10.0, NOW)));
+        migrator.migrate();
+
+        // When
+        ProjectionFormatMigrator.MigrationResult second = migrator.migrate();
+
+        // Then
+        assertThat(second.scanned()).isEqualTo(1);
+        assertThat(second.rewritten()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should backfill the index once at startup without rewriting values")
+    void should_backfill_index_once_at_startup() {
+        // Given - A legacy value written before the index existed
+        byte[] legacy = RedisConfig.legacyJsonSerializer().serialize(new DeviceProjection(1L, 10.0, NOW));
+        storeRaw(1L, legacy);
+        ProjectionFormatMigrator startupMigrator = new ProjectionFormatMigrator(redisTemplate, false, true);
+
+        // When
+        startupMigrator.run(null);
+
+        // Then - Indexed, still in the legacy format, and marked complete
+        assertThat(stringRedisTemplate.opsForZSet().range(INDEX_KEY, 0, -1)).containsExactly("1");
+        assertThat(rawValue(1L)).isEqualTo(legacy);
+        assertThat(startupMigrator.isIndexComplete()).isTrue();
+
+        // When - A later startup finds the marker and skips the scan
+        storeRaw(2L, RedisConfig.legacyJsonSerializer().serialize(new DeviceProjection(2L, 20.0, NOW)));
+        startupMigrator.run(null);
+
+        // Then
+        assertThat(stringRedisTemplate.opsForZSet().range(INDEX_KEY, 0, -1)).containsExactly("1");
+    }
+
+    private void storeRaw(long deviceId, byte[] value) {
+        byte[] key = ("device:projection:" + deviceId).getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.stringCommands().set(key, value);
+            return null;
+        });
+    }
+
+    private byte[] rawValue(long deviceId) {
+        byte[] key = ("device:projection:" + deviceId).getBytes(StandardCharsets.UTF_8);
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+    }
+}
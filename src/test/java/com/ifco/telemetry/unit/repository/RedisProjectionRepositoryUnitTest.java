@@ -0,0 +1,220 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.config.RedisConfig;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.DeviceProjectionRedisSerializer;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Unit tests for RedisProjectionRepository against a real Redis.
+ * Verifies the newer-than rule of the upsert scripts, maintenance of the device index
+ * and reads paging through it in chunks of 1000 devices, and that legacy JSON values are
+ * compared and replaced like binary ones.
+ */
+@SpringBootTest
+@Import(UnitTestConfiguration.class)
+class RedisProjectionRepositoryUnitTest extends TestContainersBase {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T13:00:00.500000000Z");
+
+    private static final String INDEX_KEY = "device:projection-index";
+
+    @Autowired
+    private RedisProjectionRepository repository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeEach
+    void clearData() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should overwrite on an equal timestamp and ignore an older one")
+    void should_overwrite_on_equal_timestamp() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+
+        // When
+        boolean equalWritten = repository.upsertIfNewer(1L, 11.0, NOW);
+        boolean olderWritten = repository.upsertIfNewer(1L, 12.0, NOW.minusNanos(1));
+
+        // Then - Last processed wins on ties; one nanosecond older is ignored
+        assertThat(equalWritten).isTrue();
+        assertThat(olderWritten).isFalse();
+        assertThat(repository.findById(1L)).contains(new DeviceProjection(1L, 11.0, NOW));
+    }
+
+    @Test
+    @DisplayName("Should compare seconds and nanos separately")
+    void should_compare_seconds_and_nanos() {
+        // Given - Same nanos, different second; larger nanos, earlier second
+        repository.upsertIfNewer(1L, 10.0, NOW);
+
+        // When
+        boolean earlierSecondWritten = repository.upsertIfNewer(1L, 11.0, NOW.minusSeconds(1).plusNanos(400_000_000));
+        boolean laterNanosWritten = repository.upsertIfNewer(1L, 12.0, NOW.plusNanos(1));
+
+        // Then
+        assertThat(earlierSecondWritten).isFalse();
+        assertThat(laterNanosWritten).isTrue();
+        assertThat(repository.findById(1L)).get().extracting(DeviceProjection::getLastMeasurement).isEqualTo(12.0);
+    }
+
+    @Test
+    @DisplayName("Should apply the newer-than rule per device in bulk upserts")
+    void should_apply_newer_than_rule_in_bulk() {
+        // Given
+        repository.upsertIfNewer(1L, 10.0, NOW);
+        repository.upsertIfNewer(2L, 20.0, NOW);
+
+        // When - Equal timestamp, older reading and a new device
+        int written = repository.upsertAllIfNewer(List.of(
+            new DeviceProjection(1L, 11.0, NOW),
+            new DeviceProjection(2L, 21.0, NOW.minusSeconds(5)),
+            new DeviceProjection(3L, 30.0, NOW)
+        ));
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(repository.findAllById(List.of(1L, 2L, 3L)))
+            .extracting(DeviceProjection::getLastMeasurement)
+            .containsExactly(11.0, 20.0, 30.0);
+    }
+
+    @Test
+    @DisplayName("Should add every written device to the index")
+    void should_index_written_devices() {
+        // When
+        repository.save(new DeviceProjection(1L, 10.0, NOW));
+        repository.upsertIfNewer(2L, 20.0, NOW);
+        repository.upsertAllIfNewer(List.of(new DeviceProjection(3L, 30.0, NOW)));
+        // An ignored (older) reading keeps the device indexed, without a duplicate member
+        repository.upsertIfNewer(2L, 19.0, NOW.minusSeconds(1));
+
+        // Then
+        assertThat(stringRedisTemplate.opsForZSet().range(INDEX_KEY, 0, -1)).containsExactlyInAnyOrder("1", "2", "3");
+    }
+
+    @Test
+    @DisplayName("Should delete projections and the index on deleteAll")
+    void should_delete_projections_and_index() {
+        // Given - More than one index page
+        repository.upsertAllIfNewer(projections(1500));
+
+        // When
+        repository.deleteAll();
+
+        // Then
+        assertThat(stringRedisTemplate.hasKey(INDEX_KEY)).isFalse();
+        assertThat(stringRedisTemplate.hasKey("device:projection:0")).isFalse();
+        assertThat(stringRedisTemplate.hasKey("device:projection:1499")).isFalse();
+        assertThat(repository.streamAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page through more than one index page exactly once")
+    void should_page_through_several_index_pages() {
+        // Given - Two full pages and a partial one
+        repository.upsertAllIfNewer(projections(2500));
+
+        // When
+        List<Long> streamed = repository.streamAll().map(DeviceProjection::getDeviceId).toList();
+        List<DeviceProjection> found = repository.findAllById(IntStream.range(0, 2500).mapToObj(Long::valueOf).toList());
+
+        // Then
+        assertThat(streamed).hasSize(2500).doesNotHaveDuplicates();
+        assertThat(found).hasSize(2500);
+        assertThat(found.get(1234).getDeviceId()).isEqualTo(1234L);
+    }
+
+    @Test
+    @DisplayName("Should page exactly at a page boundary")
+    void should_page_at_exact_page_boundary() {
+        // Given - Exactly one full page: the next (empty) page ends the stream
+        repository.upsertAllIfNewer(projections(1000));
+
+        // When / Then
+        assertThat(repository.streamAll().count()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should skip index members whose projection is gone")
+    void should_skip_dangling_index_members() {
+        // Given - A projection deleted behind the repository's back
+        repository.upsertAllIfNewer(projections(3));
+        stringRedisTemplate.delete("device:projection:1");
+
+        // When / Then
+        assertThat(repository.streamAll().map(DeviceProjection::getDeviceId)).containsExactlyInAnyOrder(0L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should compare and replace a legacy JSON projection")
+    void should_compare_and_replace_legacy_json() {
+        // Given - Values written by a pod predating the binary format
+        storeLegacyJson(new DeviceProjection(1L, 10.0, NOW));
+        storeLegacyJson(new DeviceProjection(2L, 20.0, NOW));
+        storeLegacyJson(new DeviceProjection(3L, 30.0, NOW));
+
+        // When
+        boolean olderWritten = repository.upsertIfNewer(1L, 11.0, NOW.minusNanos(1));
+        boolean equalWritten = repository.upsertIfNewer(2L, 21.0, NOW);
+        int bulkWritten = repository.upsertAllIfNewer(List.of(
+            new DeviceProjection(1L, 12.0, NOW.minusSeconds(1)),
+            new DeviceProjection(3L, 31.0, NOW.plusNanos(1))
+        ));
+
+        // Then - Older readings leave the JSON value in place, newer ones replace it with binary
+        assertThat(olderWritten).isFalse();
+        assertThat(equalWritten).isTrue();
+        assertThat(bulkWritten).isEqualTo(1);
+        assertThat(DeviceProjectionRedisSerializer.isLegacyJson(rawValue(1L))).isTrue();
+        assertThat(rawValue(2L)[0]).isEqualTo(DeviceProjectionRedisSerializer.VERSION_1);
+        assertThat(rawValue(3L)[0]).isEqualTo(DeviceProjectionRedisSerializer.VERSION_1);
+        assertThat(repository.findAllById(List.of(1L, 2L, 3L)))
+            .extracting(DeviceProjection::getLastMeasurement)
+            .containsExactly(10.0, 21.0, 31.0);
+    }
+
+    private void storeLegacyJson(DeviceProjection projection) {
+        byte[] key = ("device:projection:" + projection.getDeviceId()).getBytes(StandardCharsets.UTF_8);
+        byte[] value = RedisConfig.legacyJsonSerializer().serialize(projection);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.stringCommands().set(key, value);
+            return null;
+        });
+    }
+
+    private byte[] rawValue(long deviceId) {
+        byte[] key = ("device:projection:" + deviceId).getBytes(StandardCharsets.UTF_8);
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+    }
+
+    private static List<DeviceProjection> projections(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(id -> new DeviceProjection((long) id, (double) id, NOW))
+            .toList();
+    }
+}
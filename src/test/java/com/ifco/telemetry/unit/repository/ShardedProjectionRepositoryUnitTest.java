@@ -0,0 +1,237 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.config.RedisConfig;
+import com.ifco.telemetry.config.ShardedProjectionConfig;
+import com.ifco.telemetry.projection.DeviceProjection;
+import com.ifco.telemetry.repository.ProjectionFormatMigrator;
+import com.ifco.telemetry.repository.RedisProjectionRepository;
+import com.ifco.telemetry.repository.ShardedProjectionRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import io.lettuce.core.RedisURI;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Unit tests for ShardedProjectionRepository against three Redis nodes, played by
+ * logical databases 1-3 of the shared Redis container.
+ * Verifies devices are spread over all nodes, bulk and fleet reads see every device
+ * exactly once, and adding a node keeps every device readable while it is rebalanced
+ * (which waits for every shard's index backfill).
+ */
+@SpringBootTest(classes = { ShardedProjectionConfig.class })
+class ShardedProjectionRepositoryUnitTest extends TestContainersBase {
+
+    private static final List<String> NAMES = List.of("a", "b", "c");
+    private static final Instant NOW = Instant.parse("2025-01-31T13:00:00Z");
+
+    @DynamicPropertySource
+    static void configureShards(DynamicPropertyRegistry registry) {
+        registry.add("telemetry.projection.sharding.nodes", () -> nodeList(3));
+    }
+
+    @Autowired
+    private ShardedProjectionRepository repository;
+
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+
+    @BeforeEach
+    void clearData() {
+        repository.deleteAll();
+    }
+
+    @AfterEach
+    void closeConnections() {
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @Test
+    @DisplayName("Should spread devices over every node")
+    void should_spread_devices_over_every_node() {
+        // When
+        repository.upsertAllIfNewer(projections(0, 3000, NOW));
+
+        // Then - Each node holds its share, and no device is stored twice
+        Map<String, RedisProjectionRepository> nodes = nodeRepositories(3, "binary");
+        long stored = 0;
+        for (RedisProjectionRepository node : nodes.values()) {
+            long count = node.streamAll().count();
+            assertThat(count).isBetween(600L, 1400L);
+            stored += count;
+        }
+        assertThat(stored).isEqualTo(3000);
+    }
+
+    @Test
+    @DisplayName("Should read and write single devices and batches across nodes")
+    void should_read_and_write_across_nodes() {
+        // Given
+        repository.upsertAllIfNewer(projections(0, 100, NOW));
+
+        // When - One older and one newer reading
+        boolean olderWritten = repository.upsertIfNewer(7L, 99.0, NOW.minusSeconds(60));
+        boolean newerWritten = repository.upsertIfNewer(8L, 42.0, NOW.plusSeconds(60));
+
+        // Then
+        assertThat(olderWritten).isFalse();
+        assertThat(newerWritten).isTrue();
+        assertThat(repository.findById(7L)).get().extracting(DeviceProjection::getLastMeasurement).isEqualTo(7.0);
+        assertThat(repository.findById(8L)).get().extracting(DeviceProjection::getLastMeasurement).isEqualTo(42.0);
+        assertThat(repository.findById(1000L)).isEmpty();
+
+        // Then - Batch lookups keep the requested order and skip unknown devices
+        assertThat(repository.findAllById(List.of(50L, 1000L, 3L, 99L, 3L)))
+            .extracting(DeviceProjection::getDeviceId)
+            .containsExactly(50L, 3L, 99L);
+    }
+
+    @Test
+    @DisplayName("Should stream the whole fleet from all nodes exactly once")
+    void should_stream_the_whole_fleet_once() {
+        // Given - Several index pages per node
+        repository.upsertAllIfNewer(projections(0, 5000, NOW));
+
+        // When
+        List<Long> deviceIds = repository.streamAll().map(DeviceProjection::getDeviceId).toList();
+
+        // Then
+        assertThat(deviceIds).hasSize(5000).doesNotHaveDuplicates();
+        assertThat(deviceIds).containsExactlyInAnyOrderElementsOf(LongStream.range(0, 5000).boxed().toList());
+    }
+
+    @Test
+    @DisplayName("Should keep every device readable while moving devices to an added node")
+    void should_rebalance_to_an_added_node() {
+        // Given - Devices written while only nodes a and b existed
+        Map<String, RedisProjectionRepository> nodes = nodeRepositories(3, "binary");
+        try (ShardedProjectionRepository twoNodes = new ShardedProjectionRepository(nodes, NAMES.subList(0, 2), List.of());
+             ShardedProjectionRepository threeNodes = new ShardedProjectionRepository(nodes, NAMES, NAMES.subList(0, 2))) {
+            twoNodes.upsertAllIfNewer(projections(0, 2000, NOW));
+
+            // When - A newer reading arrives through the new ring before the rebalance
+            threeNodes.upsertAllIfNewer(List.of(new DeviceProjection(11L, 111.0, NOW.plusSeconds(60))));
+
+            // Then - Every device is readable, once, with its newest reading
+            assertThat(threeNodes.findAllById(LongStream.range(0, 2000).boxed().toList())).hasSize(2000);
+            assertThat(threeNodes.streamAll().map(DeviceProjection::getDeviceId).toList())
+                .hasSize(2000)
+                .doesNotHaveDuplicates();
+            assertThat(threeNodes.findById(11L)).get().extracting(DeviceProjection::getLastMeasurement).isEqualTo(111.0);
+
+            // When
+            AtomicLong scanned = new AtomicLong();
+            AtomicLong moved = new AtomicLong();
+            threeNodes.rebalance(scanned, moved);
+
+            // Then - About a third of the devices moved to node c, and nothing was lost
+            assertThat(scanned.get()).isGreaterThanOrEqualTo(2000);
+            assertThat(moved.get()).isBetween(400L, 1000L);
+            assertThat(nodes.get("c").streamAll().count()).isEqualTo(moved.get());
+            try (ShardedProjectionRepository rebalanced = new ShardedProjectionRepository(nodes, NAMES, List.of())) {
+                assertThat(rebalanced.streamAll().count()).isEqualTo(2000);
+                assertThat(rebalanced.findById(11L)).get()
+                    .extracting(DeviceProjection::getLastMeasurement).isEqualTo(111.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete moved projections that were stored as legacy JSON")
+    void should_delete_moved_legacy_json_projections() {
+        // Given - Devices written as JSON by pods that predate the binary format
+        Map<String, RedisProjectionRepository> legacyNodes = nodeRepositories(3, "json");
+        Map<String, RedisProjectionRepository> nodes = nodeRepositories(3, "binary");
+        try (ShardedProjectionRepository twoNodes = new ShardedProjectionRepository(legacyNodes, NAMES.subList(0, 2), List.of());
+             ShardedProjectionRepository threeNodes = new ShardedProjectionRepository(nodes, NAMES, NAMES.subList(0, 2))) {
+            twoNodes.upsertAllIfNewer(projections(0, 1000, NOW.plusNanos(123_456_789)));
+
+            // When - Copies are written in the binary format, so their bytes differ
+            AtomicLong scanned = new AtomicLong();
+            AtomicLong moved = new AtomicLong();
+            threeNodes.rebalance(scanned, moved);
+
+            // Then - The JSON originals were deleted, so each device is stored once
+            assertThat(moved.get()).isBetween(200L, 500L);
+            assertThat(nodes.get("c").streamAll().count()).isEqualTo(moved.get());
+            long stored = 0;
+            for (RedisProjectionRepository node : nodes.values()) {
+                stored += node.streamAll().count();
+            }
+            assertThat(stored).isEqualTo(1000);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to rebalance until every shard's index is backfilled")
+    void should_refuse_rebalance_before_index_backfill() {
+        // Given - Node c has not completed an index backfill
+        RedisTemplate<String, Object> nodeC = nodeTemplate(2, "binary");
+        nodeC.delete("device:projection-index-complete");
+        Map<String, RedisProjectionRepository> nodes = nodeRepositories(3, "binary");
+        try (ShardedProjectionRepository threeNodes = new ShardedProjectionRepository(nodes, NAMES, NAMES.subList(0, 2))) {
+
+            // When / Then
+            assertThatThrownBy(() -> threeNodes.rebalance(new AtomicLong(), new AtomicLong()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[c]");
+
+            // When - The shard's startup backfill runs
+            new ProjectionFormatMigrator(nodeC, false, true).run(null);
+
+            // Then
+            assertThatCode(() -> threeNodes.rebalance(new AtomicLong(), new AtomicLong()))
+                .doesNotThrowAnyException();
+        }
+    }
+
+    private static List<DeviceProjection> projections(long fromId, long toId, Instant lastUpdated) {
+        return LongStream.range(fromId, toId)
+            .mapToObj(id -> new DeviceProjection(id, (double) id, lastUpdated))
+            .toList();
+    }
+
+    private static String nodeList(int count) {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(NAMES.get(i) + "=" + redisUri(i + 1));
+        }
+        return String.join(",", nodes);
+    }
+
+    private Map<String, RedisProjectionRepository> nodeRepositories(int count, String redisFormat) {
+        Map<String, RedisProjectionRepository> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put(NAMES.get(i), new RedisProjectionRepository(nodeTemplate(i, redisFormat), false));
+        }
+        return nodes;
+    }
+
+    private RedisTemplate<String, Object> nodeTemplate(int node, String redisFormat) {
+        RedisURI uri = RedisURI.create(redisUri(node + 1));
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(uri.getHost(), uri.getPort());
+        configuration.setDatabase(uri.getDatabase());
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactories.add(connectionFactory);
+        return RedisConfig.projectionRedisTemplate(connectionFactory, redisFormat);
+    }
+}
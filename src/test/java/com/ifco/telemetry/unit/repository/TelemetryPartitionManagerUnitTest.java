@@ -0,0 +1,165 @@
+package com.ifco.telemetry.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ifco.telemetry.TestContainersBase;
+import com.ifco.telemetry.UnitTestConfiguration;
+import com.ifco.telemetry.domain.Telemetry;
+import com.ifco.telemetry.repository.TelemetryPartitionManager;
+import com.ifco.telemetry.repository.TelemetryRepository;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for TelemetryPartitionManager against the real (Flyway-migrated) schema.
+ * Verifies future partitions are pre-created without touching the default partition
+ * (and without leaving constraints on it), and the backfill job moves rows into partitions of their own, a few periods per run
+ * and only inside the accepted window.
+ */
+@SpringBootTest(
+    classes = { TelemetryPartitionManager.class },
+    properties = {
+        "telemetry.partitioning.interval=daily",
+        "telemetry.partitioning.premake=2",
+        "telemetry.partitioning.backfill.max-periods-per-run=2",
+        "telemetry.partitioning.backfill.max-age-days=400",
+    }
+)
+@EnableAutoConfiguration
+@Import(UnitTestConfiguration.class)
+class TelemetryPartitionManagerUnitTest extends TestContainersBase {
+
+    @Autowired
+    private TelemetryPartitionManager partitionManager;
+
+    @Autowired
+    private TelemetryRepository telemetryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearData() {
+        telemetryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should pre-create partitions for today and the next days")
+    void should_precreate_future_partitions() {
+        // When
+        partitionManager.maintain();
+
+        // Then
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= 2; i++) {
+            assertThat(partitionExists("telemetry_d" + today.plusDays(i).format(DateTimeFormatter.BASIC_ISO_DATE)))
+                .isTrue();
+        }
+        assertThat(defaultPartitionCheckConstraints()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should move rows of a premade period that already reached the default partition")
+    void should_move_rows_of_premade_period_from_default_partition() {
+        // Given - A future-dated reading arrived while its period had no partition
+        LocalDate future = LocalDate.now(ZoneOffset.UTC).plusDays(2);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(future));
+        telemetryRepository.save(new Telemetry(1L, 10.0, future.atTime(8, 0).toInstant(ZoneOffset.UTC)));
+
+        // When
+        partitionManager.maintain();
+
+        // Then
+        assertThat(countRows(partitionName(future))).isEqualTo(1);
+        assertThat(countRows("telemetry_default")).isZero();
+        assertThat(defaultPartitionCheckConstraints()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should move backfilled rows out of the default partition a few periods per run")
+    void should_move_rows_out_of_default_partition() {
+        // Given - Readings from three days without partition land in the default partition
+        LocalDate first = LocalDate.now(ZoneOffset.UTC).minusDays(102);
+        for (int i = 0; i < 3; i++) {
+            telemetryRepository.save(
+                new Telemetry(1L, 10.0, first.plusDays(i).atTime(13, 0).toInstant(ZoneOffset.UTC))
+            );
+        }
+
+        // When - Startup maintenance leaves the default partition alone
+        partitionManager.maintain();
+
+        // Then
+        assertThat(countRows("telemetry_default")).isEqualTo(3);
+
+        // When
+        partitionManager.backfillDefaultPartition();
+
+        // Then - The two oldest days moved, the last one waits for the next run
+        assertThat(countRows(partitionName(first))).isEqualTo(1);
+        assertThat(countRows(partitionName(first.plusDays(1)))).isEqualTo(1);
+        assertThat(partitionExists(partitionName(first.plusDays(2)))).isFalse();
+        assertThat(countRows("telemetry_default")).isEqualTo(1);
+
+        // When
+        partitionManager.backfillDefaultPartition();
+
+        // Then
+        assertThat(countRows(partitionName(first.plusDays(2)))).isEqualTo(1);
+        assertThat(countRows("telemetry_default")).isZero();
+        assertThat(telemetryRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should leave rows outside the accepted window in the default partition")
+    void should_leave_rows_outside_window_in_default_partition() {
+        // Given - A device with its clock reset, and one far in the future
+        telemetryRepository.save(new Telemetry(1L, 10.0, Instant.parse("1970-01-01T00:00:05Z")));
+        telemetryRepository.save(new Telemetry(2L, 10.0, Instant.parse("2999-01-01T00:00:00Z")));
+
+        // When
+        int created = partitionManager.backfillDefaultPartition();
+
+        // Then
+        assertThat(created).isZero();
+        assertThat(partitionExists("telemetry_d19700101")).isFalse();
+        assertThat(partitionExists("telemetry_d29990101")).isFalse();
+        assertThat(countRows("telemetry_default")).isEqualTo(2);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "telemetry_d" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private boolean partitionExists(String name) {
+        return Boolean.TRUE.equals(
+            jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = 'telemetry'::regclass AND c.relname = ?)",
+                Boolean.class,
+                name
+            )
+        );
+    }
+
+    private long defaultPartitionCheckConstraints() {
+        return jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_constraint WHERE conrelid = 'telemetry_default'::regclass AND contype = 'c'",
+            Long.class
+        );
+    }
+
+    private long countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+}